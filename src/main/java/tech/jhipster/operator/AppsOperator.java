@@ -1,15 +1,33 @@
 package tech.jhipster.operator;
 
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionList;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import tech.jhipster.operator.app.AppDeletion;
 import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppState;
+import tech.jhipster.operator.app.DeploymentReadiness;
+import tech.jhipster.operator.app.HealthProbeScheduler;
+import tech.jhipster.operator.app.ReconcileDecision;
+import tech.jhipster.operator.app.ReconcileJournal;
+import tech.jhipster.operator.app.ReconcileRetries;
+import tech.jhipster.operator.app.SpecFingerprints;
+import tech.jhipster.operator.app.StateSnapshot;
+import tech.jhipster.operator.app.StateSnapshots;
+import tech.jhipster.operator.app.StatusFlusher;
+import tech.jhipster.operator.core.ApiPriority;
 import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.core.WatchActivity;
+import tech.jhipster.operator.tracing.Span;
+import tech.jhipster.operator.tracing.Tracer;
 import tech.jhipster.operator.crds.app.*;
 import tech.jhipster.operator.crds.gateway.DoneableGateway;
 import tech.jhipster.operator.crds.gateway.Gateway;
@@ -23,12 +41,28 @@ import tech.jhipster.operator.crds.registry.RegistryList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import tech.jhipster.operator.app.AppCRDs;
+import tech.jhipster.operator.jdl.JDLDiff;
 import tech.jhipster.operator.jdl.JDLParser;
 import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+import tech.jhipster.operator.routes.LocalRateLimits;
+import tech.jhipster.operator.routes.ServiceEndpointsRegistry;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Service
 public class AppsOperator {
@@ -47,17 +81,47 @@ public class AppsOperator {
     private boolean gatewayWatchRegistered = false;
     private boolean registryWatchRegistered = false;
     private boolean applicationWatchRegistered = false;
+    private Watch microServiceWatch;
+    private Watch gatewayWatch;
+    private Watch registryWatch;
+    private Watch applicationWatch;
 
-    private String appsResourceVersion;
-    private String microServicesResourceVersion;
-    private String registriesResourceVersion;
-    private String gatewaysResourceVersion;
+    // Last resourceVersion seen for each kind, the watches start (or resume after a restart) from here
+    private volatile String appsResourceVersion;
+    private volatile String microServicesResourceVersion;
+    private volatile String registriesResourceVersion;
+    private volatile String gatewaysResourceVersion;
 
     private NonNamespaceOperation<Application, ApplicationList, DoneableApplication, Resource<Application, DoneableApplication>> appCRDClient;
     private NonNamespaceOperation<MicroService, MicroServiceList, DoneableMicroService, Resource<MicroService, DoneableMicroService>> microServicesCRDClient;
     private NonNamespaceOperation<Gateway, GatewayList, DoneableGateway, Resource<Gateway, DoneableGateway>> gatewaysCRDClient;
     private NonNamespaceOperation<Registry, RegistryList, DoneableRegistry, Resource<Registry, DoneableRegistry>> registriesCRDClient;
 
+    // Generation and dependencies fingerprint of each app the last time that it was reconciled
+    private Map<String, ReconcileMark> reconcileMarks = new ConcurrentHashMap<>();
+
+    // What each watch has been doing, by kind
+    private Map<String, WatchActivity> watchActivity = new ConcurrentHashMap<>();
+
+    // Fingerprint of the spec of each resource, MODIFIED events that don't change it are skipped
+    private SpecFingerprints specFingerprints = new SpecFingerprints();
+
+    private static final String BACKGROUND_PROPAGATION = "Background";
+    // Last deletion of each app, so the REST API can report its progress, finished ones are kept for a while
+    private Map<String, AppDeletion> appDeletions = new ConcurrentHashMap<>();
+    @Value("${jhipster.operator.deletion.retention:600000}")
+    private long deletionRetention;
+    private ExecutorService deletionExecutor = Executors.newSingleThreadExecutor();
+
+    // Reconcile passes triggered by the Deployments watch, out of the reconcile loop
+    private ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor();
+    private AtomicBoolean reconcilePending = new AtomicBoolean(false);
+    // App being reconciled right now, null between passes
+    private volatile String reconcilingApp;
+
+
+    @Value("${jhipster.operator.load.page-size:100}")
+    private int loadPageSize;
 
     @Autowired
     private AppService appService;
@@ -65,10 +129,46 @@ public class AppsOperator {
     @Autowired
     private K8SCoreRuntime k8SCoreRuntime;
 
+    @Autowired
+    private ServiceEndpointsRegistry serviceEndpointsRegistry;
+
+    @Autowired
+    private LocalRateLimits localRateLimits;
+
+    @Autowired
+    private StateSnapshots stateSnapshots;
+
+    @Autowired
+    private OwnWrites ownWrites;
+
+    @Autowired
+    private HealthProbeScheduler healthProbes;
+
+    @Autowired
+    private DeploymentReadiness deploymentReadiness;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private ReconcileJournal reconcileJournal;
+
+    @Autowired
+    private ReconcileRetries reconcileRetries;
+
+    @Autowired
+    private StatusFlusher statusFlusher;
+
     public void bootstrap() {
-        crdsFound = areRequiredCRDsPresent();
-        if (crdsFound) {
-            initDone = init();
+        try (Span span = tracer.start("operator.bootstrap")) {
+            crdsFound = areRequiredCRDsPresent();
+            if (crdsFound) {
+                initDone = init();
+            }
+            span.setAttribute("crdsFound", crdsFound).setAttribute("initDone", initDone);
         }
     }
 
@@ -126,8 +226,8 @@ public class AppsOperator {
     /*
      * Init can only be called if all the required CRDs are present
      *  - It creates the CRD clients to be able to watch and execute operations
-     *  - It loads the existing resources (current state in the cluster)
-     *  - It register the watches for our CRDs
+     *  - It loads the existing resources (current state in the cluster), or the state snapshot saved before a restart
+     *  - It register the watches for our CRDs, resuming from the snapshot resourceVersions if there is one
      */
     public boolean init() {
         logger.info("> JHipster K8s Operator is Starting!");
@@ -136,8 +236,11 @@ public class AppsOperator {
         microServicesCRDClient = k8SCoreRuntime.customResourcesClient(microServiceCRD, MicroService.class, MicroServiceList.class, DoneableMicroService.class).inNamespace(k8SCoreRuntime.getNamespace());
         gatewaysCRDClient = k8SCoreRuntime.customResourcesClient(gatewayCRD, Gateway.class, GatewayList.class, DoneableGateway.class).inNamespace(k8SCoreRuntime.getNamespace());
         registriesCRDClient = k8SCoreRuntime.customResourcesClient(registryCRD, Registry.class, RegistryList.class, DoneableRegistry.class).inNamespace(k8SCoreRuntime.getNamespace());
+        statusFlusher.start(applicationCRD);
 
-        if (loadExistingResources() && watchOurCRDs()) {
+        if ((restoreSnapshot() || loadExistingResources()) && watchOurCRDs()) {
+            // The routes are built from the apps that we just loaded
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
             return true;
         }
 
@@ -186,49 +289,187 @@ public class AppsOperator {
      * Load existing instances of our CRDs
      *  - This checks the existing resources and make sure that they are loaded correctly
      *  - This also performs the binding of a service to its app
+     *  - The four kinds are listed at the same time and page by page, items are loaded as the pages arrive
+     *  - Services that arrive before their app are bound when all the apps are loaded
+     *  - When loading again after a watch failure, the apps and the route limits of the resources deleted in the
+     *    meantime are dropped
      */
     private boolean loadExistingResources() {
-        // Load Existing Applications
-        List<Application> applicationList = appCRDClient.list().getItems();
-        if (!applicationList.isEmpty()) {
-            appsResourceVersion = applicationList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Applications Resource Version: " + appsResourceVersion);
-            applicationList.forEach(app -> {
-                appService.addApp(app.getMetadata().getName(), app);
-                logger.info("> App " + app.getMetadata().getName() + " found.");
-            });
+        Set<String> appNames = ConcurrentHashMap.newKeySet();
+        Set<String> routeIds = ConcurrentHashMap.newKeySet();
+        Queue<CustomService> pendingServices = new ConcurrentLinkedQueue<>();
+        AtomicBoolean appsLoaded = new AtomicBoolean(false);
+        ExecutorService loadExecutor = Executors.newFixedThreadPool(4);
+        specFingerprints.clear();
+        try {
+            // Load Existing Applications
+            CompletableFuture<String> apps = CompletableFuture.supplyAsync(() ->
+                    k8SCoreRuntime.listPages(applicationCRD, ApplicationList.class, loadPageSize, ApiPriority.NORMAL, (Application app) -> {
+                        appNames.add(app.getMetadata().getName());
+                        appService.addApp(app.getMetadata().getName(), app);
+                        specFingerprints.record(app);
+                        updateRateLimits(app, false);
+                        logger.info("> App " + app.getMetadata().getName() + " found.");
+                    }), loadExecutor)
+                    .whenComplete((resourceVersion, error) -> appsLoaded.set(true));
+            // Load Existing Services
+            CompletableFuture<String> microServices = CompletableFuture.supplyAsync(() ->
+                    k8SCoreRuntime.listPages(microServiceCRD, MicroServiceList.class, loadPageSize, ApiPriority.NORMAL, (MicroService microService) ->
+                            loadService(microService, appsLoaded, pendingServices, routeIds)), loadExecutor);
+            // Load Existing Gateways
+            CompletableFuture<String> gateways = CompletableFuture.supplyAsync(() ->
+                    k8SCoreRuntime.listPages(gatewayCRD, GatewayList.class, loadPageSize, ApiPriority.NORMAL, (Gateway gateway) ->
+                            loadService(gateway, appsLoaded, pendingServices, routeIds)), loadExecutor);
+            // Load Existing Registries
+            CompletableFuture<String> registries = CompletableFuture.supplyAsync(() ->
+                    k8SCoreRuntime.listPages(registryCRD, RegistryList.class, loadPageSize, ApiPriority.NORMAL, (Registry registry) ->
+                            loadService(registry, appsLoaded, pendingServices, routeIds)), loadExecutor);
+
+            CompletableFuture.allOf(apps, microServices, gateways, registries).join();
+            appsResourceVersion = apps.join();
+            microServicesResourceVersion = microServices.join();
+            gatewaysResourceVersion = gateways.join();
+            registriesResourceVersion = registries.join();
+            logger.info(">> Resource Versions, Applications: " + appsResourceVersion + ", MicroServices: " + microServicesResourceVersion
+                    + ", Gateways: " + gatewaysResourceVersion + ", Registries: " + registriesResourceVersion);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            loadExecutor.shutdown();
+        }
+        // When loading again after a watch failure, some apps and services may be gone
+        for (String appName : appService.getAppsMap().keySet()) {
+            if (!appNames.contains(appName)) {
+                localRateLimits.setAppLimit(appName, null);
+            }
+        }
+        localRateLimits.retainRouteLimits(routeIds);
+        appService.retainApps(appNames);
+        CustomService pending;
+        while ((pending = pendingServices.poll()) != null) {
+            bindService(pending);
+        }
+        return true;
+    }
 
+    /*
+     * Load the state snapshot saved before a restart, so we don't need to list everything again
+     *  - The watches resume from the saved resourceVersions and bring us up to date
+     *  - If the saved versions are too old the watches are closed with 410 Gone and we load everything (see resync)
+     */
+    private boolean restoreSnapshot() {
+        StateSnapshot snapshot = stateSnapshots.getRestored();
+        if (snapshot == null) {
+            return false;
         }
-        // Load Existing Service As
-        List<MicroService> microServiceList = microServicesCRDClient.list().getItems();
-        if (!microServiceList.isEmpty()) {
-            microServicesResourceVersion = microServiceList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> MicroService Resource Version: " + microServicesResourceVersion);
-            microServiceList.forEach(microService -> {
-                appService.addMicroServiceToApp(microService);
-            });
+        stateSnapshots.clearRestored();
+        Map<String, String> versions = snapshot.getResourceVersions();
+        if (versions.get(StateSnapshot.APPLICATIONS) == null || versions.get(StateSnapshot.MICROSERVICES) == null
+                || versions.get(StateSnapshot.GATEWAYS) == null || versions.get(StateSnapshot.REGISTRIES) == null) {
+            logger.info("> State snapshot without resource versions, loading existing resources");
+            return false;
         }
-        // Load Existing Gateways
-        List<Gateway> gatewayList = gatewaysCRDClient.list().getItems();
-        if (!gatewayList.isEmpty()) {
-            gatewaysResourceVersion = gatewayList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Gateway Resource Version: " + gatewaysResourceVersion);
-            gatewayList.forEach(gateway -> {
-                appService.addGatewayToApp(gateway);
-            });
+        for (AppState app : snapshot.getApps()) {
+            appService.putApp(app.getName(), app);
+            localRateLimits.setAppLimit(app.getName(), app.getRateLimit());
+            logger.info("> App " + app.getName() + " restored from the state snapshot.");
+        }
+        snapshot.getRouteRateLimits().forEach(localRateLimits::setRouteLimit);
+        appsResourceVersion = versions.get(StateSnapshot.APPLICATIONS);
+        microServicesResourceVersion = versions.get(StateSnapshot.MICROSERVICES);
+        gatewaysResourceVersion = versions.get(StateSnapshot.GATEWAYS);
+        registriesResourceVersion = versions.get(StateSnapshot.REGISTRIES);
+        logger.info(">> Resuming from Resource Versions, Applications: " + appsResourceVersion + ", MicroServices: " + microServicesResourceVersion
+                + ", Gateways: " + gatewaysResourceVersion + ", Registries: " + registriesResourceVersion);
+        return true;
+    }
 
+    /*
+     * Write the pending Application status before the last snapshot, whatever is left is marked as unwritten in it
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (initDone && stateSnapshots.isEnabled() && !statusFlusher.drain()) {
+            logger.warn("> " + statusFlusher.getPendingCount() + " Application status writes are pending, they will be written again after the restart");
         }
-        // Load Existing Registries
-        List<Registry> registriesList = registriesCRDClient.list().getItems();
-        if (!registriesList.isEmpty()) {
-            registriesResourceVersion = registriesList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Registry Resource Version: " + registriesResourceVersion);
-            registriesList.forEach(registry -> {
-                appService.addRegistryToApp(registry);
-            });
+        saveSnapshot();
+    }
 
+    /*
+     * Save the state snapshot, it is called periodically once the operator is in sync with the cluster and on shutdown
+     */
+    public void saveSnapshot() {
+        if (!initDone || !stateSnapshots.isEnabled()) {
+            return;
+        }
+        // Versions first, see StateSnapshots.save
+        Map<String, String> versions = new LinkedHashMap<>();
+        versions.put(StateSnapshot.APPLICATIONS, appsResourceVersion);
+        versions.put(StateSnapshot.MICROSERVICES, microServicesResourceVersion);
+        versions.put(StateSnapshot.GATEWAYS, gatewaysResourceVersion);
+        versions.put(StateSnapshot.REGISTRIES, registriesResourceVersion);
+        stateSnapshots.save(versions);
+    }
+
+    /*
+     * A watch that is closed with an error (410 Gone if its resourceVersion is too old) can miss events
+     *  - All the watches are closed and the next bootstrap loads everything again and watches from there
+     *  - The apps that we know stay in place until then, so the routes keep working
+     */
+    private synchronized void resync(String kind, KubernetesClientException cause) {
+        if (!initDone) {
+            return;
+        }
+        logger.error("> " + kind + " watch closed (code: " + cause.getCode() + "), loading existing resources again: " + cause.getMessage());
+        initDone = false;
+        closeWatches();
+    }
+
+    private void closeWatches() {
+        for (Watch watch : Arrays.asList(applicationWatch, microServiceWatch, gatewayWatch, registryWatch)) {
+            if (watch != null) {
+                try {
+                    watch.close();
+                } catch (RuntimeException e) {
+                    logger.debug(">> Watch couldn't be closed: " + e.getMessage());
+                }
+            }
+        }
+        applicationWatch = null;
+        microServiceWatch = null;
+        gatewayWatch = null;
+        registryWatch = null;
+        applicationWatchRegistered = false;
+        microServiceWatchRegistered = false;
+        gatewayWatchRegistered = false;
+        registryWatchRegistered = false;
+    }
+
+    private void loadService(CustomService service, AtomicBoolean appsLoaded, Queue<CustomService> pendingServices, Set<String> routeIds) {
+        String routeId = routeId(service);
+        if (routeId != null) {
+            routeIds.add(routeId);
+        }
+        updateRateLimits(service, false);
+        specFingerprints.record(service);
+        if (appsLoaded.get()) {
+            bindService(service);
+        } else {
+            pendingServices.add(service);
+        }
+    }
+
+    private void bindService(CustomService service) {
+        if (service instanceof Gateway) {
+            appService.addGatewayToApp((Gateway) service);
+        } else if (service instanceof Registry) {
+            appService.addRegistryToApp((Registry) service);
+        } else {
+            appService.addMicroServiceToApp(service);
         }
-        return true;
     }
 
 
@@ -248,71 +489,202 @@ public class AppsOperator {
      */
     private void registerApplicationWatch() {
         logger.info("> Registering Application CRD Watch");
-        appCRDClient.withResourceVersion(appsResourceVersion).watch(new Watcher<Application>() {
+        applicationWatch = appCRDClient.withResourceVersion(appsResourceVersion).watch(new Watcher<Application>() {
             @Override
             public void eventReceived(Watcher.Action action, Application application) {
-                if (action.equals(Action.ADDED)) {
-                    logger.info(">> Adding App: " + application.getMetadata().getName());
-                    appService.addApp(application.getMetadata().getName(), application);
-                    List<MicroService> microServiceForAppList = microServicesCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems();
-                    if (microServiceForAppList != null && !microServiceForAppList.isEmpty()) {
-                        microServiceForAppList.forEach(microService -> {
-                            appService.addMicroServiceToApp(microService);
-                        });
+                long started = System.nanoTime();
+                try (Span span = tracer.start("watch.Application")) {
+                    span.setAttribute("action", action).setAttribute("name", application.getMetadata().getName());
+                    appsResourceVersion = application.getMetadata().getResourceVersion();
+                    // Our own status writes come back as MODIFIED events, nothing to do with them
+                    if (action.equals(Action.MODIFIED) && ownWrites.isEcho(application)) {
+                        span.setAttribute("echo", true);
+                        return;
                     }
-                    List<Gateway> gatewayForAppList = gatewaysCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems();
-                    if (gatewayForAppList != null && !gatewayForAppList.isEmpty()) {
-                        gatewayForAppList.forEach(gateway -> {
-                            appService.addGatewayToApp(gateway);
-                        });
+                    updateRateLimits(application, action.equals(Action.DELETED));
+                    if (action.equals(Action.ADDED)) {
+                        logger.info(">> Adding App: " + application.getMetadata().getName());
+                        specFingerprints.record(application);
+                        loadApp(application);
                     }
-                    List<Registry> registryForAppList = registriesCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems();
-                    if (registryForAppList != null && !registryForAppList.isEmpty()) {
-                        registryForAppList.forEach(registry -> {
-                            appService.addRegistryToApp(registry);
-                        });
+                    if (action.equals(Action.MODIFIED)) {
+                        appModified(application);
+                    }
+                    if (action.equals(Action.DELETED)) {
+                        logger.info(">> Deleting App: " + application.getMetadata().getName());
+                        specFingerprints.forget(application);
+                        reconcileRetries.forget(application.getMetadata().getName());
+                        statusFlusher.forget(application.getMetadata().getName());
+                        appService.removeApp(application.getMetadata().getName());
                     }
-                }
-                if (action.equals(Action.DELETED)) {
-                    logger.info(">> Deleting App: " + application.getMetadata().getName());
-                    appService.removeApp(application.getMetadata().getName());
-                }
 
-                if (application.getSpec() == null) {
-                    logger.info("No Spec for resource " + application.getMetadata().getName());
+                    if (application.getSpec() == null) {
+                        logger.info("No Spec for resource " + application.getMetadata().getName());
+                    }
+                } catch (KubernetesClientException e) {
+                    watchEventFailed(application.getMetadata().getName(), application, e);
+                } finally {
+                    watchActivity.computeIfAbsent("Application", kind -> new WatchActivity()).eventHandled(application.getMetadata().getResourceVersion(), started);
                 }
             }
 
             @Override
             public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    resync("Application", cause);
+                }
             }
         });
         applicationWatchRegistered = true;
 
     }
 
+    /*
+     * Apply the new spec of an app, only if something that the operator uses changed
+     *  - Apps being deleted are left alone, the cascade deletion already removed them from memory
+     */
+    private void appModified(Application application) {
+        String appName = application.getMetadata().getName();
+        if (!specFingerprints.changed(application)) {
+            logger.debug(">> App " + appName + " modified without spec changes, skipping.");
+            return;
+        }
+        specFingerprints.record(application);
+        if (application.getMetadata().getDeletionTimestamp() != null) {
+            return;
+        }
+        logger.info(">> Updating App: " + appName);
+        appService.updateAppSpec(application);
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    /*
+     * Bind a service again after its spec changed, it may point to another K8s Service or belong to another app now
+     *  - Services seen for the first time (i.e. after a warm start from a snapshot) are treated as changed once
+     */
+    private void serviceModified(CustomService service) {
+        if (!specFingerprints.changed(service)) {
+            logger.debug(">> " + service.getKind() + " " + service.getMetadata().getName() + " modified without spec changes, skipping.");
+            return;
+        }
+        String previousApp = specFingerprints.record(service);
+        if (previousApp == null && service.getMetadata().getLabels() != null) {
+            previousApp = service.getMetadata().getLabels().get("app");
+        }
+        logger.info(">> Updating " + service.getKind() + ": " + service.getMetadata().getName());
+        appService.unbindService(previousApp, service);
+        bindService(service);
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    /*
+     * Add an app with the services that are already bound to it
+     */
+    private void loadApp(Application application) {
+        appService.addApp(application.getMetadata().getName(), application);
+        List<MicroService> microServiceForAppList = k8SCoreRuntime.call(ApiPriority.HIGH, () -> microServicesCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems());
+        if (microServiceForAppList != null && !microServiceForAppList.isEmpty()) {
+            microServiceForAppList.forEach(microService -> {
+                appService.addMicroServiceToApp(microService);
+            });
+        }
+        List<Gateway> gatewayForAppList = k8SCoreRuntime.call(ApiPriority.HIGH, () -> gatewaysCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems());
+        if (gatewayForAppList != null && !gatewayForAppList.isEmpty()) {
+            gatewayForAppList.forEach(gateway -> {
+                appService.addGatewayToApp(gateway);
+            });
+        }
+        List<Registry> registryForAppList = k8SCoreRuntime.call(ApiPriority.HIGH, () -> registriesCRDClient.withLabel("app", application.getMetadata().getName()).list().getItems());
+        if (registryForAppList != null && !registryForAppList.isEmpty()) {
+            registryForAppList.forEach(registry -> {
+                appService.addRegistryToApp(registry);
+            });
+        }
+    }
+
+    /*
+     * A K8s call failed while a watch event was handled, the app may be missing resources in memory now
+     *  - The app is loaded again with backoff, and it isn't reconciled until then
+     */
+    private void watchEventFailed(String appName, HasMetadata resource, KubernetesClientException e) {
+        String error = resource.getKind() + " " + resource.getMetadata().getName() + " event failed: " + e.getMessage();
+        if (appName == null || appName.isEmpty()) {
+            logger.error(">> " + error);
+            return;
+        }
+        reconcileRetries.failed(appName, error, true, () -> reloadApp(appName));
+    }
+
+    private String appOf(CustomService service) {
+        Map<String, String> labels = service.getMetadata().getLabels();
+        return (labels == null) ? null : labels.get("app");
+    }
+
+    /*
+     * Load an app again with all its services, the retry of a failed watch event
+     */
+    private void reloadApp(String appName) {
+        if (!on || !initDone) {
+            return;
+        }
+        try {
+            Application application = k8SCoreRuntime.call(ApiPriority.HIGH, () -> appCRDClient.withName(appName).get());
+            if (application == null || application.getMetadata().getDeletionTimestamp() != null) {
+                reconcileRetries.forget(appName);
+                return;
+            }
+            logger.info(">> Loading App again: " + appName);
+            specFingerprints.record(application);
+            loadApp(application);
+            updateRateLimits(application, false);
+            reconcileRetries.succeeded(appName);
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+            reconcileSoon();
+        } catch (KubernetesClientException e) {
+            reconcileRetries.failed(appName, "Loading the app failed: " + e.getMessage(), true, () -> reloadApp(appName));
+        }
+    }
+
     /*
      * Register Registry Watch
      */
 
     private void registerMicroServiceWatch() {
         logger.info("> Registering MicroService CRD Watch");
-        microServicesCRDClient.withResourceVersion(microServicesResourceVersion).watch(new Watcher<MicroService>() {
+        microServiceWatch = microServicesCRDClient.withResourceVersion(microServicesResourceVersion).watch(new Watcher<MicroService>() {
             @Override
             public void eventReceived(Watcher.Action action, MicroService microService) {
-                if (action.equals(Action.ADDED)) {
-                    appService.addMicroServiceToApp(microService);
-                }
-                if (action.equals(Action.DELETED)) {
-                    appService.removeMicroServiceFromApp(microService);
-                }
-                if (microService.getSpec() == null) {
-                    logger.error("No Spec for resource " + microService);
+                long started = System.nanoTime();
+                try (Span span = tracer.start("watch.MicroService")) {
+                    span.setAttribute("action", action).setAttribute("name", microService.getMetadata().getName());
+                    microServicesResourceVersion = microService.getMetadata().getResourceVersion();
+                    updateRateLimits(microService, action.equals(Action.DELETED));
+                    if (action.equals(Action.ADDED)) {
+                        specFingerprints.record(microService);
+                        appService.addMicroServiceToApp(microService);
+                    }
+                    if (action.equals(Action.MODIFIED)) {
+                        serviceModified(microService);
+                    }
+                    if (action.equals(Action.DELETED)) {
+                        specFingerprints.forget(microService);
+                        appService.removeMicroServiceFromApp(microService);
+                    }
+                    if (microService.getSpec() == null) {
+                        logger.error("No Spec for resource " + microService);
+                    }
+                } catch (KubernetesClientException e) {
+                    watchEventFailed(appOf(microService), microService, e);
+                } finally {
+                    watchActivity.computeIfAbsent("MicroService", kind -> new WatchActivity()).eventHandled(microService.getMetadata().getResourceVersion(), started);
                 }
             }
 
             @Override
             public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    resync("MicroService", cause);
+                }
             }
         });
         microServiceWatchRegistered = true;
@@ -324,24 +696,42 @@ public class AppsOperator {
 
     private void registerRegistryWatch() {
         logger.info("> Registering Registry CRD Watch");
-        registriesCRDClient.withResourceVersion(registriesResourceVersion).watch(new Watcher<Registry>() {
+        registryWatch = registriesCRDClient.withResourceVersion(registriesResourceVersion).watch(new Watcher<Registry>() {
             @Override
             public void eventReceived(Watcher.Action action, Registry registry) {
-                if (action.equals(Action.ADDED)) {
-                    appService.addRegistryToApp(registry);
+                long started = System.nanoTime();
+                try (Span span = tracer.start("watch.Registry")) {
+                    span.setAttribute("action", action).setAttribute("name", registry.getMetadata().getName());
+                    registriesResourceVersion = registry.getMetadata().getResourceVersion();
+                    updateRateLimits(registry, action.equals(Action.DELETED));
+                    if (action.equals(Action.ADDED)) {
+                        specFingerprints.record(registry);
+                        appService.addRegistryToApp(registry);
 
-                }
-                if (action.equals(Action.DELETED)) {
-                    appService.removeRegistryFromApp(registry);
+                    }
+                    if (action.equals(Action.MODIFIED)) {
+                        serviceModified(registry);
+                    }
+                    if (action.equals(Action.DELETED)) {
+                        specFingerprints.forget(registry);
+                        appService.removeRegistryFromApp(registry);
 
-                }
-                if (registry.getSpec() == null) {
-                    logger.error("No Spec for resource " + registry);
+                    }
+                    if (registry.getSpec() == null) {
+                        logger.error("No Spec for resource " + registry);
+                    }
+                } catch (KubernetesClientException e) {
+                    watchEventFailed(appOf(registry), registry, e);
+                } finally {
+                    watchActivity.computeIfAbsent("Registry", kind -> new WatchActivity()).eventHandled(registry.getMetadata().getResourceVersion(), started);
                 }
             }
 
             @Override
             public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    resync("Registry", cause);
+                }
             }
         });
         registryWatchRegistered = true;
@@ -349,66 +739,240 @@ public class AppsOperator {
 
     private void registerGatewayWatch() {
         logger.info("> Registering Gateway CRD Watch");
-        gatewaysCRDClient.withResourceVersion(gatewaysResourceVersion).watch(new Watcher<Gateway>() {
+        gatewayWatch = gatewaysCRDClient.withResourceVersion(gatewaysResourceVersion).watch(new Watcher<Gateway>() {
             @Override
             public void eventReceived(Watcher.Action action, Gateway gateway) {
-                if (action.equals(Action.ADDED)) {
-                    appService.addGatewayToApp(gateway);
+                long started = System.nanoTime();
+                try (Span span = tracer.start("watch.Gateway")) {
+                    span.setAttribute("action", action).setAttribute("name", gateway.getMetadata().getName());
+                    gatewaysResourceVersion = gateway.getMetadata().getResourceVersion();
+                    updateRateLimits(gateway, action.equals(Action.DELETED));
+                    if (action.equals(Action.ADDED)) {
+                        specFingerprints.record(gateway);
+                        appService.addGatewayToApp(gateway);
 
-                }
-                if (action.equals(Action.DELETED)) {
-                    appService.removeGatewayFromApp(gateway);
+                    }
+                    if (action.equals(Action.MODIFIED)) {
+                        serviceModified(gateway);
+                    }
+                    if (action.equals(Action.DELETED)) {
+                        specFingerprints.forget(gateway);
+                        appService.removeGatewayFromApp(gateway);
 
-                }
-                if (gateway.getSpec() == null) {
-                    logger.error("No Spec for resource " + gateway);
+                    }
+                    if (gateway.getSpec() == null) {
+                        logger.error("No Spec for resource " + gateway);
+                    }
+                } catch (KubernetesClientException e) {
+                    watchEventFailed(appOf(gateway), gateway, e);
+                } finally {
+                    watchActivity.computeIfAbsent("Gateway", kind -> new WatchActivity()).eventHandled(gateway.getMetadata().getResourceVersion(), started);
                 }
             }
 
             @Override
             public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    resync("Gateway", cause);
+                }
             }
         });
         gatewayWatchRegistered = true;
     }
 
+    /*
+     * Rate limits are looked up by the routes on each request, so they are updated as soon as the resources change
+     */
+    private void updateRateLimits(Application application, boolean deleted) {
+        RateLimitSpec rateLimit = (deleted || application.getSpec() == null) ? null : application.getSpec().getRateLimit();
+        localRateLimits.setAppLimit(application.getMetadata().getName(), rateLimit);
+    }
+
+    private void updateRateLimits(CustomService service, boolean deleted) {
+        String routeId = routeId(service);
+        if (routeId == null) {
+            return;
+        }
+        RateLimitSpec rateLimit = (deleted || service.getSpec() == null) ? null : service.getSpec().getRateLimit();
+        localRateLimits.setRouteLimit(routeId, rateLimit);
+    }
+
+    /*
+     * Route of a service, null if the service doesn't belong to an app
+     */
+    private String routeId(CustomService service) {
+        Map<String, String> labels = service.getMetadata().getLabels();
+        if (labels == null || labels.get("app") == null) {
+            return null;
+        }
+        return labels.get("app") + ":" + service.getMetadata().getName();
+    }
+
     /*
      * Reconcile contains the logic that understand how services relates to applications and the application state
      *   matches the desired state with current state in K8s
+     *   - Apps are only processed if their generation, their bound services or the K8s Services that they depend on
+     *     (or their health as seen by the active probes and the Deployments watch) changed since the last time that
+     *     they were reconciled
+     *   - It runs from the reconcile loop and right after a Deployment readiness change, one pass at a time
+     *   - An app that fails is left out of the passes until its retry is due, see ReconcileRetries
      */
-    public void reconcile() {
-        if (appService.getApps().isEmpty()) {
-            logger.info("> No Healthy Apps found.");
-        }
-        // For each App Desired State
-        appService.getAppsMap().keySet().forEach(appName ->
-                {
-                    Application app = appService.getApp(appName);
-                    logger.info("> Scanning App: " + appName + "...");
-                    if (appService.isAppHealthy(app)) {
-                        logger.info("> App Name: " + appName + " is up and running");
-                        app.getSpec().getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
-                        app.getSpec().setStatus("HEALTHY");
-                        String externalIp = k8SCoreRuntime.findExternalIP();
-                        String url = "http://" + externalIp + "/apps/" + app.getMetadata().getName() + "/" + app.getSpec().getVersion() + "/";
-                        appService.addAppUrl(app.getMetadata().getName(), url);
-                        app.getSpec().setUrl(url);
-                        logger.info("> App: " + appName + ", status:  HEALTHY, URL: " + url + " \n");
-                    } else {
-                        logger.error("> App Name: " + appName + " is down due missing services");
-                        if (app.getSpec().getMicroservices() == null || app.getSpec().getMicroservices().isEmpty()) {
-                            logger.info("App: " + appName + ": No MicroService found. ");
-                        } else {
-                            app.getSpec().getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
-                        }
-                        app.getSpec().setStatus("UNHEALTHY");
-                        app.getSpec().setUrl("N/A");
-                        logger.info("> App: " + appName + ", status: UNHEALTHY. \n ");
-                    }
-                    appCRDClient.createOrReplace(app);
+    public synchronized void reconcile() {
+        try (Span span = tracer.start("reconcile")) {
+            if (!k8SCoreRuntime.isWatchingServices()) {
+                try {
+                    k8SCoreRuntime.watchServices();
+                } catch (KubernetesClientException e) {
+                    logger.error("> K8s Services can't be watched, every app will be checked: " + e.getMessage());
                 }
-        );
+            }
+            if (!serviceEndpointsRegistry.isWatching()) {
+                try {
+                    serviceEndpointsRegistry.watch();
+                } catch (KubernetesClientException e) {
+                    logger.error("> K8s Endpoints can't be watched, requests will go through the K8s Services: " + e.getMessage());
+                }
+            }
+            if (!deploymentReadiness.isWatching()) {
+                try {
+                    deploymentReadiness.watch(this::reconcileSoon);
+                } catch (KubernetesClientException e) {
+                    logger.error("> K8s Deployments can't be watched, their readiness will be ignored: " + e.getMessage());
+                }
+            }
+            Map<String, AppState> apps = appService.getAppsMap();
+            reconcileMarks.keySet().retainAll(apps.keySet());
+            reconcileRetries.retainAll(apps.keySet());
+            pruneAppDeletions();
+            // For each App Desired State
+            apps.forEach((appName, app) -> {
+                // Failing apps are checked by their own retry, not on every pass
+                if (!reconcileRetries.isDue(appName)) {
+                    logger.debug("> App: " + appName + " is waiting for its retry, skipping.");
+                    return;
+                }
+                long fingerprint = dependenciesFingerprint(app);
+                ReconcileMark mark = reconcileMarks.get(appName);
+                if (mark != null && mark.fingerprint == fingerprint) {
+                    logger.debug("> App: " + appName + " didn't change since generation " + mark.generation + ", skipping.");
+                    return;
+                }
+                reconcilingApp = appName;
+                try (Span appSpan = tracer.start("reconcile.app")) {
+                    appSpan.setAttribute("app", appName);
+                    reconcileApp(appName, app, fingerprint);
+                } catch (RuntimeException e) {
+                    // One failing app doesn't stop the pass for the others
+                    reconcileJournal.record(appName, app.getGeneration(), app.getStatus(), app.getStatus(), null,
+                            ReconcileDecision.Action.FAILED, 0);
+                    // Its retry has to check it again, even if its dependencies go back to what the mark has seen
+                    reconcileMarks.remove(appName);
+                    reconcileRetries.failed(appName, e.getMessage(), false, this::reconcileSoon);
+                } finally {
+                    reconcilingApp = null;
+                }
+            });
+            span.setAttribute("apps", apps.size());
+        }
+    }
 
+    /*
+     * Check an app and write its status if it changed
+     *  - Every decision goes to the reconcile journal, only the status transitions are logged
+     */
+    private void reconcileApp(String appName, AppState app, long fingerprint) {
+        long started = System.nanoTime();
+        List<String> missing = appService.findMissingDependencies(app);
+        String status;
+        String url;
+        if (missing.isEmpty()) {
+            status = "HEALTHY";
+            url = "http://" + k8SCoreRuntime.findExternalIP() + "/apps/" + app.getName() + "/" + app.getVersion() + "/";
+        } else {
+            status = "UNHEALTHY";
+            url = "N/A";
+        }
+        tracer.current().setAttribute("status", status);
+        Long generation = app.getGeneration();
+        ReconcileDecision.Action action = ReconcileDecision.Action.NO_CHANGE;
+        // Only write the status if something that the user can see changed
+        if (!status.equals(app.getStatus()) || !url.equals(app.getUrl()) || !Objects.equals(generation, app.getObservedGeneration())) {
+            AppState reconciled = appService.updateApp(appName, a -> a.withStatus(status, url, generation));
+            // The app can be removed by a watch while we were checking it
+            if (reconciled == null) {
+                action = ReconcileDecision.Action.APP_GONE;
+            } else {
+                statusFlusher.submit(appName);
+                action = ReconcileDecision.Action.STATUS_WRITTEN;
+            }
+        }
+        if (!status.equals(app.getStatus())) {
+            if (missing.isEmpty()) {
+                logger.info("> App: " + appName + " is HEALTHY, URL: " + url);
+            } else {
+                logger.warn("> App: " + appName + " is UNHEALTHY, missing: " + missing);
+            }
+        }
+        reconcileJournal.record(appName, generation, app.getStatus(), status, missing, action, System.nanoTime() - started);
+        if (action == ReconcileDecision.Action.APP_GONE) {
+            return;
+        }
+        reconcileRetries.succeeded(appName);
+        reconcileMarks.put(appName, new ReconcileMark(generation, fingerprint));
+    }
+
+    /*
+     * Reconcile as soon as possible, so the status and the routes of the apps follow the rollouts of their Deployments
+     *  - Changes that arrive while a pass is pending are handled by that pass
+     *  - The retries of the failing apps come through here too
+     */
+    private void reconcileSoon() {
+        if (!reconcilePending.compareAndSet(false, true)) {
+            return;
+        }
+        reconcileExecutor.submit(() -> {
+            reconcilePending.set(false);
+            if (!on || !initDone) {
+                return;
+            }
+            try {
+                reconcile();
+                eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+            } catch (RuntimeException e) {
+                logger.error("> Reconcile out of the reconcile loop failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /*
+     * Fingerprint of everything that can change the outcome of reconciling an app
+     */
+    private long dependenciesFingerprint(AppState app) {
+        List<String> serviceNames = new ArrayList<>();
+        app.getMicroservices().forEach(m -> serviceNames.add(m.getServiceName()));
+        serviceNames.add(app.getGateway());
+        serviceNames.add(app.getRegistry());
+        long fingerprint = Objects.hash(app.getGeneration(), app.getMicroservices(), app.getGateway(), app.getRegistry());
+        for (String serviceName : serviceNames) {
+            if (serviceName == null || serviceName.isEmpty()) {
+                continue;
+            }
+            // Without the services watch we can't know if a service changed, so we can't skip the app
+            String serviceVersion = (k8SCoreRuntime.isWatchingServices()) ? k8SCoreRuntime.getServiceVersion(serviceName) : UUID.randomUUID().toString();
+            fingerprint = 31 * fingerprint + Objects.hash(serviceName, serviceVersion, healthProbes.isHealthy(serviceName),
+                    deploymentReadiness.isServiceReady(serviceName));
+        }
+        return fingerprint;
+    }
+
+    private static final class ReconcileMark {
+        private final Long generation;
+        private final long fingerprint;
+
+        private ReconcileMark(Long generation, long fingerprint) {
+            this.generation = generation;
+            this.fingerprint = fingerprint;
+        }
     }
 
 
@@ -436,6 +1000,33 @@ public class AppsOperator {
         this.on = on;
     }
 
+    public Map<String, WatchActivity> getWatchActivity() {
+        return Collections.unmodifiableMap(watchActivity);
+    }
+
+    public boolean isReconcilePending() {
+        return reconcilePending.get();
+    }
+
+    public String getReconcilingApp() {
+        return reconcilingApp;
+    }
+
+    public int getReconciledAppsCount() {
+        return reconcileMarks.size();
+    }
+
+    public int getSpecFingerprintsCount() {
+        return specFingerprints.size();
+    }
+
+    public List<String> getDeletionsInProgress() {
+        return appDeletions.entrySet().stream()
+                .filter(e -> e.getValue().isInProgress())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
     public boolean isInitDone() {
         return initDone;
     }
@@ -454,19 +1045,9 @@ public class AppsOperator {
         spec.setVersion(appDefinition.getVersion());
         app.setSpec(spec);
 
-        Application storedApp = appCRDClient.create(app);
-
-
-        OwnerReference ownerReference = new OwnerReference();
-        ownerReference.setUid(storedApp.getMetadata().getUid());
-        ownerReference.setName(storedApp.getMetadata().getName());
-        ownerReference.setKind(storedApp.getKind());
-        ownerReference.setController(true);
-        ownerReference.setBlockOwnerDeletion(true);
-        ownerReference.setApiVersion(storedApp.getApiVersion());
-        List<OwnerReference> ownerReferences = new ArrayList<>();
-        ownerReferences.add(ownerReference);
+        Application storedApp = k8SCoreRuntime.call(ApiPriority.HIGH, () -> appCRDClient.create(app));
 
+        List<OwnerReference> ownerReferences = ownerReferences(storedApp);
         Map<String, String> labels = new HashMap<>();
         labels.put("app", appDefinition.getName());
 
@@ -485,57 +1066,192 @@ public class AppsOperator {
         registry.setSpec(registrySpec);
 
 
-        registriesCRDClient.create(registry);
-
-
-        appDefinition.getModules().forEach(md -> {
-                    if (JDLParser.fromJDLServiceToKind(md.getType()).equals("Gateway")) {
-                        Gateway gateway = new Gateway();
-                        ObjectMeta objectMetaGateway = new ObjectMeta();
-                        objectMetaGateway.setName(md.getName());
-                        objectMetaGateway.setOwnerReferences(ownerReferences);
-                        objectMetaGateway.setFinalizers(Arrays.asList("foregroundDeletion"));
-                        objectMetaGateway.setLabels(labels);
-                        gateway.setMetadata(objectMetaGateway);
-                        ServiceSpec gatewaySpec = new ServiceSpec();
-                        gatewaySpec.setServiceName(md.getName());
-                        gatewaySpec.setServiceVersion("1.0");
-                        if (md.getPort() == null || md.getPort().isEmpty()) {
-                            gatewaySpec.setServicePort("8080");
-                        } else {
-                            gatewaySpec.setServicePort(md.getPort());
-                        }
-                        gateway.setSpec(gatewaySpec);
-                        gatewaysCRDClient.create(gateway);
-                    } else {
-
-                        MicroService microService = new MicroService();
-                        ObjectMeta objectMetaMicroService = new ObjectMeta();
-                        objectMetaMicroService.setName(md.getName());
-
-                        objectMetaMicroService.setOwnerReferences(ownerReferences);
-                        objectMetaMicroService.setLabels(labels);
-                        objectMetaMicroService.setFinalizers(Arrays.asList("foregroundDeletion"));
-                        microService.setMetadata(objectMetaMicroService);
-
-
-                        ServiceSpec serviceSpec = new ServiceSpec();
-                        serviceSpec.setServiceName(md.getName());
-                        serviceSpec.setServiceVersion("1.0");
-                        serviceSpec.setServicePort(md.getPort());
-                        microService.setSpec(serviceSpec);
-
-                        microServicesCRDClient.create(microService);
-                    }
+        k8SCoreRuntime.call(ApiPriority.HIGH, () -> registriesCRDClient.create(registry));
+
+
+        appDefinition.getModules().forEach(md -> createModule(md, ownerReferences, labels, false));
+
+    }
+
+    /*
+     * Update an app from a new version of its JDL, touching only the modules that changed
+     *  - The modules are diffed by name against the JDL the app was created (or last updated) with: new ones are
+     *    created, removed ones are deleted, the ones whose port changed are patched in place and the ones whose kind
+     *    changed are deleted and created again
+     *  - Unchanged modules are not touched, so their routes keep their upstream clients, caches and limits
+     *  - Bindings and routes are updated by the watch of each kind, as for any other change of a service
+     *  - The app is written last, if something fails in between a new PUT with the same JDL finishes the job
+     *  - Returns null if the app doesn't exist or it is being deleted
+     */
+    public JDLDiff updateApp(JHipsterApplicationDefinition appDefinition) {
+        String appName = appDefinition.getName();
+        AppDeletion deletion = appDeletions.get(appName);
+        if (deletion != null && deletion.isInProgress()) {
+            logger.error("> App " + appName + " is being deleted.");
+            return null;
+        }
+        Application storedApp = k8SCoreRuntime.call(ApiPriority.HIGH, () -> appCRDClient.withName(appName).get());
+        if (storedApp == null || storedApp.getMetadata().getDeletionTimestamp() != null) {
+            logger.error("> App " + appName + " not found.");
+            return null;
+        }
+        ApplicationSpec spec = (storedApp.getSpec() == null) ? new ApplicationSpec() : storedApp.getSpec();
+        JDLDiff diff = JDLDiff.between(spec.getAppDefinition(), appDefinition);
+        logger.info("> Updating Application: " + appName + ": " + diff);
+
+        List<OwnerReference> ownerReferences = ownerReferences(storedApp);
+        Map<String, String> labels = new HashMap<>();
+        labels.put("app", appName);
+        diff.getRemoved().forEach(this::deleteModule);
+        diff.getChanged().forEach(this::patchModule);
+        // createOrReplace, so modules created by a previous update that failed halfway are not a conflict
+        diff.getAdded().forEach(md -> createModule(md, ownerReferences, labels, true));
+
+        if (diff.isEmpty() && Objects.equals(spec.getVersion(), appDefinition.getVersion())
+                && Objects.equals(storedApp.getMetadata().getAdditionalProperties().get("jdl"), appDefinition.getJDLContent())) {
+            return diff;
+        }
+        storedApp.getMetadata().setAdditionalProperty("jdl", appDefinition.getJDLContent());
+        spec.setAppDefinition(appDefinition);
+        spec.setVersion(appDefinition.getVersion());
+        storedApp.setSpec(spec);
+        k8SCoreRuntime.call(ApiPriority.HIGH, () -> appCRDClient.withName(appName).replace(storedApp));
+        return diff;
+    }
+
+    private List<OwnerReference> ownerReferences(Application storedApp) {
+        OwnerReference ownerReference = new OwnerReference();
+        ownerReference.setUid(storedApp.getMetadata().getUid());
+        ownerReference.setName(storedApp.getMetadata().getName());
+        ownerReference.setKind(storedApp.getKind());
+        ownerReference.setController(true);
+        ownerReference.setBlockOwnerDeletion(true);
+        ownerReference.setApiVersion(storedApp.getApiVersion());
+        List<OwnerReference> ownerReferences = new ArrayList<>();
+        ownerReferences.add(ownerReference);
+        return ownerReferences;
+    }
+
+    private void createModule(JHipsterModuleDefinition md, List<OwnerReference> ownerReferences, Map<String, String> labels,
+                              boolean replace) {
+        ObjectMeta objectMeta = new ObjectMeta();
+        objectMeta.setName(md.getName());
+        objectMeta.setOwnerReferences(ownerReferences);
+        objectMeta.setFinalizers(Arrays.asList("foregroundDeletion"));
+        objectMeta.setLabels(labels);
+        ServiceSpec serviceSpec = new ServiceSpec();
+        serviceSpec.setServiceName(md.getName());
+        serviceSpec.setServiceVersion("1.0");
+        serviceSpec.setServicePort(JDLParser.servicePortOf(md));
+        if (JDLParser.kindOf(md).equals("Gateway")) {
+            Gateway gateway = new Gateway();
+            gateway.setMetadata(objectMeta);
+            gateway.setSpec(serviceSpec);
+            k8SCoreRuntime.call(ApiPriority.HIGH, () -> replace ? gatewaysCRDClient.createOrReplace(gateway) : gatewaysCRDClient.create(gateway));
+        } else {
+            MicroService microService = new MicroService();
+            microService.setMetadata(objectMeta);
+            microService.setSpec(serviceSpec);
+            k8SCoreRuntime.call(ApiPriority.HIGH, () -> replace ? microServicesCRDClient.createOrReplace(microService) : microServicesCRDClient.create(microService));
+        }
+    }
+
+    /*
+     * Patch the port of the resource of a module, the rest of its spec (upstream, cache, limits..) is kept
+     */
+    private void patchModule(JHipsterModuleDefinition md) {
+        String port = JDLParser.servicePortOf(md);
+        if (JDLParser.kindOf(md).equals("Gateway")) {
+            Gateway gateway = k8SCoreRuntime.call(ApiPriority.HIGH, () -> gatewaysCRDClient.withName(md.getName()).get());
+            if (gateway == null || gateway.getSpec() == null) {
+                logger.error(">> Gateway " + md.getName() + " not found, it can't be updated.");
+                return;
+            }
+            gateway.getSpec().setServicePort(port);
+            k8SCoreRuntime.call(ApiPriority.HIGH, () -> gatewaysCRDClient.withName(md.getName()).replace(gateway));
+        } else {
+            MicroService microService = k8SCoreRuntime.call(ApiPriority.HIGH, () -> microServicesCRDClient.withName(md.getName()).get());
+            if (microService == null || microService.getSpec() == null) {
+                logger.error(">> MicroService " + md.getName() + " not found, it can't be updated.");
+                return;
+            }
+            microService.getSpec().setServicePort(port);
+            k8SCoreRuntime.call(ApiPriority.HIGH, () -> microServicesCRDClient.withName(md.getName()).replace(microService));
+        }
+    }
+
+    private void deleteModule(JHipsterModuleDefinition md) {
+        CustomResourceDefinition crd = JDLParser.kindOf(md).equals("Gateway") ? gatewayCRD : microServiceCRD;
+        k8SCoreRuntime.delete(crd, md.getName(), BACKGROUND_PROPAGATION, ApiPriority.HIGH);
+    }
+
+    /*
+     * Delete an app with all its MicroServices, Gateways and Registries
+     *  - One deletecollection call per kind (selected by the app label) instead of one delete per service, then the app
+     *  - Background propagation: the services don't own anything, so there is no reason to wait for the garbage collector
+     *  - The app and its routes are removed in one step before calling the API Server, the watch events of the deleted
+     *    services are ignored because their app is not there anymore
+     *  - It runs asynchronously, the returned AppDeletion reports the progress (null if the app doesn't exist)
+     */
+    public AppDeletion deleteApp(String appName) {
+        pruneAppDeletions();
+        AppDeletion running = appDeletions.get(appName);
+        if (running != null && running.isInProgress()) {
+            return running;
+        }
+        AppState app = appService.removeApp(appName);
+        if (app == null) {
+            logger.error("> App " + appName + " not found.");
+            return null;
+        }
+        AppDeletion deletion = new AppDeletion(appName);
+        appDeletions.put(appName, deletion);
+        localRateLimits.setAppLimit(appName, null);
+        reconcileMarks.remove(appName);
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        CompletableFuture.runAsync(() -> cascadeDelete(appName, deletion), deletionExecutor);
+        return deletion;
+    }
+
+    private void cascadeDelete(String appName, AppDeletion deletion) {
+        String labelSelector = "app=" + appName;
+        try {
+            deletion.deleted("MicroService", k8SCoreRuntime.deleteCollection(microServiceCRD, labelSelector, BACKGROUND_PROPAGATION, ApiPriority.HIGH));
+            logger.info(">> Deleting App: " + appName + ": " + deletion.getDeleted());
+            deletion.deleted("Gateway", k8SCoreRuntime.deleteCollection(gatewayCRD, labelSelector, BACKGROUND_PROPAGATION, ApiPriority.HIGH));
+            logger.info(">> Deleting App: " + appName + ": " + deletion.getDeleted());
+            deletion.deleted("Registry", k8SCoreRuntime.deleteCollection(registryCRD, labelSelector, BACKGROUND_PROPAGATION, ApiPriority.HIGH));
+            logger.info(">> Deleting App: " + appName + ": " + deletion.getDeleted());
+            deletion.deleted("Application", k8SCoreRuntime.delete(applicationCRD, appName, BACKGROUND_PROPAGATION, ApiPriority.HIGH) ? 1 : 0);
+            deletion.done();
+            logger.info("> App: " + appName + " deleted: " + deletion.getDeleted());
+        } catch (KubernetesClientException e) {
+            logger.error("> App: " + appName + " couldn't be deleted: " + e.getMessage());
+            deletion.failed(e.getMessage());
+            // Whatever is left of the app is loaded again, so its routes come back
+            try {
+                Application application = k8SCoreRuntime.call(ApiPriority.HIGH, () -> appCRDClient.withName(appName).get());
+                if (application != null) {
+                    loadApp(application);
+                    updateRateLimits(application, false);
+                    eventPublisher.publishEvent(new RefreshRoutesEvent(this));
                 }
-        );
+            } catch (KubernetesClientException reloadError) {
+                logger.error("> App: " + appName + " couldn't be loaded again: " + reloadError.getMessage());
+            }
+        }
+    }
 
+    public AppDeletion getAppDeletion(String appName) {
+        return appDeletions.get(appName);
     }
 
-    public void deleteApp(String appName) {
-        Application app = appService.getApp(appName);
-        //@TODO: delete by API doesn't cascade yet..
-        appCRDClient.delete(app);
+    /*
+     * Drop the deletions that finished longer than the retention ago, the REST API doesn't report them anymore
+     */
+    private void pruneAppDeletions() {
+        long now = System.currentTimeMillis();
+        appDeletions.values().removeIf(deletion -> deletion.isExpired(now, deletionRetention));
     }
 
 
@@ -0,0 +1,39 @@
+package tech.jhipster.operator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Options to start the operator faster, so rolling updates don't leave the apps without routes for long
+ *  - jhipster.operator.lazy-init: beans are created the first time that they are used (see LazyInitBeanFactoryPostProcessor)
+ *  - jhipster.operator.exit-on-ready: stop as soon as the operator is started, used by the training run that records
+ *    the classes for the class data sharing archive (see Dockerfile.fast-start)
+ *  - Both are set by the fast-start Spring profile
+ */
+@Configuration
+public class FastStartConfiguration {
+
+    private static Logger logger = LoggerFactory.getLogger(FastStartConfiguration.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "jhipster.operator.lazy-init", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor() {
+        return new LazyInitBeanFactoryPostProcessor();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jhipster.operator.exit-on-ready", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> {
+            logger.info("> Operator ready, exiting (jhipster.operator.exit-on-ready=true)");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package tech.jhipster.operator;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Mark the bean definitions as lazy, Spring Boot 2.1 doesn't have spring.main.lazy-initialization yet
+ *  - The web server and the routes come up first, the rest of the beans are created when something needs them
+ *  - Beans that must run without anybody asking for them stay eager: @Scheduled methods (they drive the operator),
+ *    lifecycle beans and infrastructure beans
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (beanDefinition.getRole() != BeanDefinition.ROLE_APPLICATION || beanDefinition.isLazyInit()) {
+                continue;
+            }
+            Class<?> beanType = beanType(beanDefinition, beanFactory.getBeanClassLoader());
+            if (beanType != null && mustBeEager(beanType)) {
+                continue;
+            }
+            beanDefinition.setLazyInit(true);
+        }
+    }
+
+    private Class<?> beanType(BeanDefinition beanDefinition, ClassLoader classLoader) {
+        String typeName = beanDefinition.getBeanClassName();
+        if (beanDefinition instanceof AnnotatedBeanDefinition && ((AnnotatedBeanDefinition) beanDefinition).getFactoryMethodMetadata() != null) {
+            typeName = ((AnnotatedBeanDefinition) beanDefinition).getFactoryMethodMetadata().getReturnTypeName();
+        }
+        if (typeName == null) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(typeName, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private boolean mustBeEager(Class<?> beanType) {
+        if (SmartLifecycle.class.isAssignableFrom(beanType) || SmartInitializingSingleton.class.isAssignableFrom(beanType)) {
+            return true;
+        }
+        AtomicBoolean scheduled = new AtomicBoolean(false);
+        try {
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(beanType), method -> {
+                if (AnnotationUtils.findAnnotation(method, Scheduled.class) != null) {
+                    scheduled.set(true);
+                }
+            });
+        } catch (LinkageError e) {
+            // Optional dependencies that are not in the classpath, the bean can't have our @Scheduled methods
+            return false;
+        }
+        return scheduled.get();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import tech.jhipster.operator.app.HealthProbeScheduler;
 
 @EnableDiscoveryClient
 @SpringBootApplication
@@ -18,6 +19,9 @@ public class MyApplication {
     @Autowired
     private AppsOperator appsOperator;
 
+    @Autowired
+    private HealthProbeScheduler healthProbeScheduler;
+
 
     public static void main(String[] args) {
         SpringApplication.run(MyApplication.class,
@@ -29,9 +33,9 @@ public class MyApplication {
     public void reconcileLoop() {
         if (appsOperator.isOn()) {
             if (appsOperator.isInitDone()) {
-                logger.info("+ --------------------- RECONCILE LOOP -------------------- + ");
+                logger.debug("+ --------------------- RECONCILE LOOP -------------------- + ");
                 appsOperator.reconcile();
-                logger.info("+ --------------------- END RECONCILE  -------------------- +\n\n\n ");
+                logger.debug("+ --------------------- END RECONCILE  -------------------- +\n\n\n ");
             } else {
                 // Bootstrap
                 logger.info("> JHipster Operator Bootstrapping ... ");
@@ -40,4 +44,18 @@ public class MyApplication {
         }
     }
 
+    @Scheduled(fixedDelayString = "${jhipster.operator.health.tick:1000}")
+    public void healthProbeLoop() {
+        if (appsOperator.isOn() && appsOperator.isInitDone()) {
+            healthProbeScheduler.probeDue();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${jhipster.operator.snapshot.interval:30000}", fixedDelayString = "${jhipster.operator.snapshot.interval:30000}")
+    public void snapshotLoop() {
+        if (appsOperator.isOn() && appsOperator.isInitDone()) {
+            appsOperator.saveSnapshot();
+        }
+    }
+
 }
@@ -8,6 +8,12 @@ import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.core.annotation.Order;
 import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.StateSnapshots;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.routes.ConcurrencyLimits;
+import tech.jhipster.operator.routes.ResponseCaches;
+import tech.jhipster.operator.routes.UpstreamClients;
+import tech.jhipster.operator.tracing.Tracer;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.cloud.gateway.config.GatewayAutoConfiguration;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
@@ -29,8 +35,15 @@ public class OperatorAutoConfiguration {
     @Bean
     public RouteDefinitionLocator applicationsRouteDefinitionLocator(AppsOperator appsOperator,
                                                                      AppService appService,
-                                                                     KubernetesClient kubernetesClient) {
-        return new OperatorRoutesLocator(appsOperator, appService, kubernetesClient);
+                                                                     KubernetesClient kubernetesClient,
+                                                                     K8SCoreRuntime k8SCoreRuntime,
+                                                                     UpstreamClients upstreamClients,
+                                                                     ResponseCaches responseCaches,
+                                                                     ConcurrencyLimits concurrencyLimits,
+                                                                     StateSnapshots stateSnapshots,
+                                                                     Tracer tracer) {
+        return new OperatorRoutesLocator(appsOperator, appService, kubernetesClient, k8SCoreRuntime, upstreamClients,
+                responseCaches, concurrencyLimits, stateSnapshots, tracer);
     }
     
 }
@@ -0,0 +1,191 @@
+package tech.jhipster.operator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.stereotype.Component;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppState;
+import tech.jhipster.operator.app.ReconcileJournal;
+import tech.jhipster.operator.app.ReconcileRetries;
+import tech.jhipster.operator.app.ReconcileRetry;
+import tech.jhipster.operator.app.StatusFlusher;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.ApiRequestBudget;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.routes.ConcurrencyLimits;
+import tech.jhipster.operator.routes.LocalRateLimits;
+import tech.jhipster.operator.routes.ResponseCache;
+import tech.jhipster.operator.routes.ResponseCaches;
+import tech.jhipster.operator.routes.UpstreamClients;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Actuator endpoint with the live internal state of the operator: /actuator/jhipster-operator
+ *  - Cache sizes and rough memory estimates, watches activity, reconcile state, routes table and API Server budget
+ *  - Everything is read from what the operator already keeps, calling it doesn't hit the K8s API Server
+ */
+@Component
+@Endpoint(id = "jhipster-operator")
+public class OperatorEndpoint {
+
+    @Autowired
+    private AppsOperator appsOperator;
+
+    @Autowired
+    private AppService appService;
+
+    @Autowired
+    private ApiRequestBudget apiRequestBudget;
+
+    @Autowired
+    private OwnWrites ownWrites;
+
+    @Autowired
+    private ReconcileJournal reconcileJournal;
+
+    @Autowired
+    private ReconcileRetries reconcileRetries;
+
+    @Autowired
+    private StatusFlusher statusFlusher;
+
+    @Autowired
+    private LocalRateLimits localRateLimits;
+
+    @Autowired
+    private ResponseCaches responseCaches;
+
+    @Autowired
+    private ConcurrencyLimits concurrencyLimits;
+
+    @Autowired
+    private UpstreamClients upstreamClients;
+
+    @Autowired
+    private List<RouteDefinitionLocator> routeDefinitionLocators;
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+
+        Map<String, Object> operator = new LinkedHashMap<>();
+        operator.put("on", appsOperator.isOn());
+        operator.put("initDone", appsOperator.isInitDone());
+        state.put("operator", operator);
+
+        state.put("caches", caches());
+        state.put("watches", appsOperator.getWatchActivity());
+
+        Map<String, Object> reconcile = new LinkedHashMap<>();
+        // There is at most one pass waiting, the reconcile requests done meanwhile are coalesced into it
+        reconcile.put("queueDepth", appsOperator.isReconcilePending() ? 1 : 0);
+        reconcile.put("inFlight", appsOperator.getReconcilingApp());
+        reconcile.put("deletionsInProgress", appsOperator.getDeletionsInProgress());
+        reconcile.put("lastDecisions", reconcileJournal.getLastDecisions());
+        reconcile.put("retries", retries());
+        Map<String, Object> statusWrites = new LinkedHashMap<>();
+        statusWrites.put("pending", statusFlusher.getPendingCount());
+        statusWrites.put("written", statusFlusher.getWrittenCount());
+        statusWrites.put("coalesced", statusFlusher.getCoalescedCount());
+        statusWrites.put("failed", statusFlusher.getFailedCount());
+        reconcile.put("statusWrites", statusWrites);
+        state.put("reconcile", reconcile);
+
+        OperatorRoutesLocator routesLocator = getRoutesLocator();
+        if (routesLocator != null) {
+            Map<String, Object> routes = new LinkedHashMap<>();
+            routes.put("version", routesLocator.getRoutesVersion());
+            routes.put("size", routesLocator.getRoutesCount());
+            routes.put("lastBuildMicros", routesLocator.getLastBuildMicros());
+            state.put("routes", routes);
+        }
+
+        Map<String, Object> api = new LinkedHashMap<>();
+        for (ApiPriority priority : ApiPriority.values()) {
+            Map<String, Object> budget = new LinkedHashMap<>();
+            budget.put("requests", apiRequestBudget.getRequestCount(priority));
+            budget.put("throttled", apiRequestBudget.getThrottledCount(priority));
+            budget.put("availableTokens", apiRequestBudget.getAvailableTokens(priority));
+            api.put(priority.name().toLowerCase(), budget);
+        }
+        state.put("api", api);
+        return state;
+    }
+
+    private Map<String, Object> retries() {
+        Map<String, Object> retries = new LinkedHashMap<>();
+        retries.put("total", reconcileRetries.getRetryCount());
+        // Failing for the longest time first
+        Map<String, Object> failing = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (ReconcileRetry retry : reconcileRetries.getRetries()) {
+            Map<String, Object> app = new LinkedHashMap<>();
+            app.put("failures", retry.getFailures());
+            app.put("failingForMillis", TimeUnit.NANOSECONDS.toMillis(now - retry.getFirstFailure()));
+            app.put("nextAttemptInMillis", Math.max(0, TimeUnit.NANOSECONDS.toMillis(retry.getNextAttempt() - now)));
+            app.put("reload", retry.isReload());
+            app.put("lastError", retry.getLastError());
+            failing.put(retry.getApp(), app);
+        }
+        retries.put("failing", failing);
+        return retries;
+    }
+
+    private Map<String, Object> caches() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+
+        Map<String, AppState> appsMap = appService.getAppsMap();
+        long appsBytes = 0;
+        for (AppState app : appsMap.values()) {
+            appsBytes += app.estimateBytes();
+        }
+        Map<String, Object> apps = new LinkedHashMap<>();
+        apps.put("size", appsMap.size());
+        apps.put("estimatedBytes", appsBytes);
+        caches.put("apps", apps);
+
+        caches.put("specFingerprints", appsOperator.getSpecFingerprintsCount());
+        caches.put("reconciledApps", appsOperator.getReconciledAppsCount());
+
+        Map<String, Object> writes = new LinkedHashMap<>();
+        writes.put("size", ownWrites.size());
+        writes.put("suppressedEvents", ownWrites.getSuppressedCount());
+        caches.put("ownWrites", writes);
+
+        Map<String, ResponseCache> routeCaches = responseCaches.getCaches();
+        long entries = 0;
+        long weight = 0;
+        long offHeap = 0;
+        for (ResponseCache cache : routeCaches.values()) {
+            entries += cache.size();
+            weight += cache.getWeight();
+            offHeap += cache.getOffHeapBytes();
+        }
+        Map<String, Object> responses = new LinkedHashMap<>();
+        responses.put("routes", routeCaches.size());
+        responses.put("entries", entries);
+        responses.put("weightBytes", weight);
+        responses.put("offHeapBytes", offHeap);
+        caches.put("responses", responses);
+
+        caches.put("rateLimitClients", localRateLimits.getClientCount());
+        caches.put("concurrencyLimits", concurrencyLimits.getLimits().size());
+        caches.put("upstreamClients", upstreamClients.getClients().size());
+        return caches;
+    }
+
+    private OperatorRoutesLocator getRoutesLocator() {
+        for (RouteDefinitionLocator locator : routeDefinitionLocators) {
+            if (locator instanceof OperatorRoutesLocator) {
+                return (OperatorRoutesLocator) locator;
+            }
+        }
+        return null;
+    }
+}
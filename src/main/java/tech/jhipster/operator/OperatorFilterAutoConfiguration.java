@@ -1,5 +1,6 @@
 package tech.jhipster.operator;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
@@ -9,6 +10,19 @@ import org.springframework.cloud.gateway.route.Route;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import tech.jhipster.operator.routes.ConcurrencyLimitGatewayFilterFactory;
+import tech.jhipster.operator.routes.ConcurrencyLimits;
+import tech.jhipster.operator.routes.EndpointLoadBalancerFilter;
+import tech.jhipster.operator.routes.LocalRateLimitGatewayFilterFactory;
+import tech.jhipster.operator.routes.LocalRateLimits;
+import tech.jhipster.operator.routes.RequestCoalescingGatewayFilterFactory;
+import tech.jhipster.operator.routes.ResponseCacheGatewayFilterFactory;
+import tech.jhipster.operator.routes.ResponseCaches;
+import tech.jhipster.operator.routes.ServiceEndpointsRegistry;
+import tech.jhipster.operator.routes.UpstreamClients;
+import tech.jhipster.operator.routes.UpstreamRoutingFilter;
+import tech.jhipster.operator.tracing.Tracer;
+import tech.jhipster.operator.tracing.TracingGlobalFilter;
 
 import java.net.URI;
 import java.util.Collections;
@@ -35,4 +49,39 @@ public class OperatorFilterAutoConfiguration {
             return chain.filter(exchange);
         };
     }
+
+    @Bean
+    public TracingGlobalFilter tracingGlobalFilter(Tracer tracer) {
+        return new TracingGlobalFilter(tracer);
+    }
+
+    @Bean
+    public EndpointLoadBalancerFilter endpointLoadBalancerFilter(ServiceEndpointsRegistry serviceEndpointsRegistry) {
+        return new EndpointLoadBalancerFilter(serviceEndpointsRegistry);
+    }
+
+    @Bean
+    public UpstreamRoutingFilter upstreamRoutingFilter(UpstreamClients upstreamClients) {
+        return new UpstreamRoutingFilter(upstreamClients);
+    }
+
+    @Bean
+    public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(ResponseCaches responseCaches) {
+        return new ResponseCacheGatewayFilterFactory(responseCaches);
+    }
+
+    @Bean
+    public RequestCoalescingGatewayFilterFactory requestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        return new RequestCoalescingGatewayFilterFactory(meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimitGatewayFilterFactory concurrencyLimitGatewayFilterFactory(ConcurrencyLimits concurrencyLimits) {
+        return new ConcurrencyLimitGatewayFilterFactory(concurrencyLimits);
+    }
+
+    @Bean
+    public LocalRateLimitGatewayFilterFactory localRateLimitGatewayFilterFactory(LocalRateLimits localRateLimits) {
+        return new LocalRateLimitGatewayFilterFactory(localRateLimits);
+    }
 }
@@ -11,6 +11,20 @@ import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import reactor.core.publisher.Flux;
 import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppState;
+import tech.jhipster.operator.app.StateSnapshot;
+import tech.jhipster.operator.app.StateSnapshots;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.routes.ConcurrencyLimitGatewayFilterFactory;
+import tech.jhipster.operator.routes.ConcurrencyLimits;
+import tech.jhipster.operator.routes.LocalRateLimitGatewayFilterFactory;
+import tech.jhipster.operator.routes.RequestCoalescingGatewayFilterFactory;
+import tech.jhipster.operator.routes.ResponseCacheGatewayFilterFactory;
+import tech.jhipster.operator.routes.ResponseCaches;
+import tech.jhipster.operator.routes.UpstreamClients;
+import tech.jhipster.operator.tracing.Span;
+import tech.jhipster.operator.tracing.Tracer;
 import tech.jhipster.operator.crds.app.*;
 import tech.jhipster.operator.crds.gateway.DoneableGateway;
 import tech.jhipster.operator.crds.gateway.Gateway;
@@ -24,7 +38,10 @@ import tech.jhipster.operator.crds.registry.RegistryList;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @RefreshScope
 public class OperatorRoutesLocator implements RouteDefinitionLocator {
@@ -39,23 +56,69 @@ public class OperatorRoutesLocator implements RouteDefinitionLocator {
 
     private KubernetesClient kubernetesClient;
 
+    private K8SCoreRuntime k8SCoreRuntime;
+
+    private UpstreamClients upstreamClients;
+
+    private ResponseCaches responseCaches;
+
+    private ConcurrencyLimits concurrencyLimits;
+
+    private StateSnapshots stateSnapshots;
+
+    private Tracer tracer;
+
+    // Routes built the last time, they are kept if the K8s API Server can't be reached to build them again
+    private volatile List<RouteDefinition> lastRouteDefinitions = Collections.emptyList();
+    // Incremented each time the routes are built again, with how long that took
+    private final AtomicLong routesVersion = new AtomicLong();
+    private volatile long lastBuildMicros = -1;
+
 
     public OperatorRoutesLocator(AppsOperator appsOperator,
                                  AppService appService,
-                                 KubernetesClient kubernetesClient) {
+                                 KubernetesClient kubernetesClient,
+                                 K8SCoreRuntime k8SCoreRuntime,
+                                 UpstreamClients upstreamClients,
+                                 ResponseCaches responseCaches,
+                                 ConcurrencyLimits concurrencyLimits,
+                                 StateSnapshots stateSnapshots,
+                                 Tracer tracer) {
         this.appsOperator = appsOperator;
         this.appService = appService;
         this.kubernetesClient = kubernetesClient;
+        this.k8SCoreRuntime = k8SCoreRuntime;
+        this.upstreamClients = upstreamClients;
+        this.responseCaches = responseCaches;
+        this.concurrencyLimits = concurrencyLimits;
+        this.stateSnapshots = stateSnapshots;
+        this.tracer = tracer;
 
     }
 
     @Override
     public Flux<RouteDefinition> getRouteDefinitions() {
+        try (Span span = tracer.start("routes.build")) {
+            long started = System.nanoTime();
+            List<RouteDefinition> routeDefinitions = buildRouteDefinitions();
+            lastBuildMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            span.setAttribute("routes", routeDefinitions.size()).setAttribute("version", routesVersion.get());
+            return Flux.fromIterable(routeDefinitions);
+        }
+    }
+
+    private List<RouteDefinition> buildRouteDefinitions() {
         try {
+            // Until the operator is in sync with the cluster, serve the routes that were saved before the restart
+            StateSnapshot restored = stateSnapshots.getRestored();
+            if (!appsOperator.isInitDone() && restored != null) {
+                logger.info("> Serving " + restored.getRoutes().size() + " routes from the state snapshot");
+                return restored.getRoutes();
+            }
             List<RouteDefinition> allRouteDefinitions = new ArrayList<RouteDefinition>();
             if (appsOperator.getApplicationCRD() != null) {
-                List<Application> applications = kubernetesClient.customResources(appsOperator.getApplicationCRD(), Application.class,
-                        ApplicationList.class, DoneableApplication.class).list().getItems();
+                // Consistent snapshot of the apps, it doesn't change while we build the routes
+                Collection<AppState> applications = appService.getAppsMap().values();
 
                 applications.forEach(app -> {
                     //@TODO: read from virtual services from istio
@@ -75,30 +138,51 @@ public class OperatorRoutesLocator implements RouteDefinitionLocator {
             }
 
             //@TODO: i need to remove routes old routes ?????
-            return Flux.fromIterable(allRouteDefinitions);
+            // Routes that are not there anymore don't need their upstream clients
+            Set<String> routeIds = allRouteDefinitions.stream().map(RouteDefinition::getId).collect(Collectors.toSet());
+            upstreamClients.retain(routeIds);
+            responseCaches.retain(routeIds);
+            concurrencyLimits.retain(routeIds);
+            stateSnapshots.setRoutes(allRouteDefinitions);
+            lastRouteDefinitions = allRouteDefinitions;
+            routesVersion.incrementAndGet();
+            return allRouteDefinitions;
         } catch (Exception e) {
             e.printStackTrace();
 
         }
-        return null;
+        logger.error("> Routes couldn't be built, keeping the previous " + lastRouteDefinitions.size() + " routes");
+        return lastRouteDefinitions;
+    }
+
+
+    public long getRoutesVersion() {
+        return routesVersion.get();
+    }
+
+    public int getRoutesCount() {
+        return lastRouteDefinitions.size();
     }
 
+    public long getLastBuildMicros() {
+        return lastBuildMicros;
+    }
 
     //@TODO: improve routes and modules validation
-    private boolean areApplicationRoutesReady(Application app, List<RouteDefinition> appRouteDefinitions) {
+    private boolean areApplicationRoutesReady(AppState app, List<RouteDefinition> appRouteDefinitions) {
         final AtomicInteger validated = new AtomicInteger();
         if (appService.isAppHealthy(app)) { // ALL the required modules are present
-            logger.info("> App: " + app.getMetadata().getName() + " validation!");
-            Set<MicroServiceDescr> microservices = app.getSpec().getMicroservices();
+            logger.debug("> App: " + app.getName() + " validation!");
+            List<MicroServiceDescr> microservices = app.getMicroservices();
             if (microservices != null) {
                 microservices.forEach(md -> {
                     appRouteDefinitions.forEach(rd -> {
-                        if (rd.getId().equals(app.getMetadata().getName() + ":" + md.getName())) {
+                        if (rd.getId().equals(app.getName() + ":" + md.getName())) {
                             validated.incrementAndGet();
                         }
                     });
                 });
-                logger.info("> MicroServices size: " + microservices.size() + " and validated: " + validated);
+                logger.debug("> MicroServices size: " + microservices.size() + " and validated: " + validated);
                 if (validated.get() == microservices.size()) {
                     return true;
                 }
@@ -109,11 +193,11 @@ public class OperatorRoutesLocator implements RouteDefinitionLocator {
 
     }
 
-    private List<RouteDefinition> createRouteForServices(Application app, List<CustomService> resources, String path) {
+    private List<RouteDefinition> createRouteForServices(AppState app, List<CustomService> resources, String path) {
         List<RouteDefinition> routeDefinitions = new ArrayList<RouteDefinition>();
         resources.forEach(service -> {
             RouteDefinition routeDefinition = new RouteDefinition();
-            routeDefinition.setId(app.getMetadata().getName() + ":" + service.getMetadata().getName());
+            routeDefinition.setId(app.getName() + ":" + service.getMetadata().getName());
             String port = "";
             if (service.getSpec().getServicePort() != null && !service.getSpec().getServicePort().isEmpty()) {
                 port = ":" + service.getSpec().getServicePort();
@@ -129,11 +213,11 @@ public class OperatorRoutesLocator implements RouteDefinitionLocator {
             String pattern = "";
             //@TODO: refactor this instance of
             if(service instanceof Gateway){ // Gateway should go to the route and not use a special path
-                pattern = "/apps/" + app.getMetadata().getName() + "/" + app.getSpec().getVersion() + "/";
+                pattern = "/apps/" + app.getName() + "/" + app.getVersion() + "/";
             }else if(service instanceof Registry){ // Registry should go to the route and not use a special path
-                pattern = "/apps/" + app.getMetadata().getName() + "/" + app.getSpec().getVersion() + "/registry/";
+                pattern = "/apps/" + app.getName() + "/" + app.getVersion() + "/registry/";
             }else {
-                pattern = "/apps/" + app.getMetadata().getName() + "/" + app.getSpec().getVersion() + "/" + path + "/" + service.getMetadata().getName() + "/";
+                pattern = "/apps/" + app.getName() + "/" + app.getVersion() + "/" + path + "/" + service.getMetadata().getName() + "/";
             }
             predicateDefinition.addArg("pattern", pattern + "**");
             routeDefinition.getPredicates().add(predicateDefinition);
@@ -141,40 +225,69 @@ public class OperatorRoutesLocator implements RouteDefinitionLocator {
             filter.setArgs(ImmutableMap.of("regexp", pattern + "(?<remaining>.*)",
                     "replacement", "/${remaining}"));
 
-            routeDefinition.setFilters(Arrays.asList( filter ));
+            List<FilterDefinition> filters = new ArrayList<>();
+            filters.add(filter);
+            // Always there, the limits can be added or changed later without building the routes again
+            FilterDefinition rateLimitFilter = new FilterDefinition("LocalRateLimit");
+            rateLimitFilter.setArgs(ImmutableMap.of(LocalRateLimitGatewayFilterFactory.APP_NAME_KEY, app.getName(),
+                    LocalRateLimitGatewayFilterFactory.ROUTE_ID_KEY, routeDefinition.getId()));
+            filters.add(rateLimitFilter);
+            if (service.getSpec().getCache() != null) {
+                FilterDefinition cacheFilter = new FilterDefinition("ResponseCache");
+                cacheFilter.setArgs(ImmutableMap.of(ResponseCacheGatewayFilterFactory.ROUTE_ID_KEY, routeDefinition.getId()));
+                filters.add(cacheFilter);
+            }
+            // After the cache, so only the misses are coalesced
+            CoalescingSpec coalescing = service.getSpec().getCoalescing();
+            if (coalescing != null) {
+                FilterDefinition coalescingFilter = new FilterDefinition("RequestCoalescing");
+                coalescingFilter.setArgs(ImmutableMap.of(RequestCoalescingGatewayFilterFactory.ROUTE_ID_KEY, routeDefinition.getId(),
+                        RequestCoalescingGatewayFilterFactory.VARY_HEADERS_KEY, (coalescing.getVaryHeaders() == null) ? "" : String.join(",", coalescing.getVaryHeaders()),
+                        RequestCoalescingGatewayFilterFactory.MAX_BODY_BYTES_KEY, String.valueOf((coalescing.getMaxBodyBytes() == null) ? Integer.MAX_VALUE : coalescing.getMaxBodyBytes())));
+                filters.add(coalescingFilter);
+            }
+            // Last one, only the requests that really go upstream count for the limit
+            if (concurrencyLimits.materialize(routeDefinition.getId(), service.getSpec().getConcurrencyLimit())) {
+                FilterDefinition limitFilter = new FilterDefinition("ConcurrencyLimit");
+                limitFilter.setArgs(ImmutableMap.of(ConcurrencyLimitGatewayFilterFactory.ROUTE_ID_KEY, routeDefinition.getId()));
+                filters.add(limitFilter);
+            }
+            routeDefinition.setFilters(filters);
             routeDefinitions.add(routeDefinition);
-            logger.info("Route (id=" + app.getMetadata().getName() + ":" + service.getMetadata().getName() + ") added: " + pattern);
+            upstreamClients.materialize(routeDefinition.getId(), service.getSpec().getUpstream());
+            responseCaches.materialize(routeDefinition.getId(), service.getSpec().getCache());
+            logger.info("Route (id=" + app.getName() + ":" + service.getMetadata().getName() + ") added: " + pattern);
         });
         return routeDefinitions;
     }
 
-    private List<RouteDefinition> getMicroServicesRoutesForApplication(Application app) {
+    private List<RouteDefinition> getMicroServicesRoutesForApplication(AppState app) {
         if (appsOperator.getMicroServiceCRD() != null) {
-            List<MicroService> microServiceList = kubernetesClient.customResources(appsOperator.getMicroServiceCRD(), MicroService.class,
-                    MicroServiceList.class, DoneableMicroService.class).list().getItems();
+            List<MicroService> microServiceList = k8SCoreRuntime.call(ApiPriority.NORMAL, () -> kubernetesClient.customResources(appsOperator.getMicroServiceCRD(), MicroService.class,
+                    MicroServiceList.class, DoneableMicroService.class).list().getItems());
             return createRouteForServices(app, new ArrayList<>(microServiceList), MICROSERVICES_PATH);
         }
         return Collections.EMPTY_LIST;
     }
 
-    private List<RouteDefinition> getGatewayRouteForApplication(Application app) {
+    private List<RouteDefinition> getGatewayRouteForApplication(AppState app) {
 
         List<RouteDefinition> routeDefinitions = new ArrayList<RouteDefinition>();
         if (appsOperator.getGatewayCRD() != null) {
-            List<Gateway> gatewayList = kubernetesClient.customResources(appsOperator.getGatewayCRD(), Gateway.class,
-                    GatewayList.class, DoneableGateway.class).list().getItems();
+            List<Gateway> gatewayList = k8SCoreRuntime.call(ApiPriority.NORMAL, () -> kubernetesClient.customResources(appsOperator.getGatewayCRD(), Gateway.class,
+                    GatewayList.class, DoneableGateway.class).list().getItems());
             //@TODO: check and adapt: There should be just one Gateway per app
             return createRouteForServices(app, new ArrayList<>(gatewayList), "");
         }
         return Collections.EMPTY_LIST;
     }
 
-    private List<RouteDefinition> getRegistryRouteForApplication(Application app) {
+    private List<RouteDefinition> getRegistryRouteForApplication(AppState app) {
 
         List<RouteDefinition> routeDefinitions = new ArrayList<RouteDefinition>();
         if (appsOperator.getRegistryCRD() != null) {
-            List<Registry> registryList = kubernetesClient.customResources(appsOperator.getRegistryCRD(), Registry.class,
-                    RegistryList.class, DoneableRegistry.class).list().getItems();
+            List<Registry> registryList = k8SCoreRuntime.call(ApiPriority.NORMAL, () -> kubernetesClient.customResources(appsOperator.getRegistryCRD(), Registry.class,
+                    RegistryList.class, DoneableRegistry.class).list().getItems());
             return createRouteForServices(app, new ArrayList<>(registryList), "");
         }
         return Collections.EMPTY_LIST;
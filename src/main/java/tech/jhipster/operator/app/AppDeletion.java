@@ -0,0 +1,91 @@
+package tech.jhipster.operator.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Progress of the deletion of an app and all its services, as reported by the operator REST API
+ *  - deleted: how many resources of each kind were deleted so far
+ */
+public class AppDeletion {
+
+    public enum Status {
+        IN_PROGRESS, DONE, FAILED
+    }
+
+    private final String appName;
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+    private volatile Status status = Status.IN_PROGRESS;
+    private volatile String error;
+    private final Map<String, Integer> deleted = new LinkedHashMap<>();
+
+    public AppDeletion(String appName) {
+        this.appName = appName;
+    }
+
+    public synchronized void deleted(String kind, int count) {
+        deleted.put(kind, count);
+    }
+
+    public void done() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.DONE;
+    }
+
+    public void failed(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isInProgress() {
+        return status == Status.IN_PROGRESS;
+    }
+
+    /*
+     * It finished at least the retention (millis) ago
+     */
+    @JsonIgnore
+    public boolean isExpired(long now, long retention) {
+        return !isInProgress() && now - finishedAt >= retention;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public synchronized Map<String, Integer> getDeleted() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(deleted));
+    }
+
+    @Override
+    public String toString() {
+        return "AppDeletion{" +
+                "appName='" + appName + '\'' +
+                ", status=" + status +
+                ", deleted=" + getDeleted() +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
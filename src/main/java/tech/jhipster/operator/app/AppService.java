@@ -4,115 +4,122 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import tech.jhipster.operator.core.ApiPriority;
 import tech.jhipster.operator.core.K8SCoreRuntime;
 import tech.jhipster.operator.crds.app.Application;
-import tech.jhipster.operator.crds.app.ApplicationSpec;
 import tech.jhipster.operator.crds.app.CustomService;
 import tech.jhipster.operator.crds.app.MicroServiceDescr;
 import tech.jhipster.operator.crds.gateway.Gateway;
 import tech.jhipster.operator.crds.registry.Registry;
 import tech.jhipster.operator.jdl.JDLParser;
-import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
-import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
 public class AppService {
     private Logger logger = LoggerFactory.getLogger(AppService.class);
-    private Map<String, Application> apps = new ConcurrentHashMap<>();
-    private Map<String, String> appsUrls = new HashMap<>();
+    // Copy on write map of immutable app states, swapped atomically by the writers (compare and set)
+    private final AtomicReference<Map<String, AppState>> apps = new AtomicReference<>(Collections.emptyMap());
 
     @Autowired
     private K8SCoreRuntime k8SCoreRuntime;
 
+    @Autowired
+    private HealthProbeScheduler healthProbes;
+
+    @Autowired
+    private DeploymentReadiness deploymentReadiness;
+
     /*
      * Add the logic to define what are the rules for your application to be UP or DOWN
      */
-    public boolean isAppHealthy(Application app) {
+    public boolean isAppHealthy(AppState app) {
+        return findMissingDependencies(app).isEmpty();
+    }
+
+    /*
+     * What an app needs that is not there (or not healthy), empty if the app is healthy
+     *  - It doesn't log, the reconcile journal keeps the result of each check
+     */
+    public List<String> findMissingDependencies(AppState app) {
         // We compare the desired state -> AppDefinition to JHipster K8s Native CRDs
-        JHipsterApplicationDefinition appDefinition = app.getSpec().getAppDefinition();
-        boolean isGatewayAvailable = false;
-        boolean isRegistryAvailable = false;
-        boolean microServicesAvailable[] = new boolean[app.getSpec().getMicroservices().size()];
-        int microServicesCount = 0;
         // 1) need to get the microservice from the app spec
         // 2) I need to make sure that the microservice in the app def is in the app spec
         // 2.1) I need to check that the microservice resource exist
         //    2.2) for each microservice I need to check with k8sCoreRuntime that the service is available
         // 3) if microservice type gateway, check for gateway in the spec
         // 4) if microservice type registry, check for registry in the spec
-        Set<MicroServiceDescr> microservices = app.getSpec().getMicroservices();
-        for (JHipsterModuleDefinition mdd : appDefinition.getModules()) {
-            if (JDLParser.fromJDLServiceToKind(mdd.getType()).equals("Gateway")) {
-                String gateway = app.getSpec().getGateway();
-                if (gateway != null && !gateway.isEmpty()) {
-                    isGatewayAvailable = k8SCoreRuntime.isServiceAvailable(gateway);
-                }
+        List<String> missing = new ArrayList<>(2);
+        boolean gatewayModule = false;
+        Set<String> microServiceModules = new HashSet<>();
+        for (int i = 0; i < app.getModuleCount(); i++) {
+            String moduleKind = JDLParser.fromJDLServiceToKind(app.getModuleType(i));
+            if (moduleKind.equals("Gateway")) {
+                gatewayModule = true;
             }
-            if (JDLParser.fromJDLServiceToKind(mdd.getType()).equals("MicroService")) {
-
-                for (MicroServiceDescr md : microservices) {
-                    // 1) check that the CRD Kind MicroService exist
-                    if (md.getName().equals(mdd.getName()) && md.getKind().equals("MicroService")) {
-                        // 2) check that the service referenced from the CRD exist
-                        microServicesAvailable[microServicesCount] = k8SCoreRuntime.isServiceAvailable(md.getServiceName());
-                        microServicesCount++;
-                    }
-                }
-
+            if (moduleKind.equals("MicroService")) {
+                microServiceModules.add(app.getModuleName(i));
             }
-
         }
-
-        // The registry is not a microservice in the app def so I need to check separately
-        String registry = app.getSpec().getRegistry();
-        if (registry != null && !registry.isEmpty()) {
-            isRegistryAvailable = k8SCoreRuntime.isServiceAvailable(registry);
+        List<MicroServiceDescr> microservices = app.getMicroservices();
+        if (microservices.isEmpty()) {
+            missing.add("MicroServices");
         }
-
-        boolean areMicroServicesAvailable = checkMicroServicesAvailability(microservices.size(), microServicesAvailable);
-        logger.info("MicroServices Available?: " + areMicroServicesAvailable);
-        logger.info("Gateway Available?: " + isGatewayAvailable);
-        logger.info("Registry Available?: " + isRegistryAvailable);
-        if (areMicroServicesAvailable && isGatewayAvailable && isRegistryAvailable) {
-            return true;
+        for (MicroServiceDescr md : microservices) {
+            if (!md.getKind().equals("MicroService") || !microServiceModules.contains(md.getName())) {
+                missing.add("MicroService " + md.getName() + " (not in the app definition)");
+            } else {
+                addIfNotHealthy(missing, "MicroService " + md.getName(), md.getServiceName());
+            }
         }
-
-        return false;
+        String gateway = app.getGateway();
+        if (!gatewayModule || gateway == null || gateway.isEmpty()) {
+            missing.add("Gateway");
+        } else {
+            addIfNotHealthy(missing, "Gateway", gateway);
+        }
+        // The registry is not a microservice in the app def so I need to check separately
+        String registry = app.getRegistry();
+        if (registry == null || registry.isEmpty()) {
+            missing.add("Registry");
+        } else {
+            addIfNotHealthy(missing, "Registry", registry);
+        }
+        return missing;
     }
 
-    private boolean checkMicroServicesAvailability(int size, boolean[] microServicesAvailable) {
-        if (microServicesAvailable.length == size && microServicesAvailable.length > 0) {
-            for (boolean a : microServicesAvailable) {
-                if (!a) {
-                    return false;
-                }
-            }
-            return true;
+    /*
+     * The K8s Service exists, the Deployments behind it are ready and the active probes didn't find it DOWN
+     */
+    private void addIfNotHealthy(List<String> missing, String dependency, String serviceName) {
+        if (!k8SCoreRuntime.isServiceAvailable(serviceName)) {
+            missing.add(dependency + " (K8s Service " + serviceName + " not found)");
+        } else if (Boolean.FALSE.equals(deploymentReadiness.isServiceReady(serviceName))) {
+            missing.add(dependency + " (no ready Deployment behind " + serviceName + ")");
+        } else if (!healthProbes.isHealthy(serviceName)) {
+            missing.add(dependency + " (" + serviceName + " failing health probes)");
         }
-        return false;
     }
 
     public void addGatewayToApp(Gateway gateway) {
         String appName = gateway.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
+            AppState application = getApp(appName);
             if (application != null) {
-                ApplicationSpec spec = application.getSpec();
+                String serviceName = gateway.getSpec().getServiceName();
                 //If the APP already have the gateway then ignore, to avoid one API call
-                if (spec.getGateway() != null && !spec.getGateway().isEmpty() && spec.getGateway().equals(gateway.getSpec().getServiceName())) {
+                if (application.getGateway() != null && !application.getGateway().isEmpty() && application.getGateway().equals(serviceName)) {
                     return;
                 }
-                if (k8SCoreRuntime.isServiceAvailable(gateway.getSpec().getServiceName())) {
-                    spec.setGateway(gateway.getSpec().getServiceName());
-                    application.setSpec(spec);
-                    apps.put(application.getMetadata().getName(), application);
-                    logger.info("> Application: " + appName + " updated with Gateway " + gateway.getMetadata().getName());
+                if (k8SCoreRuntime.isServiceAvailable(serviceName, ApiPriority.HIGH)) {
+                    if (updateApp(appName, app -> app.withGateway(serviceName)) != null) {
+                        logger.info("> Application: " + appName + " updated with Gateway " + gateway.getMetadata().getName());
+                    }
                 } else {
-                    logger.error("Registry: " + gateway.getSpec().getServiceName() + " doesn't exist. ");
+                    logger.error("Registry: " + serviceName + " doesn't exist. ");
                 }
             }
         } else {
@@ -124,20 +131,19 @@ public class AppService {
     public void addRegistryToApp(Registry registry) {
         String appName = registry.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
+            AppState application = getApp(appName);
             if (application != null) {
-                ApplicationSpec spec = application.getSpec();
+                String serviceName = registry.getSpec().getServiceName();
                 //If the APP already have the registry then ignore, to avoid one API call
-                if (spec.getRegistry() != null && !spec.getRegistry().isEmpty() && spec.getRegistry().equals(registry.getSpec().getServiceName())) {
+                if (application.getRegistry() != null && !application.getRegistry().isEmpty() && application.getRegistry().equals(serviceName)) {
                     return;
                 }
-                if (k8SCoreRuntime.isServiceAvailable(registry.getSpec().getServiceName())) {
-                    spec.setRegistry(registry.getSpec().getServiceName());
-                    application.setSpec(spec);
-                    apps.put(application.getMetadata().getName(), application);
-                    logger.info("> Application: " + appName + " updated with Registry " + registry.getMetadata().getName());
+                if (k8SCoreRuntime.isServiceAvailable(serviceName, ApiPriority.HIGH)) {
+                    if (updateApp(appName, app -> app.withRegistry(serviceName)) != null) {
+                        logger.info("> Application: " + appName + " updated with Registry " + registry.getMetadata().getName());
+                    }
                 } else {
-                    logger.error("Registry: " + registry.getSpec().getServiceName() + " doesn't exist. ");
+                    logger.error("Registry: " + serviceName + " doesn't exist. ");
                 }
             }
         } else {
@@ -148,19 +154,13 @@ public class AppService {
     public void addMicroServiceToApp(CustomService microService) {
         String appName = microService.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
+            AppState application = getApp(appName);
             if (application != null) {
-                ApplicationSpec spec = application.getSpec();
-                Set<MicroServiceDescr> microservices = spec.getMicroservices();
-                if (microservices == null) {
-                    microservices = new HashSet<>();
-                }
-                if (k8SCoreRuntime.isServiceAvailable(microService.getSpec().getServiceName())) {
-                    microservices.add(new MicroServiceDescr(microService.getMetadata().getName(), microService.getKind(), microService.getSpec().getServiceName()));
-                    spec.setMicroservices(microservices);
-                    application.setSpec(spec);
-                    apps.put(application.getMetadata().getName(), application);
-                    logger.info("> Application: " + appName + " updated with Service " + microService.getMetadata().getName());
+                if (k8SCoreRuntime.isServiceAvailable(microService.getSpec().getServiceName(), ApiPriority.HIGH)) {
+                    MicroServiceDescr descr = new MicroServiceDescr(microService.getMetadata().getName(), microService.getKind(), microService.getSpec().getServiceName());
+                    if (updateApp(appName, app -> app.withMicroService(descr)) != null) {
+                        logger.info("> Application: " + appName + " updated with Service " + microService.getMetadata().getName());
+                    }
                 } else {
                     logger.error("Service: " + microService.getSpec().getServiceName() + " doesn't exist. ");
                 }
@@ -173,12 +173,7 @@ public class AppService {
     public void removeGatewayFromApp(Gateway gateway) {
         String appName = gateway.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
-            if (application != null) {
-                ApplicationSpec spec = application.getSpec();
-                spec.setGateway("");
-                application.setSpec(spec);
-                apps.put(application.getMetadata().getName(), application);
+            if (updateApp(appName, app -> app.withGateway("")) != null) {
                 logger.info(">> Gateway removed " + gateway.getMetadata().getName() + " from app " + appName);
             }
         }
@@ -188,12 +183,7 @@ public class AppService {
     public void removeRegistryFromApp(Registry service) {
         String appName = service.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
-            if (application != null) {
-                ApplicationSpec spec = application.getSpec();
-                spec.setRegistry("");
-                application.setSpec(spec);
-                apps.put(application.getMetadata().getName(), application);
+            if (updateApp(appName, app -> app.withRegistry("")) != null) {
                 logger.info(">> Registry removed " + service.getMetadata().getName() + " from app " + appName);
             }
         }
@@ -202,55 +192,129 @@ public class AppService {
     public void removeMicroServiceFromApp(CustomService service) {
         String appName = service.getMetadata().getLabels().get("app");
         if (appName != null && !appName.isEmpty()) {
-            Application application = apps.get(appName);
-            if (application != null) {
-                ApplicationSpec spec = application.getSpec();
-                Set<MicroServiceDescr> microservices = spec.getMicroservices();
-                if (microservices == null) {
-                    microservices = new HashSet<>();
-                }
-                microservices.removeIf(m -> m.getKind().equals(service.getKind()) && m.getName().equals(service.getMetadata().getName()));
-                spec.setMicroservices(microservices);
-                application.setSpec(spec);
-                apps.put(application.getMetadata().getName(), application);
+            if (updateApp(appName, app -> app.withoutMicroService(service.getKind(), service.getMetadata().getName())) != null) {
                 logger.info(">> Deleted MicroService " + service.getMetadata().getName() + " from app " + appName);
             }
         }
     }
 
+    /*
+     * Remove a service from the app where it was bound, its app label may point to another app by now
+     */
+    public void unbindService(String appName, CustomService service) {
+        if (appName == null || appName.isEmpty()) {
+            return;
+        }
+        UnaryOperator<AppState> unbind;
+        if (service instanceof Gateway) {
+            unbind = app -> app.withGateway("");
+        } else if (service instanceof Registry) {
+            unbind = app -> app.withRegistry("");
+        } else {
+            unbind = app -> app.withoutMicroService(service.getKind(), service.getMetadata().getName());
+        }
+        if (updateApp(appName, unbind) != null) {
+            logger.info(">> Service " + service.getMetadata().getName() + " unbound from app " + appName);
+        }
+    }
+
+    /*
+     * Apply a change to the state of an App
+     *  - The change is applied against the latest snapshot and published with compare and set, retrying if
+     *    another writer won the race, so the update function must not have side effects
+     *  - Returns the new state or null if the app doesn't exist
+     */
+    public AppState updateApp(String appName, UnaryOperator<AppState> update) {
+        while (true) {
+            Map<String, AppState> current = apps.get();
+            AppState app = current.get(appName);
+            if (app == null) {
+                return null;
+            }
+            AppState updated = update.apply(app);
+            Map<String, AppState> next = new HashMap<>(current);
+            next.put(appName, updated);
+            if (apps.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return updated;
+            }
+        }
+    }
+
 
     public List<String> getApps() {
-        return apps.values().stream()
+        return apps.get().values().stream()
                 .filter(app -> isAppHealthy(app))
-                .map(a -> a.getMetadata().getName())
+                .map(a -> a.getName())
                 .collect(Collectors.toList());
     }
 
     public void addApp(String appName, Application app) {
-        apps.put(appName, app);
+        putApp(appName, AppState.from(app));
+    }
+
+    /*
+     * Apply a new spec of an app that is already loaded, keeping the services bound to it
+     */
+    public void updateAppSpec(Application app) {
+        String appName = app.getMetadata().getName();
+        AppState updated = AppState.from(app);
+        if (updateApp(appName, previous -> updated.withBindingsOf(previous)) == null) {
+            putApp(appName, updated);
+        }
     }
 
-    public Application removeApp(String appName) {
-        return apps.remove(appName);
+    public void putApp(String appName, AppState state) {
+        while (true) {
+            Map<String, AppState> current = apps.get();
+            Map<String, AppState> next = new HashMap<>(current);
+            next.put(appName, state);
+            if (apps.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return;
+            }
+        }
     }
 
-    public Application getApp(String appName) {
-        return apps.get(appName);
+    /*
+     * Forget the apps that are not in the cluster anymore, used after loading them again from scratch
+     */
+    public void retainApps(Set<String> appNames) {
+        while (true) {
+            Map<String, AppState> current = apps.get();
+            Map<String, AppState> next = new HashMap<>(current);
+            next.keySet().retainAll(appNames);
+            if (apps.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return;
+            }
+        }
     }
 
-    public String getAppUrl(String appName) {
-        return appsUrls.get(appName);
+    public AppState removeApp(String appName) {
+        while (true) {
+            Map<String, AppState> current = apps.get();
+            if (!current.containsKey(appName)) {
+                return null;
+            }
+            Map<String, AppState> next = new HashMap<>(current);
+            AppState removed = next.remove(appName);
+            if (apps.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return removed;
+            }
+        }
     }
 
-    public void addAppUrl(String appName, String url) {
-        appsUrls.put(appName, url);
+    public AppState getApp(String appName) {
+        return apps.get().get(appName);
     }
 
-    public Map<String, Application> getAppsMap() {
-        return apps;
+    public String getAppUrl(String appName) {
+        AppState app = getApp(appName);
+        return (app == null) ? null : app.getUrl();
     }
 
-    public Map<String, String> getAppsUrls() {
-        return appsUrls;
+    /*
+     * Consistent, read only, snapshot of all the apps known by the operator
+     */
+    public Map<String, AppState> getAppsMap() {
+        return apps.get();
     }
 }
@@ -0,0 +1,302 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.ApplicationStatus;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.crds.app.RateLimitSpec;
+import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Immutable view of an Application as it is known by the operator
+ *  - Every change creates a new instance, so readers (routes, controller, reconcile) never see half applied changes
+ *  - It is compact, so the operator can keep a lot of apps in memory:
+ *    - Only the metadata that the operator uses is kept, not the fabric8 ObjectMeta
+ *    - The JDL text is not kept, just the name and type of the modules of the app definition
+ *    - Small sorted arrays instead of sets, and strings shared through StringPool
+ */
+public final class AppState {
+
+    private static final long UNKNOWN_GENERATION = -1;
+    private static final String[] NO_MODULES = new String[0];
+    private static final MicroServiceDescr[] NO_MICROSERVICES = new MicroServiceDescr[0];
+    private static final Comparator<MicroServiceDescr> MICROSERVICES_ORDER =
+            Comparator.comparing(MicroServiceDescr::getKind, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(MicroServiceDescr::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<JHipsterModuleDefinition> MODULES_ORDER =
+            Comparator.comparing(JHipsterModuleDefinition::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final String name;
+    private final String namespace;
+    private final String resourceVersion;
+    private final long generation;
+    private final String version;
+    private final String selector;
+    // Name and JDL type of each module in the app definition sorted by name, same index in both arrays
+    private final String[] moduleNames;
+    private final String[] moduleTypes;
+    private final MicroServiceDescr[] microservices;
+    private final String registry;
+    private final String gateway;
+    private final String status;
+    private final String url;
+    private final long observedGeneration;
+    private final RateLimitSpec rateLimit;
+
+    AppState(String name, String namespace, String resourceVersion, long generation, String version, String selector,
+                     String[] moduleNames, String[] moduleTypes, MicroServiceDescr[] microservices, String registry,
+                     String gateway, String status, String url, long observedGeneration, RateLimitSpec rateLimit) {
+        this.name = name;
+        this.namespace = namespace;
+        this.resourceVersion = resourceVersion;
+        this.generation = generation;
+        this.version = version;
+        this.selector = selector;
+        this.moduleNames = moduleNames;
+        this.moduleTypes = moduleTypes;
+        this.microservices = microservices;
+        this.registry = registry;
+        this.gateway = gateway;
+        this.status = status;
+        this.url = url;
+        this.observedGeneration = observedGeneration;
+        this.rateLimit = rateLimit;
+    }
+
+    public static AppState from(Application app) {
+        ObjectMeta metadata = app.getMetadata();
+        ApplicationSpec spec = app.getSpec();
+        if (spec == null) {
+            spec = new ApplicationSpec();
+        }
+        ApplicationStatus status = app.getStatus();
+        if (status == null) {
+            status = new ApplicationStatus();
+        }
+        String[] moduleNames = NO_MODULES;
+        String[] moduleTypes = NO_MODULES;
+        JHipsterApplicationDefinition appDefinition = spec.getAppDefinition();
+        if (appDefinition != null && appDefinition.getModules() != null && !appDefinition.getModules().isEmpty()) {
+            List<JHipsterModuleDefinition> modules = new ArrayList<>(appDefinition.getModules());
+            modules.sort(MODULES_ORDER);
+            moduleNames = new String[modules.size()];
+            moduleTypes = new String[modules.size()];
+            for (int i = 0; i < modules.size(); i++) {
+                moduleNames[i] = StringPool.intern(modules.get(i).getName());
+                moduleTypes[i] = StringPool.intern(modules.get(i).getType());
+            }
+        }
+        MicroServiceDescr[] microservices = NO_MICROSERVICES;
+        if (spec.getMicroservices() != null && !spec.getMicroservices().isEmpty()) {
+            microservices = spec.getMicroservices().stream()
+                    .map(AppState::canonical)
+                    .sorted(MICROSERVICES_ORDER)
+                    .toArray(MicroServiceDescr[]::new);
+        }
+        return new AppState(StringPool.intern(metadata.getName()), StringPool.intern(metadata.getNamespace()),
+                metadata.getResourceVersion(), toLong(metadata.getGeneration()), StringPool.intern(spec.getVersion()),
+                StringPool.intern(spec.getSelector()), moduleNames, moduleTypes, microservices,
+                StringPool.intern(spec.getRegistry()), StringPool.intern(spec.getGateway()), StringPool.intern(status.getStatus()),
+                status.getUrl(), toLong(status.getObservedGeneration()), spec.getRateLimit());
+    }
+
+    public AppState withGateway(String gateway) {
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                microservices, registry, StringPool.intern(gateway), status, url, observedGeneration, rateLimit);
+    }
+
+    public AppState withRegistry(String registry) {
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                microservices, StringPool.intern(registry), gateway, status, url, observedGeneration, rateLimit);
+    }
+
+    public AppState withMicroService(MicroServiceDescr microService) {
+        List<MicroServiceDescr> updated = new ArrayList<>(microservices.length + 1);
+        // Replace the one with the same kind and name, the service name may have changed
+        for (MicroServiceDescr m : microservices) {
+            if (!(Objects.equals(m.getName(), microService.getName()) && Objects.equals(m.getKind(), microService.getKind()))) {
+                updated.add(m);
+            }
+        }
+        updated.add(canonical(microService));
+        updated.sort(MICROSERVICES_ORDER);
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                updated.toArray(NO_MICROSERVICES), registry, gateway, status, url, observedGeneration, rateLimit);
+    }
+
+    public AppState withoutMicroService(String kind, String name) {
+        List<MicroServiceDescr> updated = new ArrayList<>(microservices.length);
+        for (MicroServiceDescr m : microservices) {
+            if (!(Objects.equals(m.getKind(), kind) && Objects.equals(m.getName(), name))) {
+                updated.add(m);
+            }
+        }
+        return new AppState(this.name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                updated.toArray(NO_MICROSERVICES), registry, gateway, status, url, observedGeneration, rateLimit);
+    }
+
+    public AppState withStatus(String status, String url, Long observedGeneration) {
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                microservices, registry, gateway, StringPool.intern(status), url, toLong(observedGeneration), rateLimit);
+    }
+
+    /*
+     * This state with the services, status and url of a previous state of the same app
+     *  - Used when the spec of an app changes: the services bound to it and its status are still valid
+     */
+    public AppState withBindingsOf(AppState previous) {
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                previous.microservices, previous.registry, previous.gateway, previous.status, previous.url,
+                previous.observedGeneration, rateLimit);
+    }
+
+    /*
+     * After each write we need to keep the resourceVersion returned by the API Server for the next write
+     */
+    public AppState withResourceVersion(String resourceVersion) {
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                microservices, registry, gateway, status, url, observedGeneration, rateLimit);
+    }
+
+    /*
+     * Creates a new Application resource with this state, ready to write its status to the K8s API Server
+     *  - The JDL text and the ports of the modules are not kept, so the spec is not complete: don't use it to update the spec
+     */
+    public Application toApplication() {
+        Application app = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(namespace);
+        metadata.setResourceVersion(resourceVersion);
+        metadata.setGeneration(getGeneration());
+        app.setMetadata(metadata);
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setVersion(version);
+        spec.setSelector(selector);
+        JHipsterApplicationDefinition appDefinition = new JHipsterApplicationDefinition(name, version);
+        for (int i = 0; i < moduleNames.length; i++) {
+            appDefinition.addModule(new JHipsterModuleDefinition(moduleNames[i], moduleTypes[i]));
+        }
+        spec.setAppDefinition(appDefinition);
+        spec.setMicroservices(new HashSet<>(Arrays.asList(microservices)));
+        spec.setRegistry(registry);
+        spec.setGateway(gateway);
+        spec.setRateLimit(rateLimit);
+        app.setSpec(spec);
+        app.setStatus(new ApplicationStatus(status, url, getObservedGeneration()));
+        return app;
+    }
+
+    /*
+     * Rough size of this state in bytes (64 bit JVM, compressed oops), for diagnostics
+     *  - Strings shared through StringPool are not counted, they are paid once for all the apps
+     */
+    public long estimateBytes() {
+        long bytes = 80;
+        bytes += 2 * (16 + 4L * moduleNames.length);
+        bytes += 16 + 4L * microservices.length + 24L * microservices.length;
+        bytes += estimateBytes(resourceVersion) + estimateBytes(url);
+        return bytes;
+    }
+
+    private static long estimateBytes(String value) {
+        return (value == null) ? 0 : 40 + value.length();
+    }
+
+    private static MicroServiceDescr canonical(MicroServiceDescr microService) {
+        return new MicroServiceDescr(StringPool.intern(microService.getName()), StringPool.intern(microService.getKind()),
+                StringPool.intern(microService.getServiceName()));
+    }
+
+    static long toLong(Long value) {
+        return (value == null) ? UNKNOWN_GENERATION : value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getResourceVersion() {
+        return resourceVersion;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    public int getModuleCount() {
+        return moduleNames.length;
+    }
+
+    public String getModuleName(int index) {
+        return moduleNames[index];
+    }
+
+    public String getModuleType(int index) {
+        return moduleTypes[index];
+    }
+
+    public List<MicroServiceDescr> getMicroservices() {
+        return Collections.unmodifiableList(Arrays.asList(microservices));
+    }
+
+    public String getRegistry() {
+        return registry;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Long getObservedGeneration() {
+        return (observedGeneration == UNKNOWN_GENERATION) ? null : observedGeneration;
+    }
+
+    public RateLimitSpec getRateLimit() {
+        return rateLimit;
+    }
+
+    public Long getGeneration() {
+        return (generation == UNKNOWN_GENERATION) ? null : generation;
+    }
+
+    @Override
+    public String toString() {
+        return "AppState{" +
+                "name='" + name + '\'' +
+                ", version='" + version + '\'' +
+                ", microservices=" + Arrays.toString(microservices) +
+                ", registry='" + registry + '\'' +
+                ", gateway='" + gateway + '\'' +
+                ", status='" + status + '\'' +
+                ", url='" + url + '\'' +
+                ", observedGeneration=" + getObservedGeneration() +
+                '}';
+    }
+}
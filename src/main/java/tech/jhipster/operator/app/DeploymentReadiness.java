@@ -0,0 +1,179 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Readiness of the Deployments of the namespace, kept up to date with a watch
+ *  - A Deployment is ready while it has at least one ready and available replica, so a failed rollout that keeps
+ *    the old pods serving doesn't take the app down
+ *  - The Deployments behind a K8s Service are the ones whose pod template labels match the Service selector
+ *  - The listener is called from the watch thread as soon as the readiness of a Deployment changes
+ *  - The readiness of each Service is cached until a Deployment or the Service selector changes, so the apps that share
+ *    a Service (i.e. the registry) don't scan all the Deployments on every reconcile pass
+ */
+@Service
+public class DeploymentReadiness {
+
+    private Logger logger = LoggerFactory.getLogger(DeploymentReadiness.class);
+
+    @Autowired
+    private K8SCoreRuntime k8SCoreRuntime;
+
+    // Deployment Name -> Readiness
+    private Map<String, Readiness> deployments = new ConcurrentHashMap<>();
+    // Bumped on every change of the Deployments, the cached readiness of older versions is computed again
+    private AtomicLong version = new AtomicLong();
+    // Service Name -> Readiness of the Deployments behind it
+    private Map<String, ServiceReadiness> services = new ConcurrentHashMap<>();
+
+    private volatile boolean watching = false;
+    private volatile Runnable listener = () -> {
+    };
+
+    public void watch(Runnable onChange) {
+        if (watching) {
+            return;
+        }
+        listener = onChange;
+        DeploymentList list = k8SCoreRuntime.listDeployments();
+        Set<String> found = new HashSet<>();
+        list.getItems().forEach(d -> {
+            found.add(d.getMetadata().getName());
+            deploymentUpdated(d);
+        });
+        deployments.keySet().retainAll(found);
+        services.clear();
+        version.incrementAndGet();
+        k8SCoreRuntime.watchDeployments(list.getMetadata().getResourceVersion(), new Watcher<Deployment>() {
+            @Override
+            public void eventReceived(Action action, Deployment d) {
+                boolean changed = false;
+                if (action.equals(Action.DELETED)) {
+                    changed = deployments.remove(d.getMetadata().getName()) != null;
+                    if (changed) {
+                        version.incrementAndGet();
+                    }
+                } else if (action.equals(Action.ADDED) || action.equals(Action.MODIFIED)) {
+                    changed = deploymentUpdated(d);
+                }
+                if (changed) {
+                    logger.info(">> Deployment " + d.getMetadata().getName() + " readiness changed: " + deployments.get(d.getMetadata().getName()));
+                    listener.run();
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                logger.error(">> K8s Deployments watch closed: " + ((cause == null) ? "" : cause.getMessage()));
+                watching = false;
+            }
+        });
+        watching = true;
+        logger.info("> Watching " + deployments.size() + " K8s Deployments");
+    }
+
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /*
+     * Readiness of the Deployments behind a K8s Service: true if any of them is ready, false if none of them is,
+     * null if we don't know (no selector, no Deployments, i.e. StatefulSets, or we are not watching)
+     */
+    public Boolean isServiceReady(String serviceName) {
+        Map<String, String> selector = k8SCoreRuntime.getServiceSelector(serviceName);
+        if (selector == null || selector.isEmpty()) {
+            services.remove(serviceName);
+            return null;
+        }
+        // Read before the scan: a change during the scan leaves the result outdated for the next call
+        long current = version.get();
+        ServiceReadiness cached = services.get(serviceName);
+        if (cached != null && cached.version == current && cached.selector.equals(selector)) {
+            return cached.ready;
+        }
+        Boolean ready = null;
+        for (Readiness deployment : deployments.values()) {
+            if (deployment.matches(selector)) {
+                if (deployment.ready) {
+                    ready = true;
+                    break;
+                }
+                ready = false;
+            }
+        }
+        services.put(serviceName, new ServiceReadiness(selector, current, ready));
+        return ready;
+    }
+
+    /*
+     * Returns true if the readiness (or the labels) of the Deployment changed
+     */
+    private boolean deploymentUpdated(Deployment d) {
+        Integer readyReplicas = (d.getStatus() == null) ? null : d.getStatus().getReadyReplicas();
+        Integer availableReplicas = (d.getStatus() == null) ? null : d.getStatus().getAvailableReplicas();
+        boolean ready = readyReplicas != null && readyReplicas > 0 && availableReplicas != null && availableReplicas > 0;
+        Map<String, String> labels = Collections.emptyMap();
+        if (d.getSpec() != null && d.getSpec().getTemplate() != null && d.getSpec().getTemplate().getMetadata() != null
+                && d.getSpec().getTemplate().getMetadata().getLabels() != null) {
+            labels = d.getSpec().getTemplate().getMetadata().getLabels();
+        }
+        Readiness updated = new Readiness(labels, ready);
+        Readiness previous = deployments.put(d.getMetadata().getName(), updated);
+        boolean changed = previous == null || previous.ready != updated.ready || !Objects.equals(previous.labels, updated.labels);
+        if (changed) {
+            version.incrementAndGet();
+        }
+        return changed;
+    }
+
+    private static final class ServiceReadiness {
+        private final Map<String, String> selector;
+        private final long version;
+        private final Boolean ready;
+
+        private ServiceReadiness(Map<String, String> selector, long version, Boolean ready) {
+            this.selector = selector;
+            this.version = version;
+            this.ready = ready;
+        }
+    }
+
+    private static final class Readiness {
+        private final Map<String, String> labels;
+        private final boolean ready;
+
+        private Readiness(Map<String, String> labels, boolean ready) {
+            this.labels = labels;
+            this.ready = ready;
+        }
+
+        private boolean matches(Map<String, String> selector) {
+            return labels.entrySet().containsAll(selector.entrySet());
+        }
+
+        @Override
+        public String toString() {
+            return "Readiness{" +
+                    "labels=" + labels +
+                    ", ready=" + ready +
+                    '}';
+        }
+    }
+}
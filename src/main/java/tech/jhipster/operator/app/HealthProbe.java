@@ -0,0 +1,72 @@
+package tech.jhipster.operator.app;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Health of one K8s Service as seen by the active probes
+ *  - Hysteresis: it takes rise successes in a row to be UP again and fall failures in a row to be DOWN,
+ *    so a single slow or failed probe doesn't take the routes of an app down
+ *  - The first result decides right away, there is nothing to smooth yet
+ *  - Only one probe per service is in flight at a time
+ */
+public class HealthProbe {
+
+    public enum Health {
+        UNKNOWN, UP, DOWN
+    }
+
+    private final String serviceName;
+    private final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+    private volatile Health health = Health.UNKNOWN;
+    private volatile long nextProbeAt;
+    private int successes;
+    private int failures;
+
+    public HealthProbe(String serviceName) {
+        this.serviceName = serviceName;
+        // Due right away
+        this.nextProbeAt = System.nanoTime();
+    }
+
+    /*
+     * Record the result of a probe, returns true if the health changed
+     */
+    public synchronized boolean record(boolean success, int rise, int fall) {
+        Health previous = health;
+        if (success) {
+            successes++;
+            failures = 0;
+            if (health == Health.UNKNOWN || (health == Health.DOWN && successes >= rise)) {
+                health = Health.UP;
+            }
+        } else {
+            failures++;
+            successes = 0;
+            if (health == Health.UNKNOWN || (health == Health.UP && failures >= fall)) {
+                health = Health.DOWN;
+            }
+        }
+        return previous != health;
+    }
+
+    /*
+     * Take the probe if it is due and no other probe is in flight
+     */
+    public boolean tryStart(long now) {
+        return now - nextProbeAt >= 0 && inFlight.compareAndSet(false, true);
+    }
+
+    public void finish(long nextProbeAt) {
+        this.nextProbeAt = nextProbeAt;
+        inFlight.set(false);
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public Health getHealth() {
+        return health;
+    }
+}
@@ -0,0 +1,151 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ServicePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Active health probes for the K8s Services bound to the apps (microservices, gateways and registries)
+ *  - Each service has its own schedule: probed every interval while UP and every down-interval while not,
+ *    with some jitter so the probes of all the services don't fire at the same time
+ *  - Probes are non blocking (WebClient), the tick only starts the ones that are due
+ *  - Results are cached, so the health checks of the apps and the routes only do a map lookup
+ *  - Services that were never probed are considered healthy, the probes can only take an app down
+ */
+@Service
+public class HealthProbeScheduler {
+
+    private Logger logger = LoggerFactory.getLogger(HealthProbeScheduler.class);
+
+    @Value("${jhipster.operator.health.enabled:true}")
+    private boolean enabled;
+    @Value("${jhipster.operator.health.path:/management/health}")
+    private String path;
+    @Value("${jhipster.operator.health.interval:10000}")
+    private long interval;
+    @Value("${jhipster.operator.health.down-interval:3000}")
+    private long downInterval;
+    @Value("${jhipster.operator.health.jitter:0.2}")
+    private double jitter;
+    @Value("${jhipster.operator.health.timeout:2000}")
+    private long timeout;
+    @Value("${jhipster.operator.health.rise:2}")
+    private int rise;
+    @Value("${jhipster.operator.health.fall:3}")
+    private int fall;
+
+    @Autowired
+    private AppService appService;
+
+    @Autowired
+    private K8SCoreRuntime k8SCoreRuntime;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private WebClient webClient = WebClient.create();
+
+    // Service Name -> Probe
+    private Map<String, HealthProbe> probes = new ConcurrentHashMap<>();
+
+    private volatile boolean healthChanged = false;
+
+    /*
+     * Start the probes that are due, called on every tick
+     *  - The routes are refreshed from here and not from the probe callbacks, which run on the http client threads
+     */
+    public void probeDue() {
+        if (!enabled) {
+            return;
+        }
+        Set<String> serviceNames = new HashSet<>();
+        for (AppState app : appService.getAppsMap().values()) {
+            for (MicroServiceDescr microService : app.getMicroservices()) {
+                addServiceName(serviceNames, microService.getServiceName());
+            }
+            addServiceName(serviceNames, app.getGateway());
+            addServiceName(serviceNames, app.getRegistry());
+        }
+        probes.keySet().retainAll(serviceNames);
+        long now = System.nanoTime();
+        for (String serviceName : serviceNames) {
+            HealthProbe probe = probes.computeIfAbsent(serviceName, HealthProbe::new);
+            if (probe.tryStart(now)) {
+                probe(probe);
+            }
+        }
+        if (healthChanged) {
+            healthChanged = false;
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        }
+    }
+
+    /*
+     * False only if the probes say that the service is DOWN
+     */
+    public boolean isHealthy(String serviceName) {
+        if (!enabled) {
+            return true;
+        }
+        HealthProbe probe = probes.get(serviceName);
+        return probe == null || probe.getHealth() != HealthProbe.Health.DOWN;
+    }
+
+    public HealthProbe.Health getHealth(String serviceName) {
+        HealthProbe probe = probes.get(serviceName);
+        return (probe == null) ? HealthProbe.Health.UNKNOWN : probe.getHealth();
+    }
+
+    private void probe(HealthProbe probe) {
+        List<ServicePort> ports = k8SCoreRuntime.getServicePorts(probe.getServiceName());
+        if (ports == null || ports.isEmpty()) {
+            // We don't know the port until the K8s Services watch sees the service
+            probe.finish(nextProbeAt(interval));
+            return;
+        }
+        String url = "http://" + probe.getServiceName() + ":" + ports.get(0).getPort() + path;
+        webClient.get().uri(url)
+                .exchange()
+                .flatMap(response -> response.bodyToMono(Void.class).thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(Duration.ofMillis(timeout))
+                .defaultIfEmpty(false)
+                .onErrorReturn(false)
+                .subscribe(up -> probed(probe, up));
+    }
+
+    private void probed(HealthProbe probe, boolean up) {
+        if (probe.record(up, rise, fall)) {
+            logger.info(">> K8s Service " + probe.getServiceName() + " is " + probe.getHealth());
+            healthChanged = true;
+        }
+        probe.finish(nextProbeAt((probe.getHealth() == HealthProbe.Health.UP) ? interval : downInterval));
+    }
+
+    private long nextProbeAt(long delayMillis) {
+        double jittered = delayMillis * (1 - jitter + 2 * jitter * ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((long) jittered);
+    }
+
+    private static void addServiceName(Set<String> serviceNames, String serviceName) {
+        if (serviceName != null && !serviceName.isEmpty()) {
+            serviceNames.add(serviceName);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package tech.jhipster.operator.app;
+
+import java.util.List;
+
+/*
+ * What reconcile decided for an app and why, as kept by the ReconcileJournal
+ */
+public class ReconcileDecision {
+
+    public enum Action {
+        // The status changed, it is written to the K8s API Server in the background by the StatusFlusher
+        STATUS_WRITTEN,
+        // The status is the same one that the app already had
+        NO_CHANGE,
+        // The app was removed while it was being checked
+        APP_GONE,
+        // Checking the app threw, it will be retried with backoff
+        FAILED
+    }
+
+    private final long timestamp;
+    private final String app;
+    private final Long generation;
+    private final String previousStatus;
+    private final String status;
+    private final List<String> missing;
+    private final Action action;
+    private final long durationMicros;
+
+    public ReconcileDecision(long timestamp, String app, Long generation, String previousStatus, String status,
+                             List<String> missing, Action action, long durationMicros) {
+        this.timestamp = timestamp;
+        this.app = app;
+        this.generation = generation;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.missing = missing;
+        this.action = action;
+        this.durationMicros = durationMicros;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getApp() {
+        return app;
+    }
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconcileDecision{" +
+                "app='" + app + '\'' +
+                ", generation=" + generation +
+                ", previousStatus='" + previousStatus + '\'' +
+                ", status='" + status + '\'' +
+                ", missing=" + missing +
+                ", action=" + action +
+                ", durationMicros=" + durationMicros +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package tech.jhipster.operator.app;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The last reconcile decisions, instead of logging every check of every app on every pass
+ *  - Fixed size ring of preallocated slots that are overwritten in place, recording a decision doesn't allocate
+ *  - Decisions are only copied out (as ReconcileDecision) when someone asks for them
+ */
+@Service
+public class ReconcileJournal {
+
+    private static final List<String> NOTHING_MISSING = Collections.emptyList();
+
+    @Value("${jhipster.operator.reconcile.journal-size:1024}")
+    private int size;
+
+    private Slot[] slots;
+    private long next = 0;
+
+    @PostConstruct
+    public void init() {
+        slots = new Slot[Math.max(1, size)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public synchronized void record(String app, Long generation, String previousStatus, String status, List<String> missing,
+                                    ReconcileDecision.Action action, long durationNanos) {
+        Slot slot = slots[(int) (next++ % slots.length)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.app = app;
+        slot.generation = generation;
+        slot.previousStatus = previousStatus;
+        slot.status = status;
+        slot.missing = (missing == null || missing.isEmpty()) ? NOTHING_MISSING : missing;
+        slot.action = action;
+        slot.durationNanos = durationNanos;
+    }
+
+    /*
+     * The last decisions for an app (all the apps if null), newest first
+     */
+    public synchronized List<ReconcileDecision> getDecisions(String app, int limit) {
+        List<ReconcileDecision> decisions = new ArrayList<>();
+        long oldest = Math.max(0, next - slots.length);
+        for (long i = next - 1; i >= oldest && decisions.size() < limit; i--) {
+            Slot slot = slots[(int) (i % slots.length)];
+            if (app == null || app.equals(slot.app)) {
+                decisions.add(toDecision(slot));
+            }
+        }
+        return decisions;
+    }
+
+    /*
+     * The last decision for each app
+     */
+    public synchronized Map<String, ReconcileDecision> getLastDecisions() {
+        Map<String, ReconcileDecision> decisions = new HashMap<>();
+        long oldest = Math.max(0, next - slots.length);
+        for (long i = next - 1; i >= oldest; i--) {
+            Slot slot = slots[(int) (i % slots.length)];
+            if (!decisions.containsKey(slot.app)) {
+                decisions.put(slot.app, toDecision(slot));
+            }
+        }
+        return decisions;
+    }
+
+    private static ReconcileDecision toDecision(Slot slot) {
+        return new ReconcileDecision(slot.timestamp, slot.app, slot.generation, slot.previousStatus, slot.status,
+                Collections.unmodifiableList(slot.missing), slot.action, TimeUnit.NANOSECONDS.toMicros(slot.durationNanos));
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    private static final class Slot {
+        private long timestamp;
+        private String app;
+        private Long generation;
+        private String previousStatus;
+        private String status;
+        private List<String> missing;
+        private ReconcileDecision.Action action;
+        private long durationNanos;
+    }
+}
@@ -0,0 +1,35 @@
+package tech.jhipster.operator.app;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+ * Actuator endpoint for the reconcile journal
+ *  - /actuator/reconcile: the last decisions for all the apps, newest first
+ *  - /actuator/reconcile/{app}: the last decisions for one app
+ */
+@Component
+@Endpoint(id = "reconcile")
+public class ReconcileJournalEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    @Autowired
+    private ReconcileJournal reconcileJournal;
+
+    @ReadOperation
+    public List<ReconcileDecision> decisions(@Nullable Integer limit) {
+        return reconcileJournal.getDecisions(null, (limit == null) ? DEFAULT_LIMIT : limit);
+    }
+
+    @ReadOperation
+    public List<ReconcileDecision> appDecisions(@Selector String app, @Nullable Integer limit) {
+        return reconcileJournal.getDecisions(app, (limit == null) ? DEFAULT_LIMIT : limit);
+    }
+}
@@ -0,0 +1,173 @@
+package tech.jhipster.operator.app;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Retry queue of the apps whose reconcile or watch events failed, keyed by app name
+ *  - Each failing app is retried on its own schedule, with exponential backoff and jitter up to a max delay, so a
+ *    persistent failure in one app doesn't hit the K8s API Server on every reconcile pass
+ *  - The healthy apps are not affected, reconcile only skips the apps that are waiting for their retry
+ *  - The retry is scheduled here and runs the work given by the caller, on a single thread
+ */
+@Service
+public class ReconcileRetries {
+
+    private Logger logger = LoggerFactory.getLogger(ReconcileRetries.class);
+
+    @Value("${jhipster.operator.reconcile.retry.initial-delay:1000}")
+    private long initialDelay;
+    @Value("${jhipster.operator.reconcile.retry.max-delay:300000}")
+    private long maxDelay;
+    @Value("${jhipster.operator.reconcile.retry.jitter:0.2}")
+    private double jitter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // App Name -> Retry
+    private Map<String, ReconcileRetry> retries = new HashMap<>();
+
+    private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private Counter retriesCounter;
+
+    @PostConstruct
+    public void init() {
+        retriesCounter = meterRegistry.counter("jhipster.operator.reconcile.retries");
+        Gauge.builder("jhipster.operator.reconcile.failing", this, ReconcileRetries::size)
+                .register(meterRegistry);
+        Gauge.builder("jhipster.operator.reconcile.oldest-failure", this, ReconcileRetries::getOldestFailureSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /*
+     * Record a failure of an app and schedule the retry
+     *  - reload: the app has to be loaded again, it failed while its resources were being added to memory
+     *  - A retry that was already scheduled for the app is replaced
+     */
+    public synchronized void failed(String app, String error, boolean reload, Runnable retry) {
+        long now = System.nanoTime();
+        ReconcileRetry state = retries.computeIfAbsent(app, key -> new ReconcileRetry(key, now));
+        long delay = ReconcileRetry.backoff(state.getFailures() + 1, initialDelay, maxDelay);
+        // Jitter only shortens the delay, so the max delay holds
+        long jittered = (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+        state.failed(error, reload, now + TimeUnit.MILLISECONDS.toNanos(jittered));
+        if (state.getScheduled() != null) {
+            state.getScheduled().cancel(false);
+        }
+        // A pass can still be running while the operator shuts down, there is nothing to retry then
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        state.setScheduled(scheduler.schedule(() -> {
+            retriesCounter.increment();
+            retry.run();
+        }, jittered, TimeUnit.MILLISECONDS));
+        if (state.getFailures() == 1) {
+            logger.warn("> App: " + app + " failed, retrying in " + jittered + "ms: " + error);
+        } else {
+            logger.debug("> App: " + app + " failed " + state.getFailures() + " times in a row, retrying in " + jittered + "ms: " + error);
+        }
+    }
+
+    /*
+     * The app was reconciled or loaded again, it is back to the regular passes
+     */
+    public synchronized void succeeded(String app) {
+        ReconcileRetry state = retries.remove(app);
+        if (state != null) {
+            cancel(state);
+            logger.info("> App: " + app + " recovered after " + state.getFailures() + " failures");
+        }
+    }
+
+    /*
+     * Reconcile can check the app: it isn't waiting for its retry or to be loaded again
+     */
+    public synchronized boolean isDue(String app) {
+        ReconcileRetry state = retries.get(app);
+        return state == null || (!state.isReload() && state.isDue(System.nanoTime()));
+    }
+
+    public synchronized boolean needsReload(String app) {
+        ReconcileRetry state = retries.get(app);
+        return state != null && state.isReload();
+    }
+
+    /*
+     * Drop the retries of the apps that are gone
+     */
+    public synchronized void retainAll(Set<String> apps) {
+        retries.values().removeIf(state -> {
+            if (apps.contains(state.getApp())) {
+                return false;
+            }
+            cancel(state);
+            return true;
+        });
+    }
+
+    public synchronized void forget(String app) {
+        ReconcileRetry state = retries.remove(app);
+        if (state != null) {
+            cancel(state);
+        }
+    }
+
+    private void cancel(ReconcileRetry state) {
+        if (state.getScheduled() != null) {
+            state.getScheduled().cancel(false);
+        }
+    }
+
+    public synchronized int size() {
+        return retries.size();
+    }
+
+    /*
+     * Failing apps, the ones failing for the longest time first
+     */
+    public synchronized List<ReconcileRetry> getRetries() {
+        List<ReconcileRetry> failing = new ArrayList<>(retries.values());
+        failing.sort((a, b) -> Long.signum(a.getFirstFailure() - b.getFirstFailure()));
+        return failing;
+    }
+
+    public synchronized double getOldestFailureSeconds() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (ReconcileRetry state : retries.values()) {
+            oldest = Math.max(oldest, now - state.getFirstFailure());
+        }
+        return oldest / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public long getRetryCount() {
+        return (long) retriesCounter.count();
+    }
+}
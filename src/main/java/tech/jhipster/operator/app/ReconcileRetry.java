@@ -0,0 +1,82 @@
+package tech.jhipster.operator.app;
+
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * Retry state of an app whose reconcile, or the handling of a watch event for it, failed
+ *  - The delay doubles with each failure in a row, up to the max delay
+ *  - An app that failed in a watch handler may be missing resources in memory, it has to be loaded again before
+ *    it can be reconciled (reload), whatever fails next
+ *  - Times are System.nanoTime() values
+ */
+public class ReconcileRetry {
+
+    private final String app;
+    private final long firstFailure;
+    private int failures = 0;
+    private long nextAttempt;
+    private boolean reload = false;
+    private String lastError;
+    private ScheduledFuture<?> scheduled;
+
+    public ReconcileRetry(String app, long now) {
+        this.app = app;
+        this.firstFailure = now;
+        this.nextAttempt = now;
+    }
+
+    /*
+     * Delay before the next attempt after some failures in a row, without jitter
+     */
+    public static long backoff(int failures, long initialDelay, long maxDelay) {
+        if (failures <= 0) {
+            return 0;
+        }
+        // Past 2^30 it overflows, and the max delay is reached long before
+        long delay = initialDelay << Math.min(failures - 1, 30);
+        return (delay <= 0 || delay > maxDelay) ? maxDelay : delay;
+    }
+
+    public void failed(String error, boolean reload, long nextAttempt) {
+        this.failures++;
+        this.lastError = error;
+        this.reload |= reload;
+        this.nextAttempt = nextAttempt;
+    }
+
+    public boolean isDue(long now) {
+        return now - nextAttempt >= 0;
+    }
+
+    public String getApp() {
+        return app;
+    }
+
+    public long getFirstFailure() {
+        return firstFailure;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public long getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public boolean isReload() {
+        return reload;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    ScheduledFuture<?> getScheduled() {
+        return scheduled;
+    }
+
+    void setScheduled(ScheduledFuture<?> scheduled) {
+        this.scheduled = scheduled;
+    }
+}
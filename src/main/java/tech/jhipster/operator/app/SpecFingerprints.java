@@ -0,0 +1,98 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.CustomService;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Fingerprint of the part of each resource that the operator uses, to know if a MODIFIED event changed anything
+ *  - Status writes (most of the MODIFIED events, a lot of them our own) and metadata changes keep the same fingerprint
+ *  - Apps: version, selector, modules and rate limit. The services bound to an app come from the services, not from here
+ *  - Services: the spec and the app label, because the label says to which app they are bound
+ *  - Fingerprints never leave this process, so it is fine to build them from hashCode()
+ */
+public class SpecFingerprints {
+
+    private final Map<String, Seen> seen = new ConcurrentHashMap<>();
+
+    /*
+     * True if the resource was never seen or its fingerprint is not the one that was recorded last time
+     */
+    public boolean changed(HasMetadata resource) {
+        Seen last = seen.get(key(resource));
+        return last == null || last.fingerprint != fingerprint(resource);
+    }
+
+    /*
+     * Record the fingerprint of the resource, returns the app label that it had the last time (null if never seen)
+     */
+    public String record(HasMetadata resource) {
+        Seen last = seen.put(key(resource), new Seen(fingerprint(resource), appLabel(resource)));
+        return (last == null) ? null : last.app;
+    }
+
+    public void forget(HasMetadata resource) {
+        seen.remove(key(resource));
+    }
+
+    public void clear() {
+        seen.clear();
+    }
+
+    public int size() {
+        return seen.size();
+    }
+
+    static long fingerprint(HasMetadata resource) {
+        if (resource instanceof Application) {
+            return fingerprint(((Application) resource).getSpec());
+        }
+        if (resource instanceof CustomService) {
+            CustomService service = (CustomService) resource;
+            return 31L * Objects.hashCode(service.getSpec()) + Objects.hashCode(appLabel(service));
+        }
+        return 0;
+    }
+
+    private static long fingerprint(ApplicationSpec spec) {
+        if (spec == null) {
+            return 0;
+        }
+        List<String> modules = new ArrayList<>();
+        if (spec.getAppDefinition() != null && spec.getAppDefinition().getModules() != null) {
+            for (JHipsterModuleDefinition module : spec.getAppDefinition().getModules()) {
+                modules.add(module.getName() + ":" + module.getType() + ":" + module.getPort());
+            }
+        }
+        // The modules are a Set, sort them so the order in the resource doesn't matter
+        modules.sort(null);
+        return 31L * Objects.hash(spec.getVersion(), spec.getSelector(), spec.getRateLimit()) + modules.hashCode();
+    }
+
+    private static String appLabel(HasMetadata resource) {
+        Map<String, String> labels = resource.getMetadata().getLabels();
+        return (labels == null) ? null : labels.get("app");
+    }
+
+    private static String key(HasMetadata resource) {
+        return resource.getClass().getSimpleName() + "/" + resource.getMetadata().getNamespace() + "/" + resource.getMetadata().getName();
+    }
+
+    private static final class Seen {
+        private final long fingerprint;
+        private final String app;
+
+        private Seen(long fingerprint, String app) {
+            this.fingerprint = fingerprint;
+            this.app = app;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package tech.jhipster.operator.app;
+
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.crds.app.RateLimitSpec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * State of the operator that is saved to disk, so it can start serving routes right away after a restart
+ *  - Apps with their bindings and health, the route table, the route rate limits and the last resourceVersion of each kind
+ *  - Binary format: every field is written in a fixed order, strings are length prefixed UTF-8 (-1 for null)
+ */
+public class StateSnapshot {
+
+    public static final String APPLICATIONS = "applications";
+    public static final String MICROSERVICES = "microservices";
+    public static final String GATEWAYS = "gateways";
+    public static final String REGISTRIES = "registries";
+
+    private final long createdAt;
+    private final Map<String, String> resourceVersions;
+    private final List<AppState> apps;
+    private final List<RouteDefinition> routes;
+    private final Map<String, RateLimitSpec> routeRateLimits;
+
+    public StateSnapshot(long createdAt, Map<String, String> resourceVersions, List<AppState> apps, List<RouteDefinition> routes,
+                         Map<String, RateLimitSpec> routeRateLimits) {
+        this.createdAt = createdAt;
+        this.resourceVersions = Collections.unmodifiableMap(new LinkedHashMap<>(resourceVersions));
+        this.apps = Collections.unmodifiableList(new ArrayList<>(apps));
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+        this.routeRateLimits = Collections.unmodifiableMap(new LinkedHashMap<>(routeRateLimits));
+    }
+
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096 + apps.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(createdAt);
+        out.writeInt(resourceVersions.size());
+        for (Map.Entry<String, String> version : resourceVersions.entrySet()) {
+            writeString(out, version.getKey());
+            writeString(out, version.getValue());
+        }
+        out.writeInt(apps.size());
+        for (AppState app : apps) {
+            writeApp(out, app);
+        }
+        out.writeInt(routes.size());
+        for (RouteDefinition route : routes) {
+            writeRoute(out, route);
+        }
+        out.writeInt(routeRateLimits.size());
+        for (Map.Entry<String, RateLimitSpec> limit : routeRateLimits.entrySet()) {
+            writeString(out, limit.getKey());
+            writeRateLimit(out, limit.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static StateSnapshot decode(ByteBuffer in) {
+        long createdAt = in.getLong();
+        Map<String, String> resourceVersions = new LinkedHashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            resourceVersions.put(readString(in), readString(in));
+        }
+        List<AppState> apps = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            apps.add(readApp(in));
+        }
+        List<RouteDefinition> routes = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            routes.add(readRoute(in));
+        }
+        Map<String, RateLimitSpec> routeRateLimits = new LinkedHashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            routeRateLimits.put(readString(in), readRateLimit(in));
+        }
+        return new StateSnapshot(createdAt, resourceVersions, apps, routes, routeRateLimits);
+    }
+
+    private static void writeApp(DataOutputStream out, AppState app) throws IOException {
+        writeString(out, app.getName());
+        writeString(out, app.getNamespace());
+        writeString(out, app.getResourceVersion());
+        out.writeLong(AppState.toLong(app.getGeneration()));
+        writeString(out, app.getVersion());
+        writeString(out, app.getSelector());
+        out.writeInt(app.getModuleCount());
+        for (int i = 0; i < app.getModuleCount(); i++) {
+            writeString(out, app.getModuleName(i));
+            writeString(out, app.getModuleType(i));
+        }
+        out.writeInt(app.getMicroservices().size());
+        for (MicroServiceDescr microService : app.getMicroservices()) {
+            writeString(out, microService.getName());
+            writeString(out, microService.getKind());
+            writeString(out, microService.getServiceName());
+        }
+        writeString(out, app.getRegistry());
+        writeString(out, app.getGateway());
+        writeString(out, app.getStatus());
+        writeString(out, app.getUrl());
+        out.writeLong(AppState.toLong(app.getObservedGeneration()));
+        writeRateLimit(out, app.getRateLimit());
+    }
+
+    private static AppState readApp(ByteBuffer in) {
+        String name = StringPool.intern(readString(in));
+        String namespace = StringPool.intern(readString(in));
+        String resourceVersion = readString(in);
+        long generation = in.getLong();
+        String version = StringPool.intern(readString(in));
+        String selector = StringPool.intern(readString(in));
+        String[] moduleNames = new String[in.getInt()];
+        String[] moduleTypes = new String[moduleNames.length];
+        for (int i = 0; i < moduleNames.length; i++) {
+            moduleNames[i] = StringPool.intern(readString(in));
+            moduleTypes[i] = StringPool.intern(readString(in));
+        }
+        MicroServiceDescr[] microservices = new MicroServiceDescr[in.getInt()];
+        for (int i = 0; i < microservices.length; i++) {
+            microservices[i] = new MicroServiceDescr(StringPool.intern(readString(in)), StringPool.intern(readString(in)),
+                    StringPool.intern(readString(in)));
+        }
+        String registry = StringPool.intern(readString(in));
+        String gateway = StringPool.intern(readString(in));
+        String status = StringPool.intern(readString(in));
+        String url = readString(in);
+        long observedGeneration = in.getLong();
+        RateLimitSpec rateLimit = readRateLimit(in);
+        return new AppState(name, namespace, resourceVersion, generation, version, selector, moduleNames, moduleTypes,
+                microservices, registry, gateway, status, url, observedGeneration, rateLimit);
+    }
+
+    private static void writeRoute(DataOutputStream out, RouteDefinition route) throws IOException {
+        writeString(out, route.getId());
+        writeString(out, (route.getUri() == null) ? null : route.getUri().toString());
+        out.writeInt(route.getOrder());
+        out.writeInt(route.getPredicates().size());
+        for (PredicateDefinition predicate : route.getPredicates()) {
+            writeString(out, predicate.getName());
+            writeArgs(out, predicate.getArgs());
+        }
+        out.writeInt(route.getFilters().size());
+        for (FilterDefinition filter : route.getFilters()) {
+            writeString(out, filter.getName());
+            writeArgs(out, filter.getArgs());
+        }
+    }
+
+    private static RouteDefinition readRoute(ByteBuffer in) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(readString(in));
+        String uri = readString(in);
+        route.setUri((uri == null) ? null : URI.create(uri));
+        route.setOrder(in.getInt());
+        List<PredicateDefinition> predicates = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            PredicateDefinition predicate = new PredicateDefinition();
+            predicate.setName(readString(in));
+            predicate.setArgs(readArgs(in));
+            predicates.add(predicate);
+        }
+        route.setPredicates(predicates);
+        List<FilterDefinition> filters = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            FilterDefinition filter = new FilterDefinition();
+            filter.setName(readString(in));
+            filter.setArgs(readArgs(in));
+            filters.add(filter);
+        }
+        route.setFilters(filters);
+        return route;
+    }
+
+    private static void writeArgs(DataOutputStream out, Map<String, String> args) throws IOException {
+        out.writeInt(args.size());
+        for (Map.Entry<String, String> arg : args.entrySet()) {
+            writeString(out, arg.getKey());
+            writeString(out, arg.getValue());
+        }
+    }
+
+    private static Map<String, String> readArgs(ByteBuffer in) {
+        Map<String, String> args = new LinkedHashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            args.put(readString(in), readString(in));
+        }
+        return args;
+    }
+
+    private static void writeRateLimit(DataOutputStream out, RateLimitSpec rateLimit) throws IOException {
+        out.writeBoolean(rateLimit != null);
+        if (rateLimit != null) {
+            out.writeDouble((rateLimit.getReplenishRate() == null) ? Double.NaN : rateLimit.getReplenishRate());
+            out.writeInt((rateLimit.getBurstCapacity() == null) ? -1 : rateLimit.getBurstCapacity());
+            writeString(out, rateLimit.getKeyResolver());
+        }
+    }
+
+    private static RateLimitSpec readRateLimit(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        RateLimitSpec rateLimit = new RateLimitSpec();
+        double replenishRate = in.getDouble();
+        rateLimit.setReplenishRate(Double.isNaN(replenishRate) ? null : replenishRate);
+        int burstCapacity = in.getInt();
+        rateLimit.setBurstCapacity((burstCapacity < 0) ? null : burstCapacity);
+        rateLimit.setKeyResolver(readString(in));
+        return rateLimit;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Map<String, String> getResourceVersions() {
+        return resourceVersions;
+    }
+
+    public List<AppState> getApps() {
+        return apps;
+    }
+
+    public List<RouteDefinition> getRoutes() {
+        return routes;
+    }
+
+    public Map<String, RateLimitSpec> getRouteRateLimits() {
+        return routeRateLimits;
+    }
+}
@@ -0,0 +1,179 @@
+package tech.jhipster.operator.app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.routes.LocalRateLimits;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/*
+ * Keeps a snapshot of the operator state in a local file (or an emptyDir volume), so a restarted operator can serve
+ *   the routes right away instead of returning 404 until everything is listed and checked again
+ *  - The file is written to a temp file with memory mapped I/O and then moved over the old one, so a crash never
+ *    leaves a half written snapshot behind
+ *  - Header: magic, format version, payload length and CRC32 of the payload. Bad or old files are ignored
+ *  - Disabled when jhipster.operator.snapshot.path is empty
+ */
+@Service
+public class StateSnapshots {
+
+    private static final int MAGIC = 0x4A484F53; // JHOS
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    private Logger logger = LoggerFactory.getLogger(StateSnapshots.class);
+
+    @Value("${jhipster.operator.snapshot.path:}")
+    private String path;
+
+    @Autowired
+    private AppService appService;
+
+    @Autowired
+    private LocalRateLimits localRateLimits;
+
+    @Autowired
+    private StatusFlusher statusFlusher;
+
+    // Routes built the last time that the route table was refreshed
+    private volatile List<RouteDefinition> routes = Collections.emptyList();
+
+    // Snapshot loaded on startup, until the operator takes over with live watches
+    private volatile StateSnapshot restored;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            logger.info("> No state snapshot found at " + file + ", the operator will start from scratch");
+            return;
+        }
+        try {
+            restored = read(file);
+            logger.info("> State snapshot restored from " + file + " (apps: " + restored.getApps().size()
+                    + ", routes: " + restored.getRoutes().size() + ", versions: " + restored.getResourceVersions() + ")");
+        } catch (IOException | RuntimeException e) {
+            logger.error("> State snapshot at " + file + " can't be used, the operator will start from scratch: " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return path != null && !path.isEmpty();
+    }
+
+    /*
+     * Write the current state with the resourceVersions that were seen before it was read
+     *  - Taking the versions first means that the watches may replay some events, that is fine because they are idempotent
+     *  - The apps whose status is not written yet are saved without observedGeneration (read after the apps, their
+     *    status changes before it is submitted), so the first reconcile after the restart writes their status again
+     */
+    public void save(Map<String, String> resourceVersions) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<AppState> apps = new ArrayList<>(appService.getAppsMap().values());
+        Set<String> unwritten = statusFlusher.getPendingApps();
+        apps.replaceAll(app -> unwritten.contains(app.getName()) ? app.withStatus(app.getStatus(), app.getUrl(), null) : app);
+        StateSnapshot snapshot = new StateSnapshot(System.currentTimeMillis(), resourceVersions, apps, routes,
+                localRateLimits.getRouteLimits());
+        Path file = Paths.get(path);
+        try {
+            write(file, snapshot);
+            logger.debug(">> State snapshot saved to " + file + " (apps: " + snapshot.getApps().size() + ", routes: " + snapshot.getRoutes().size() + ")");
+        } catch (IOException e) {
+            logger.error("> State snapshot couldn't be saved to " + file + ": " + e.getMessage());
+        }
+    }
+
+    static void write(Path file, StateSnapshot snapshot) throws IOException {
+        byte[] payload = snapshot.encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payload.length);
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(payload.length);
+            buffer.putLong(crc.getValue());
+            buffer.put(payload);
+            buffer.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static StateSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("file too small");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a state snapshot");
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("unsupported format version " + formatVersion);
+            }
+            int length = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("truncated file");
+            }
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("checksum mismatch");
+            }
+            try {
+                return StateSnapshot.decode(payload);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("corrupted payload");
+            }
+        }
+    }
+
+    public void setRoutes(List<RouteDefinition> routes) {
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+    }
+
+    public StateSnapshot getRestored() {
+        return restored;
+    }
+
+    /*
+     * Once the operator is in sync with the cluster the restored state is not needed anymore
+     */
+    public void clearRestored() {
+        restored = null;
+    }
+}
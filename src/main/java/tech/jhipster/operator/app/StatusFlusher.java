@@ -0,0 +1,327 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationList;
+import tech.jhipster.operator.crds.app.DoneableApplication;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Write-behind of the Application status: reconcile changes the status in memory and the writes happen here
+ *  - Changes are flushed after a short window, all the changes of an app within it end up in one write of its
+ *    latest state (i.e. a burst of health flips when a shared registry restarts)
+ *  - Writes run on a fixed pool, that's the max number of status writes in flight against the API Server
+ *  - Conflicts (409) are retried with the latest resourceVersion, other failures are retried with backoff
+ *    until they succeed or the app is gone
+ *  - Submitting never blocks, reconcile and the watches don't wait for the API Server
+ */
+@Service
+public class StatusFlusher {
+
+    private Logger logger = LoggerFactory.getLogger(StatusFlusher.class);
+
+    @Value("${jhipster.operator.status.flush-window:200}")
+    private long flushWindow;
+    @Value("${jhipster.operator.status.concurrency:4}")
+    private int concurrency;
+    @Value("${jhipster.operator.status.conflict-retries:3}")
+    private int conflictRetries;
+    @Value("${jhipster.operator.status.drain-timeout:5000}")
+    private long drainTimeout;
+    @Value("${jhipster.operator.reconcile.retry.initial-delay:1000}")
+    private long initialDelay;
+    @Value("${jhipster.operator.reconcile.retry.max-delay:300000}")
+    private long maxDelay;
+    @Value("${jhipster.operator.reconcile.retry.jitter:0.2}")
+    private double jitter;
+
+    @Autowired
+    private AppService appService;
+
+    @Autowired
+    private K8SCoreRuntime k8SCoreRuntime;
+
+    @Autowired
+    private OwnWrites ownWrites;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile CustomResourceDefinition applicationCRD;
+    private NonNamespaceOperation<Application, ApplicationList, DoneableApplication, Resource<Application, DoneableApplication>> appCRDClient;
+
+    // App Name -> Status waiting to be written
+    private Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private ExecutorService writers;
+    private AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private Counter written;
+    private Counter conflicts;
+    private Counter failed;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        writers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        written = meterRegistry.counter("jhipster.operator.status.writes", "result", "written");
+        conflicts = meterRegistry.counter("jhipster.operator.status.writes", "result", "conflict");
+        failed = meterRegistry.counter("jhipster.operator.status.writes", "result", "failed");
+        coalesced = meterRegistry.counter("jhipster.operator.status.coalesced");
+        Gauge.builder("jhipster.operator.status.pending", pending, Map::size)
+                .register(meterRegistry);
+    }
+
+    /*
+     * Write what is still pending before the operator goes away, a status that only changed in memory would be
+     * restored from the state snapshot as if it was written
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (applicationCRD != null) {
+            pending.forEach((appName, status) -> {
+                if (!status.inFlight) {
+                    writers.submit(() -> write(appName));
+                }
+            });
+        }
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(drainTimeout, TimeUnit.MILLISECONDS)) {
+                logger.warn("> " + pending.size() + " Application status writes were not flushed before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Writes start once the Application CRD is known
+     */
+    public void start(CustomResourceDefinition applicationCRD) {
+        appCRDClient = k8SCoreRuntime.customResourcesClient(applicationCRD, Application.class, ApplicationList.class, DoneableApplication.class).inNamespace(k8SCoreRuntime.getNamespace());
+        this.applicationCRD = applicationCRD;
+        scheduleFlush(flushWindow);
+    }
+
+    /*
+     * The status of the app changed in memory, write it soon
+     */
+    public void submit(String appName) {
+        pending.compute(appName, (name, status) -> {
+            if (status == null) {
+                return new Pending();
+            }
+            coalesced.increment();
+            status.version++;
+            return status;
+        });
+        scheduleFlush(flushWindow);
+    }
+
+    public void forget(String appName) {
+        pending.remove(appName);
+    }
+
+    /*
+     * Write what is pending right away, without waiting for the flush window or the backoff, and wait for the writes
+     *  - Returns true if nothing is left to write, false if a write failed or they didn't finish in time
+     */
+    public boolean drain() {
+        if (applicationCRD == null) {
+            return pending.isEmpty();
+        }
+        long now = System.nanoTime();
+        for (String appName : pending.keySet()) {
+            startWrite(appName, now, true);
+        }
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(drainTimeout);
+        while (pending.values().stream().anyMatch(status -> status.inFlight) && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return pending.isEmpty();
+    }
+
+    /*
+     * Apps whose status changed in memory and is not written yet
+     */
+    public Set<String> getPendingApps() {
+        return new HashSet<>(pending.keySet());
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getWrittenCount() {
+        return (long) written.count();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalesced.count();
+    }
+
+    public long getFailedCount() {
+        return (long) failed.count();
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        // After shutdown, what is left is written by shutdown itself
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * Start the writes that are due, an app is never written by two writers at the same time
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (applicationCRD == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long nextDue = Long.MAX_VALUE;
+        for (String appName : pending.keySet()) {
+            if (startWrite(appName, now, false)) {
+                continue;
+            }
+            Pending status = pending.get(appName);
+            if (status != null && !status.inFlight) {
+                nextDue = Math.min(nextDue, status.notBefore - now);
+            }
+        }
+        if (nextDue != Long.MAX_VALUE) {
+            scheduleFlush(Math.max(flushWindow, TimeUnit.NANOSECONDS.toMillis(nextDue)));
+        }
+    }
+
+    /*
+     * Start the write of the app unless it is in flight or (without force) backing off, returns true if it started
+     */
+    private boolean startWrite(String appName, long now, boolean force) {
+        boolean[] start = new boolean[1];
+        pending.computeIfPresent(appName, (name, current) -> {
+            if (!current.inFlight && (force || now - current.notBefore >= 0)) {
+                current.inFlight = true;
+                start[0] = true;
+            }
+            return current;
+        });
+        if (start[0]) {
+            writers.submit(() -> write(appName));
+        }
+        return start[0];
+    }
+
+    /*
+     * Write the latest state of the app, the changes that arrive meanwhile leave it pending for the next flush
+     */
+    private void write(String appName) {
+        Pending status = pending.get(appName);
+        if (status == null) {
+            return;
+        }
+        int version = status.version;
+        boolean done;
+        try {
+            done = writeStatus(appName);
+        } catch (RuntimeException e) {
+            failed.increment();
+            done = false;
+            int failures = ++status.failures;
+            long delay = ReconcileRetry.backoff(failures, initialDelay, maxDelay);
+            long jittered = (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+            status.notBefore = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(jittered);
+            logger.error("> Status for App: " + appName + " couldn't be updated (" + failures + " failures), retrying in " + jittered + "ms: " + e.getMessage());
+        }
+        boolean finished = done;
+        Pending left = pending.computeIfPresent(appName, (name, current) -> {
+            current.inFlight = false;
+            if (finished) {
+                current.failures = 0;
+            }
+            return (finished && current.version == version) ? null : current;
+        });
+        if (left != null) {
+            scheduleFlush(flushWindow);
+        }
+    }
+
+    /*
+     * Write the status subresource, retrying with the latest resourceVersion while somebody else updates the app
+     *  - Returns true when there is nothing left to write, also when the app is gone
+     */
+    private boolean writeStatus(String appName) {
+        AppState app = appService.getApp(appName);
+        if (app == null) {
+            return true;
+        }
+        Application stored = null;
+        for (int attempt = 0; stored == null; attempt++) {
+            try {
+                stored = k8SCoreRuntime.updateStatus(applicationCRD, app.toApplication(), Application.class, ApiPriority.LOW);
+            } catch (KubernetesClientException e) {
+                if (e.getCode() != 409 || attempt >= conflictRetries) {
+                    throw e;
+                }
+                conflicts.increment();
+                Application latest = k8SCoreRuntime.call(ApiPriority.LOW, () -> appCRDClient.withName(appName).get());
+                app = appService.getApp(appName);
+                if (latest == null || app == null) {
+                    return true;
+                }
+                app = app.withResourceVersion(latest.getMetadata().getResourceVersion());
+            }
+        }
+        written.increment();
+        ownWrites.record(stored);
+        String resourceVersion = stored.getMetadata().getResourceVersion();
+        appService.updateApp(appName, a -> a.withResourceVersion(resourceVersion));
+        return true;
+    }
+
+    private static final class Pending {
+        // Changes submitted while the app was pending, a write only clears the version that it read
+        private volatile int version = 0;
+        private volatile boolean inFlight = false;
+        private volatile int failures = 0;
+        private volatile long notBefore = System.nanoTime();
+    }
+}
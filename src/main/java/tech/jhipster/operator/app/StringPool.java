@@ -0,0 +1,21 @@
+package tech.jhipster.operator.app;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/*
+ * Canonical instances of the strings kept in the in memory state (kinds, names, service names, status)
+ *  - The same value read from different resources or events ends up being one String
+ *  - Weak references, so values that are not used anymore can be collected
+ */
+final class StringPool {
+
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    private StringPool() {
+    }
+
+    static String intern(String value) {
+        return (value == null) ? null : STRINGS.intern(value);
+    }
+}
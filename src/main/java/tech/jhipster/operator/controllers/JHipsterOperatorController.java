@@ -3,9 +3,12 @@ package tech.jhipster.operator.controllers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.operator.AppsOperator;
+import tech.jhipster.operator.app.AppDeletion;
 import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.jdl.JDLDiff;
 import tech.jhipster.operator.jdl.JDLParser;
 import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
 
@@ -35,10 +38,34 @@ public class JHipsterOperatorController {
         appsOperator.newApp(appDefinition);
     }
 
+    @PutMapping("/apps/{appName}")
+    public ResponseEntity<JDLDiff> updateJHipsterApp(@PathVariable String appName, @RequestBody NewJHipsterAppRequest request) {
+        JHipsterApplicationDefinition appDefinition = JDLParser.parse(appName, request.getVersion(), request.getAppJDLContent());
+        logger.info("> Updating Application: " + appName);
+        JDLDiff diff = appsOperator.updateApp(appDefinition);
+        if (diff == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(diff);
+    }
+
     @DeleteMapping("/apps/{appName}")
-    public void deleteJHipsterApp(@PathVariable String appName) {
+    public ResponseEntity<AppDeletion> deleteJHipsterApp(@PathVariable String appName) {
         logger.info("> Deleting Application: " + appName);
-        appsOperator.deleteApp(appName);
+        AppDeletion deletion = appsOperator.deleteApp(appName);
+        if (deletion == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().body(deletion);
+    }
+
+    @GetMapping("/apps/{appName}/deletion")
+    public ResponseEntity<AppDeletion> appDeletion(@PathVariable String appName) {
+        AppDeletion deletion = appsOperator.getAppDeletion(appName);
+        if (deletion == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deletion);
     }
 
 
@@ -0,0 +1,14 @@
+package tech.jhipster.operator.core;
+
+/*
+ * Priority classes for the calls that the operator does against the K8s API Server
+ *  - Each class has its own token bucket, so a big reconcile pass can't starve watch driven work
+ */
+public enum ApiPriority {
+    // Watch driven binding, deletes and requests coming from the operator REST API
+    HIGH,
+    // Reads done by the reconcile loop and the routes locator
+    NORMAL,
+    // Periodic status writes
+    LOW
+}
@@ -0,0 +1,129 @@
+package tech.jhipster.operator.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.tracing.Span;
+import tech.jhipster.operator.tracing.Tracer;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/*
+ * Client side budget for the calls to the K8s API Server
+ *  - There is one token bucket per priority class, so big reconcile passes don't delay watch driven work
+ *  - Every call done with K8SCoreRuntime or the CRD clients should go through here
+ */
+@Service
+public class ApiRequestBudget {
+
+    private Logger logger = LoggerFactory.getLogger(ApiRequestBudget.class);
+
+    @Value("${jhipster.operator.api.high.qps:20}")
+    private double highQps;
+    @Value("${jhipster.operator.api.high.burst:40}")
+    private int highBurst;
+    @Value("${jhipster.operator.api.normal.qps:10}")
+    private double normalQps;
+    @Value("${jhipster.operator.api.normal.burst:20}")
+    private int normalBurst;
+    @Value("${jhipster.operator.api.low.qps:5}")
+    private double lowQps;
+    @Value("${jhipster.operator.api.low.burst:10}")
+    private int lowBurst;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    private Map<ApiPriority, TokenBucket> buckets = new EnumMap<>(ApiPriority.class);
+    private Map<ApiPriority, Counter> requests = new EnumMap<>(ApiPriority.class);
+    private Map<ApiPriority, Counter> throttled = new EnumMap<>(ApiPriority.class);
+    private Map<ApiPriority, Timer> waits = new EnumMap<>(ApiPriority.class);
+
+    @PostConstruct
+    public void init() {
+        buckets.put(ApiPriority.HIGH, new TokenBucket(highQps, highBurst));
+        buckets.put(ApiPriority.NORMAL, new TokenBucket(normalQps, normalBurst));
+        buckets.put(ApiPriority.LOW, new TokenBucket(lowQps, lowBurst));
+        for (ApiPriority priority : ApiPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            requests.put(priority, meterRegistry.counter("jhipster.operator.api.requests", "priority", tag));
+            throttled.put(priority, meterRegistry.counter("jhipster.operator.api.throttled", "priority", tag));
+            waits.put(priority, meterRegistry.timer("jhipster.operator.api.wait", "priority", tag));
+            Gauge.builder("jhipster.operator.api.tokens", buckets.get(priority), TokenBucket::getAvailableTokens)
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /*
+     * Block the calling thread until a permit for the priority class is available
+     */
+    public void acquire(ApiPriority priority) {
+        long waitNanos = buckets.get(priority).reserve();
+        requests.get(priority).increment();
+        if (waitNanos > 0) {
+            throttled.get(priority).increment();
+            logger.debug(">> API call with priority " + priority + " throttled for " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + "ms");
+            long deadline = System.nanoTime() + waitNanos;
+            long remaining = waitNanos;
+            while (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        waits.get(priority).record(waitNanos, TimeUnit.NANOSECONDS);
+        Span span = tracer.current();
+        if (span != null && waitNanos > 0) {
+            span.setAttribute("throttled.ms", TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    /*
+     * Each call is traced, including the time spent waiting for the budget
+     */
+    public <T> T call(ApiPriority priority, Supplier<T> apiCall) {
+        try (Span span = tracer.start("k8s.api")) {
+            span.setAttribute("priority", priority);
+            acquire(priority);
+            try {
+                return apiCall.get();
+            } catch (RuntimeException e) {
+                span.error(e);
+                throw e;
+            }
+        }
+    }
+
+    public void run(ApiPriority priority, Runnable apiCall) {
+        call(priority, () -> {
+            apiCall.run();
+            return null;
+        });
+    }
+
+    public double getAvailableTokens(ApiPriority priority) {
+        return buckets.get(priority).getAvailableTokens();
+    }
+
+    public long getRequestCount(ApiPriority priority) {
+        return (long) requests.get(priority).count();
+    }
+
+    public long getThrottledCount(ApiPriority priority) {
+        return (long) throttled.get(priority).count();
+    }
+}
@@ -1,20 +1,41 @@
 package tech.jhipster.operator.core;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionList;
+import io.fabric8.kubernetes.client.CustomResourceList;
+import io.fabric8.kubernetes.client.HttpClientAware;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import io.fabric8.kubernetes.internal.KubernetesDeserializer;
 import me.snowdrop.istio.client.IstioClient;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import tech.jhipster.operator.tracing.Span;
+import tech.jhipster.operator.tracing.Tracer;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLEncoder;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class K8SCoreRuntime {
@@ -25,9 +46,19 @@ public class K8SCoreRuntime {
     private KubernetesClient kubernetesClient;
     @Autowired
     private IstioClient istioClient;
+    @Autowired
+    private ApiRequestBudget apiRequestBudget;
+    @Autowired
+    private Tracer tracer;
 
     private String externalIP = "N/A";
 
+    // K8s Services in the namespace -> resourceVersion, kept up to date by the services watch
+    private Map<String, String> servicesVersions = new ConcurrentHashMap<>();
+    private Map<String, List<ServicePort>> servicesPorts = new ConcurrentHashMap<>();
+    private Map<String, Map<String, String>> servicesSelectors = new ConcurrentHashMap<>();
+    private volatile boolean servicesWatched = false;
+
     @PostConstruct
     public void init() {
         logger.error(">>> Current Namespace: " + kubernetesClient.getNamespace());
@@ -42,20 +73,243 @@ public class K8SCoreRuntime {
     }
 
     public boolean isServiceAvailable(String serviceName) {
+        return isServiceAvailable(serviceName, ApiPriority.NORMAL);
+    }
+
+    public boolean isServiceAvailable(String serviceName, ApiPriority priority) {
         //@TODO: i should check that the k8s deployment exist before adding the microservice
         //@TODO: i should update the k8s deployment to make sure that services are configured for the app
-        io.fabric8.kubernetes.api.model.Service service = kubernetesClient.services().withName(serviceName).get();
+        if (servicesWatched) {
+            if (servicesVersions.containsKey(serviceName)) {
+                return true;
+            }
+            logger.debug(">> K8s Service " + serviceName + " not found.");
+            return false;
+        }
+        io.fabric8.kubernetes.api.model.Service service = apiRequestBudget.call(priority, () -> kubernetesClient.services().withName(serviceName).get());
         if (service != null) {
             logger.debug(">> K8s Service " + serviceName + " found.");
             return true;
         }
-        logger.error(">> K8s Service " + serviceName + " not found.");
+        logger.debug(">> K8s Service " + serviceName + " not found.");
         return false;
 
     }
 
+    /*
+     * Watch the K8s Services of the namespace
+     *  - It keeps the resourceVersion of each service, so availability checks and change detection don't need API calls
+     *  - If the watch is closed we go back to ask the API Server until it is registered again
+     */
+    public void watchServices() {
+        if (servicesWatched) {
+            return;
+        }
+        ServiceList list = apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.services().list());
+        servicesVersions.clear();
+        servicesPorts.clear();
+        servicesSelectors.clear();
+        list.getItems().forEach(this::serviceUpdated);
+        kubernetesClient.services().withResourceVersion(list.getMetadata().getResourceVersion()).watch(new Watcher<io.fabric8.kubernetes.api.model.Service>() {
+            @Override
+            public void eventReceived(Action action, io.fabric8.kubernetes.api.model.Service service) {
+                if (action.equals(Action.DELETED)) {
+                    servicesVersions.remove(service.getMetadata().getName());
+                    servicesPorts.remove(service.getMetadata().getName());
+                    servicesSelectors.remove(service.getMetadata().getName());
+                } else if (action.equals(Action.ADDED) || action.equals(Action.MODIFIED)) {
+                    serviceUpdated(service);
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                logger.error(">> K8s Services watch closed: " + ((cause == null) ? "" : cause.getMessage()));
+                servicesWatched = false;
+            }
+        });
+        servicesWatched = true;
+        logger.info("> Watching " + servicesVersions.size() + " K8s Services");
+    }
+
+    private void serviceUpdated(io.fabric8.kubernetes.api.model.Service service) {
+        servicesVersions.put(service.getMetadata().getName(), service.getMetadata().getResourceVersion());
+        if (service.getSpec() != null && service.getSpec().getPorts() != null) {
+            servicesPorts.put(service.getMetadata().getName(), service.getSpec().getPorts());
+        }
+        if (service.getSpec() != null && service.getSpec().getSelector() != null) {
+            servicesSelectors.put(service.getMetadata().getName(), service.getSpec().getSelector());
+        } else {
+            servicesSelectors.remove(service.getMetadata().getName());
+        }
+    }
+
+    public boolean isWatchingServices() {
+        return servicesWatched;
+    }
+
+    /*
+     * resourceVersion of a K8s Service, null if the service doesn't exist or if we are not watching services
+     */
+    public String getServiceVersion(String serviceName) {
+        return servicesVersions.get(serviceName);
+    }
+
+    /*
+     * Ports of a K8s Service, null if the service doesn't exist or if we are not watching services
+     */
+    public List<ServicePort> getServicePorts(String serviceName) {
+        return servicesPorts.get(serviceName);
+    }
+
+    /*
+     * Pod selector of a K8s Service, null if the service doesn't have one or if we are not watching services
+     */
+    public Map<String, String> getServiceSelector(String serviceName) {
+        return servicesSelectors.get(serviceName);
+    }
+
+    public DeploymentList listDeployments() {
+        return apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.apps().deployments().list());
+    }
+
+    public void watchDeployments(String resourceVersion, Watcher<Deployment> watcher) {
+        kubernetesClient.apps().deployments().withResourceVersion(resourceVersion).watch(watcher);
+    }
+
+    public EndpointsList listEndpoints() {
+        return apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.endpoints().list());
+    }
+
+    public void watchEndpoints(String resourceVersion, Watcher<Endpoints> watcher) {
+        kubernetesClient.endpoints().withResourceVersion(resourceVersion).watch(watcher);
+    }
+
+    /*
+     * List the resources of a CRD page by page (limit/continue), giving each item to the consumer as the pages arrive
+     *  - Only one page is kept in memory at a time
+     *  - All the pages belong to the same snapshot, the returned resourceVersion is the one to start watching from
+     */
+    public <T extends HasMetadata> String listPages(CustomResourceDefinition crd, Class<? extends CustomResourceList<T>> listType,
+                                                   int pageSize, ApiPriority priority, Consumer<T> consumer) {
+        String path = customResourcesPath(crd) + "?limit=" + pageSize;
+        String resourceVersion = null;
+        String continueToken = null;
+        int pages = 0;
+        do {
+            String pagePath = (continueToken == null) ? path : path + "&continue=" + encode(continueToken);
+            CustomResourceList<T> page = apiRequestBudget.call(priority, () -> sendRequest("GET", pagePath, null, listType));
+            pages++;
+            if (page.getItems() != null) {
+                page.getItems().forEach(consumer);
+            }
+            ListMeta metadata = page.getMetadata();
+            if (resourceVersion == null && metadata != null) {
+                resourceVersion = metadata.getResourceVersion();
+            }
+            continueToken = (metadata == null || metadata.getContinue() == null || metadata.getContinue().isEmpty()) ? null : metadata.getContinue();
+        } while (continueToken != null);
+        logger.debug(">> " + crd.getSpec().getNames().getPlural() + " listed in " + pages + " pages, resourceVersion: " + resourceVersion);
+        return resourceVersion;
+    }
+
+    private String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Replace the status subresource of a custom resource
+     *  - The CRD needs to have the status subresource enabled
+     *  - fabric8 doesn't support the status subresource for custom resources yet, so we use its http client directly
+     */
+    public <T extends HasMetadata> T updateStatus(CustomResourceDefinition crd, T resource, Class<T> type, ApiPriority priority) {
+        String path = customResourcesPath(crd) + "/" + resource.getMetadata().getName() + "/status";
+        return apiRequestBudget.call(priority, () -> sendRequest("PUT", path, Serialization.asJson(resource), type));
+    }
+
+    /*
+     * Delete all the custom resources that match a label selector with a single call (deletecollection)
+     *  - fabric8 deletes collections one item at a time, so we use its http client directly
+     *  - Returns how many resources were deleted
+     */
+    public int deleteCollection(CustomResourceDefinition crd, String labelSelector, String propagationPolicy, ApiPriority priority) {
+        String path = customResourcesPath(crd) + "?labelSelector=" + encode(labelSelector);
+        JsonNode deleted = apiRequestBudget.call(priority, () -> sendRequest("DELETE", path, deleteOptions(propagationPolicy), JsonNode.class));
+        return deleted.path("items").size();
+    }
+
+    /*
+     * Delete a custom resource with a propagation policy, returns false if it didn't exist
+     */
+    public boolean delete(CustomResourceDefinition crd, String name, String propagationPolicy, ApiPriority priority) {
+        String path = customResourcesPath(crd) + "/" + name;
+        try {
+            apiRequestBudget.call(priority, () -> sendRequest("DELETE", path, deleteOptions(propagationPolicy), JsonNode.class));
+            return true;
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private String deleteOptions(String propagationPolicy) {
+        return Serialization.asJson(new DeleteOptionsBuilder().withPropagationPolicy(propagationPolicy).build());
+    }
+
+    private String customResourcesPath(CustomResourceDefinition crd) {
+        return "apis/" + crd.getSpec().getGroup() + "/" + crd.getSpec().getVersion() + "/namespaces/" + getNamespace()
+                + "/" + crd.getSpec().getNames().getPlural();
+    }
+
+    private <T> T sendRequest(String method, String path, String json, Class<T> type) {
+        Span span = tracer.current();
+        if (span != null) {
+            span.setAttribute("http.method", method);
+            span.setAttribute("http.path", path);
+        }
+        try {
+            RequestBody body = (json == null) ? null : RequestBody.create(MediaType.parse("application/json"), json);
+            Request request = new Request.Builder()
+                    .url(new URL(kubernetesClient.getMasterUrl(), path))
+                    .method(method, body)
+                    .build();
+            try (Response response = ((HttpClientAware) kubernetesClient).getHttpClient().newCall(request).execute()) {
+                String responseBody = (response.body() == null) ? "" : response.body().string();
+                if (!response.isSuccessful()) {
+                    Status status = null;
+                    try {
+                        status = Serialization.jsonMapper().readValue(responseBody, Status.class);
+                    } catch (IOException e) {
+                        // Not a K8s Status, we just keep the code
+                    }
+                    throw new KubernetesClientException(method + " " + path + " failed: " + response.code(), response.code(), status);
+                }
+                return Serialization.jsonMapper().readValue(responseBody, type);
+            }
+        } catch (IOException e) {
+            throw KubernetesClientException.launderThrowable(e);
+        }
+    }
+
     public CustomResourceDefinitionList getCustomResourceDefinitionList() {
-        return kubernetesClient.customResourceDefinitions().list();
+        return apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.customResourceDefinitions().list());
+    }
+
+    /*
+     * Execute a call against the K8s API Server (e.g. using one of the CRD clients) respecting the API budget
+     */
+    public <T> T call(ApiPriority priority, Supplier<T> apiCall) {
+        return apiRequestBudget.call(priority, apiCall);
+    }
+
+    public void run(ApiPriority priority, Runnable apiCall) {
+        apiRequestBudget.run(priority, apiCall);
     }
 
     public <T extends HasMetadata, L extends KubernetesResourceList, D extends Doneable<T>> MixedOperation<T, L, D, Resource<T, D>> customResourcesClient(CustomResourceDefinition crd, Class<T> resourceType, Class<L> listClass, Class<D> doneClass) {
@@ -74,7 +328,7 @@ public class K8SCoreRuntime {
 
     private String tryLoadBalancerApproach() {
         String loadBalancerIP = "N/A";
-        ServiceList list = kubernetesClient.services().inNamespace(getNamespace()).list();
+        ServiceList list = apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.services().inNamespace(getNamespace()).list());
         for (io.fabric8.kubernetes.api.model.Service s : list.getItems()) {
             if (s.getMetadata().getName().equals("gateway")) {
                 if (s.getSpec().getType().equals("LoadBalancer")) {
@@ -104,7 +358,7 @@ public class K8SCoreRuntime {
 
     private String tryIstioGatewayApproach() {
         String istioIP = "N/A";
-        ServiceList list = kubernetesClient.services().inNamespace("istio-system").list();
+        ServiceList list = apiRequestBudget.call(ApiPriority.NORMAL, () -> kubernetesClient.services().inNamespace("istio-system").list());
         for (io.fabric8.kubernetes.api.model.Service s : list.getItems()) {
             if (s.getMetadata().getName().equals("istio-ingressgateway")) {
                 List<LoadBalancerIngress> ingress = s.getStatus().getLoadBalancer().getIngress();
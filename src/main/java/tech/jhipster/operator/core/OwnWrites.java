@@ -0,0 +1,74 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * resourceVersions produced by the writes of the operator, so the watches can drop the events that echo them
+ *  - Keyed by object (kind, namespace and name), only the last write of each object is kept
+ *  - Bounded, the objects written least recently are forgotten first (their echo is just processed as usual)
+ *  - If the event arrives before the write returns it is not suppressed, the spec fingerprints still skip it
+ */
+@Service
+public class OwnWrites {
+
+    @Value("${jhipster.operator.own-writes.capacity:1024}")
+    private int capacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, String> resourceVersions;
+
+    @PostConstruct
+    public void init() {
+        resourceVersions = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /*
+     * Remember the resourceVersion returned by the API Server after writing the resource
+     */
+    public synchronized void record(HasMetadata stored) {
+        resourceVersions.put(key(stored), stored.getMetadata().getResourceVersion());
+    }
+
+    /*
+     * True if the event is the echo of our last write of the resource, each write has a single echo
+     */
+    public synchronized boolean isEcho(HasMetadata resource) {
+        String key = key(resource);
+        String resourceVersion = resourceVersions.get(key);
+        if (resourceVersion == null || !resourceVersion.equals(resource.getMetadata().getResourceVersion())) {
+            return false;
+        }
+        resourceVersions.remove(key);
+        meterRegistry.counter("jhipster.operator.watch.suppressed", "kind", resource.getClass().getSimpleName()).increment();
+        return true;
+    }
+
+    public synchronized int size() {
+        return resourceVersions.size();
+    }
+
+    public long getSuppressedCount() {
+        return (long) meterRegistry.find("jhipster.operator.watch.suppressed").counters().stream()
+                .mapToDouble(c -> c.count())
+                .sum();
+    }
+
+    private static String key(HasMetadata resource) {
+        return resource.getClass().getSimpleName() + "/" + resource.getMetadata().getNamespace() + "/" + resource.getMetadata().getName();
+    }
+}
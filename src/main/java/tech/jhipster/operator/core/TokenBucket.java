@@ -0,0 +1,72 @@
+package tech.jhipster.operator.core;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Simple token bucket used to budget the calls to the K8s API Server
+ *  - Permits are reserved in advance, the caller gets back how long it needs to wait for its permit
+ *  - Time is injected to make it easy to test
+ */
+public class TokenBucket {
+
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private final double capacity;
+    private final double permitsPerNano;
+    private final Clock clock;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double permitsPerSecond, int burst, Clock clock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+        }
+        this.capacity = Math.max(1, burst);
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.nanoTime();
+    }
+
+    /*
+     * Reserve one permit and return the nanos that the caller needs to wait before using it (0 if available now)
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /*
+     * Take one permit only if it is available right now
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return Math.max(0, tokens);
+    }
+
+    private void refill() {
+        long now = clock.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
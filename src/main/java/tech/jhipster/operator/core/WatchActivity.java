@@ -0,0 +1,55 @@
+package tech.jhipster.operator.core;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * What a watch has been doing, to see if it is stuck or if its events are slow to handle
+ *  - Updated from the watch thread, read from the actuator endpoint
+ */
+public class WatchActivity {
+
+    private volatile String lastResourceVersion;
+    private volatile long lastEventAt;
+    private volatile long events;
+    private volatile long lastHandlingNanos;
+    private volatile long maxHandlingNanos;
+
+    /*
+     * Called when an event was handled, started is the System.nanoTime() when it was received
+     */
+    public synchronized void eventHandled(String resourceVersion, long started) {
+        long handlingNanos = System.nanoTime() - started;
+        lastResourceVersion = resourceVersion;
+        lastEventAt = System.currentTimeMillis();
+        events++;
+        lastHandlingNanos = handlingNanos;
+        maxHandlingNanos = Math.max(maxHandlingNanos, handlingNanos);
+    }
+
+    public String getLastResourceVersion() {
+        return lastResourceVersion;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getLastEventAt() {
+        return lastEventAt;
+    }
+
+    /*
+     * How long ago the last event arrived, -1 if there was none yet
+     */
+    public long getLastEventAgeMs() {
+        return (lastEventAt == 0) ? -1 : System.currentTimeMillis() - lastEventAt;
+    }
+
+    public long getLastHandlingMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(lastHandlingNanos);
+    }
+
+    public long getMaxHandlingMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxHandlingNanos);
+    }
+}
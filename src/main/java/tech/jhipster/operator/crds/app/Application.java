@@ -15,6 +15,7 @@ public class Application extends CustomResource {
 
     private ApplicationSpec spec;
 
+    private ApplicationStatus status;
 
     public ApplicationSpec getSpec() {
         return spec;
@@ -24,12 +25,21 @@ public class Application extends CustomResource {
         this.spec = spec;
     }
 
+    public ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ApplicationStatus status) {
+        this.status = status;
+    }
+
 
     @Override
     public String toString() {
         return "Application{" +
                 super.toString() +
                 "spec=" + spec +
+                ", status=" + status +
                 '}';
     }
 
@@ -25,9 +25,8 @@ public class ApplicationSpec implements KubernetesResource {
     private String registry;
     private String gateway;
 
-    private String status = "UNKNOWN";
-
-    private String url = "NO URL YET.";
+    // Rate limit for each client across all the routes of the app
+    private RateLimitSpec rateLimit;
 
     public String getVersion() {
         return version;
@@ -53,22 +52,6 @@ public class ApplicationSpec implements KubernetesResource {
         this.microservices = microservices;
     }
 
-    public String getUrl() {
-        return url;
-    }
-
-    public void setUrl(String url) {
-        this.url = url;
-    }
-
-    public String getStatus() {
-        return status;
-    }
-
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
     public String getRegistry() {
         return registry;
     }
@@ -93,6 +76,14 @@ public class ApplicationSpec implements KubernetesResource {
         this.appDefinition = appDefinition;
     }
 
+    public RateLimitSpec getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimitSpec rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
     @Override
     public String toString() {
         return "ApplicationSpec{" +
@@ -102,8 +93,7 @@ public class ApplicationSpec implements KubernetesResource {
                 ", microservices=" + microservices +
                 ", registry='" + registry + '\'' +
                 ", gateway='" + gateway + '\'' +
-                ", status='" + status + '\'' +
-                ", url='" + url + '\'' +
+                ", rateLimit=" + rateLimit +
                 '}';
     }
 
@@ -118,12 +108,11 @@ public class ApplicationSpec implements KubernetesResource {
                 Objects.equals(microservices, that.microservices) &&
                 Objects.equals(registry, that.registry) &&
                 Objects.equals(gateway, that.gateway) &&
-                Objects.equals(status, that.status) &&
-                Objects.equals(url, that.url);
+                Objects.equals(rateLimit, that.rateLimit);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version, selector, appDefinition, microservices, registry, gateway, status, url);
+        return Objects.hash(version, selector, appDefinition, microservices, registry, gateway, rateLimit);
     }
 }
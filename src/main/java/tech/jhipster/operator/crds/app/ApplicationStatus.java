@@ -0,0 +1,83 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.Objects;
+
+/*
+ * Status of an Application as observed by the operator
+ *  - It is written using the status subresource, so it doesn't change metadata.generation
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ApplicationStatus implements KubernetesResource {
+
+    private String status = "UNKNOWN";
+
+    private String url = "NO URL YET.";
+
+    // metadata.generation of the Application the last time that it was reconciled
+    private Long observedGeneration;
+
+    public ApplicationStatus() {
+    }
+
+    public ApplicationStatus(String status, String url, Long observedGeneration) {
+        this.status = status;
+        this.url = url;
+        this.observedGeneration = observedGeneration;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Long getObservedGeneration() {
+        return observedGeneration;
+    }
+
+    public void setObservedGeneration(Long observedGeneration) {
+        this.observedGeneration = observedGeneration;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationStatus{" +
+                "status='" + status + '\'' +
+                ", url='" + url + '\'' +
+                ", observedGeneration=" + observedGeneration +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ApplicationStatus)) return false;
+        ApplicationStatus that = (ApplicationStatus) o;
+        return Objects.equals(status, that.status) &&
+                Objects.equals(url, that.url) &&
+                Objects.equals(observedGeneration, that.observedGeneration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, url, observedGeneration);
+    }
+}
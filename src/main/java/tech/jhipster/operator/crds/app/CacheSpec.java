@@ -0,0 +1,83 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.Objects;
+
+/*
+ * Response cache settings for the routes of a service
+ *  - When present, GET responses that are cacheable (Cache-Control, ETag) are served by the operator gateway
+ *  - Bodies bigger than offHeapThresholdBytes are kept outside of the java heap
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CacheSpec implements KubernetesResource {
+
+    private Long maxWeightBytes = 16L * 1024 * 1024;
+    private Integer maxEntryBytes = 1024 * 1024;
+    private Long ttlSeconds = 60L;
+    private Integer offHeapThresholdBytes;
+
+    public Long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public void setMaxWeightBytes(Long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public Integer getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(Integer maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public Integer getOffHeapThresholdBytes() {
+        return offHeapThresholdBytes;
+    }
+
+    public void setOffHeapThresholdBytes(Integer offHeapThresholdBytes) {
+        this.offHeapThresholdBytes = offHeapThresholdBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheSpec{" +
+                "maxWeightBytes=" + maxWeightBytes +
+                ", maxEntryBytes=" + maxEntryBytes +
+                ", ttlSeconds=" + ttlSeconds +
+                ", offHeapThresholdBytes=" + offHeapThresholdBytes +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheSpec)) return false;
+        CacheSpec cacheSpec = (CacheSpec) o;
+        return Objects.equals(maxWeightBytes, cacheSpec.maxWeightBytes) &&
+                Objects.equals(maxEntryBytes, cacheSpec.maxEntryBytes) &&
+                Objects.equals(ttlSeconds, cacheSpec.ttlSeconds) &&
+                Objects.equals(offHeapThresholdBytes, cacheSpec.offHeapThresholdBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxWeightBytes, maxEntryBytes, ttlSeconds, offHeapThresholdBytes);
+    }
+}
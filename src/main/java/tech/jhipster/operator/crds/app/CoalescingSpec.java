@@ -0,0 +1,64 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Request coalescing settings for the routes of a service
+ *  - When present, identical concurrent GETs for the service are sent upstream only once
+ *  - Requests are identical if they have the same path, query and values for the vary headers
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CoalescingSpec implements KubernetesResource {
+
+    private List<String> varyHeaders = new ArrayList<>(Arrays.asList("Authorization", "Accept", "Accept-Encoding"));
+    private Integer maxBodyBytes = 1024 * 1024;
+
+    public List<String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public void setVaryHeaders(List<String> varyHeaders) {
+        this.varyHeaders = varyHeaders;
+    }
+
+    public Integer getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(Integer maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingSpec{" +
+                "varyHeaders=" + varyHeaders +
+                ", maxBodyBytes=" + maxBodyBytes +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CoalescingSpec)) return false;
+        CoalescingSpec that = (CoalescingSpec) o;
+        return Objects.equals(varyHeaders, that.varyHeaders) &&
+                Objects.equals(maxBodyBytes, that.maxBodyBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(varyHeaders, maxBodyBytes);
+    }
+}
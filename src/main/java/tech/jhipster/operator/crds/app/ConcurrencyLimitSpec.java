@@ -0,0 +1,93 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.Objects;
+
+/*
+ * Adaptive concurrency limit settings for the routes of a service
+ *  - The limit starts at initialLimit and moves between minLimit and maxLimit following the observed latency
+ *  - tolerance is how much the latency can grow over its long term average before the limit goes down
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ConcurrencyLimitSpec implements KubernetesResource {
+
+    private Integer initialLimit;
+    private Integer minLimit;
+    private Integer maxLimit;
+    private Double tolerance;
+
+    public ConcurrencyLimitSpec() {
+    }
+
+    public ConcurrencyLimitSpec(Integer initialLimit, Integer minLimit, Integer maxLimit, Double tolerance) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    public Integer getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(Integer initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public Integer getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(Integer minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public Integer getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(Integer maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(Double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitSpec{" +
+                "initialLimit=" + initialLimit +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", tolerance=" + tolerance +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConcurrencyLimitSpec)) return false;
+        ConcurrencyLimitSpec that = (ConcurrencyLimitSpec) o;
+        return Objects.equals(initialLimit, that.initialLimit) &&
+                Objects.equals(minLimit, that.minLimit) &&
+                Objects.equals(maxLimit, that.maxLimit) &&
+                Objects.equals(tolerance, that.tolerance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(initialLimit, minLimit, maxLimit, tolerance);
+    }
+}
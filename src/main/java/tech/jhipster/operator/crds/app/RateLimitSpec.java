@@ -0,0 +1,76 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.Objects;
+
+/*
+ * Rate limit for the requests of each client, for a whole Application or for the routes of a service
+ *  - replenishRate is the number of requests per second, burstCapacity how many can be done at once
+ *  - keyResolver says how clients are identified: ip, jwt-sub or header:<Header-Name>
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RateLimitSpec implements KubernetesResource {
+
+    public static final String IP_KEY = "ip";
+    public static final String JWT_SUBJECT_KEY = "jwt-sub";
+    public static final String HEADER_KEY_PREFIX = "header:";
+
+    private Double replenishRate;
+    private Integer burstCapacity;
+    private String keyResolver = IP_KEY;
+
+    public Double getReplenishRate() {
+        return replenishRate;
+    }
+
+    public void setReplenishRate(Double replenishRate) {
+        this.replenishRate = replenishRate;
+    }
+
+    public Integer getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    public void setBurstCapacity(Integer burstCapacity) {
+        this.burstCapacity = burstCapacity;
+    }
+
+    public String getKeyResolver() {
+        return keyResolver;
+    }
+
+    public void setKeyResolver(String keyResolver) {
+        this.keyResolver = keyResolver;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitSpec{" +
+                "replenishRate=" + replenishRate +
+                ", burstCapacity=" + burstCapacity +
+                ", keyResolver='" + keyResolver + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateLimitSpec)) return false;
+        RateLimitSpec that = (RateLimitSpec) o;
+        return Objects.equals(replenishRate, that.replenishRate) &&
+                Objects.equals(burstCapacity, that.burstCapacity) &&
+                Objects.equals(keyResolver, that.keyResolver);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(replenishRate, burstCapacity, keyResolver);
+    }
+}
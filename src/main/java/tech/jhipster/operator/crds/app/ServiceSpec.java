@@ -16,7 +16,11 @@ public class ServiceSpec implements KubernetesResource {
     private String serviceName;
     private String serviceVersion;
     private String servicePort;
-
+    private UpstreamSpec upstream;
+    private CacheSpec cache;
+    private CoalescingSpec coalescing;
+    private ConcurrencyLimitSpec concurrencyLimit;
+    private RateLimitSpec rateLimit;
 
     public String getServiceVersion() {
         return serviceVersion;
@@ -42,12 +46,57 @@ public class ServiceSpec implements KubernetesResource {
         this.servicePort = servicePort;
     }
 
+    public UpstreamSpec getUpstream() {
+        return upstream;
+    }
+
+    public void setUpstream(UpstreamSpec upstream) {
+        this.upstream = upstream;
+    }
+
+    public CacheSpec getCache() {
+        return cache;
+    }
+
+    public void setCache(CacheSpec cache) {
+        this.cache = cache;
+    }
+
+    public CoalescingSpec getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(CoalescingSpec coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public ConcurrencyLimitSpec getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(ConcurrencyLimitSpec concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public RateLimitSpec getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimitSpec rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
     @Override
     public String toString() {
         return "ServiceSpec{" +
                 "serviceName='" + serviceName + '\'' +
                 ", serviceVersion='" + serviceVersion + '\'' +
                 ", servicePort='" + servicePort + '\'' +
+                ", upstream=" + upstream +
+                ", cache=" + cache +
+                ", coalescing=" + coalescing +
+                ", concurrencyLimit=" + concurrencyLimit +
+                ", rateLimit=" + rateLimit +
                 '}';
     }
 
@@ -58,11 +107,16 @@ public class ServiceSpec implements KubernetesResource {
         ServiceSpec that = (ServiceSpec) o;
         return Objects.equals(serviceName, that.serviceName) &&
                 Objects.equals(serviceVersion, that.serviceVersion) &&
-                Objects.equals(servicePort, that.servicePort);
+                Objects.equals(servicePort, that.servicePort) &&
+                Objects.equals(upstream, that.upstream) &&
+                Objects.equals(cache, that.cache) &&
+                Objects.equals(coalescing, that.coalescing) &&
+                Objects.equals(concurrencyLimit, that.concurrencyLimit) &&
+                Objects.equals(rateLimit, that.rateLimit);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(serviceName, serviceVersion, servicePort);
+        return Objects.hash(serviceName, serviceVersion, servicePort, upstream, cache, coalescing, concurrencyLimit, rateLimit);
     }
 }
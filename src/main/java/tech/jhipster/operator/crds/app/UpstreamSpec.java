@@ -0,0 +1,119 @@
+package tech.jhipster.operator.crds.app;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.fabric8.kubernetes.api.model.KubernetesResource;
+
+import java.util.Objects;
+
+/*
+ * Connection settings used by the operator gateway to talk with a service
+ *  - When present, the routes for the service get their own connection pool instead of the shared one
+ */
+@JsonDeserialize(
+        using = JsonDeserializer.None.class
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UpstreamSpec implements KubernetesResource {
+
+    public static final String HTTP11 = "http/1.1";
+    public static final String H2C = "h2c";
+
+    private Integer maxConnections;
+    private Integer pendingAcquireMaxCount;
+    private Long pendingAcquireTimeoutMillis;
+    private Long maxIdleTimeMillis;
+    private Integer connectTimeoutMillis;
+    private Long responseTimeoutMillis;
+    private String protocol = HTTP11;
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Integer getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Long getPendingAcquireTimeoutMillis() {
+        return pendingAcquireTimeoutMillis;
+    }
+
+    public void setPendingAcquireTimeoutMillis(Long pendingAcquireTimeoutMillis) {
+        this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+    }
+
+    public Long getMaxIdleTimeMillis() {
+        return maxIdleTimeMillis;
+    }
+
+    public void setMaxIdleTimeMillis(Long maxIdleTimeMillis) {
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+    }
+
+    public Integer getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(Integer connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public Long getResponseTimeoutMillis() {
+        return responseTimeoutMillis;
+    }
+
+    public void setResponseTimeoutMillis(Long responseTimeoutMillis) {
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(String protocol) {
+        this.protocol = protocol;
+    }
+
+    @Override
+    public String toString() {
+        return "UpstreamSpec{" +
+                "maxConnections=" + maxConnections +
+                ", pendingAcquireMaxCount=" + pendingAcquireMaxCount +
+                ", pendingAcquireTimeoutMillis=" + pendingAcquireTimeoutMillis +
+                ", maxIdleTimeMillis=" + maxIdleTimeMillis +
+                ", connectTimeoutMillis=" + connectTimeoutMillis +
+                ", responseTimeoutMillis=" + responseTimeoutMillis +
+                ", protocol='" + protocol + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UpstreamSpec)) return false;
+        UpstreamSpec that = (UpstreamSpec) o;
+        return Objects.equals(maxConnections, that.maxConnections) &&
+                Objects.equals(pendingAcquireMaxCount, that.pendingAcquireMaxCount) &&
+                Objects.equals(pendingAcquireTimeoutMillis, that.pendingAcquireTimeoutMillis) &&
+                Objects.equals(maxIdleTimeMillis, that.maxIdleTimeMillis) &&
+                Objects.equals(connectTimeoutMillis, that.connectTimeoutMillis) &&
+                Objects.equals(responseTimeoutMillis, that.responseTimeoutMillis) &&
+                Objects.equals(protocol, that.protocol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections, pendingAcquireMaxCount, pendingAcquireTimeoutMillis, maxIdleTimeMillis,
+                connectTimeoutMillis, responseTimeoutMillis, protocol);
+    }
+}
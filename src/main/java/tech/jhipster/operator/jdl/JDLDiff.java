@@ -0,0 +1,90 @@
+package tech.jhipster.operator.jdl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ * Differences between the modules of two versions of the JDL of an app, modules are matched by name
+ *  - A module whose kind changed (Gateway <-> MicroService) is removed and added again, it is another resource
+ *  - A module whose port changed is changed, its resource can be patched in place
+ *  - Modules without a name can't be matched, they are ignored
+ */
+public class JDLDiff {
+
+    private final List<JHipsterModuleDefinition> added = new ArrayList<>();
+    private final List<JHipsterModuleDefinition> removed = new ArrayList<>();
+    private final List<JHipsterModuleDefinition> changed = new ArrayList<>();
+    private final List<String> unchanged = new ArrayList<>();
+
+    public static JDLDiff between(JHipsterApplicationDefinition current, JHipsterApplicationDefinition desired) {
+        JDLDiff diff = new JDLDiff();
+        Map<String, JHipsterModuleDefinition> currentModules = byName((current == null) ? null : current.getModules());
+        Map<String, JHipsterModuleDefinition> desiredModules = byName((desired == null) ? null : desired.getModules());
+        currentModules.forEach((name, module) -> {
+            if (!desiredModules.containsKey(name)) {
+                diff.removed.add(module);
+            }
+        });
+        desiredModules.forEach((name, module) -> {
+            JHipsterModuleDefinition previous = currentModules.get(name);
+            if (previous == null) {
+                diff.added.add(module);
+            } else if (!JDLParser.kindOf(previous).equals(JDLParser.kindOf(module))) {
+                diff.removed.add(previous);
+                diff.added.add(module);
+            } else if (!Objects.equals(JDLParser.servicePortOf(previous), JDLParser.servicePortOf(module))) {
+                diff.changed.add(module);
+            } else {
+                diff.unchanged.add(name);
+            }
+        });
+        return diff;
+    }
+
+    private static Map<String, JHipsterModuleDefinition> byName(Set<JHipsterModuleDefinition> modules) {
+        Map<String, JHipsterModuleDefinition> byName = new LinkedHashMap<>();
+        if (modules != null) {
+            for (JHipsterModuleDefinition module : modules) {
+                if (module.getName() != null) {
+                    byName.put(module.getName(), module);
+                }
+            }
+        }
+        return byName;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    public List<JHipsterModuleDefinition> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    public List<JHipsterModuleDefinition> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    public List<JHipsterModuleDefinition> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    public List<String> getUnchanged() {
+        return Collections.unmodifiableList(unchanged);
+    }
+
+    @Override
+    public String toString() {
+        return "JDLDiff{" +
+                "added=" + added +
+                ", removed=" + removed +
+                ", changed=" + changed +
+                ", unchanged=" + unchanged +
+                '}';
+    }
+}
@@ -51,4 +51,21 @@ public class JDLParser {
                 return "N/A";
         }
     }
+
+    /*
+     * Kind of the resource created for a module, everything that is not a gateway runs as a MicroService
+     */
+    public static String kindOf(JHipsterModuleDefinition module) {
+        return fromJDLServiceToKind(module.getType()).equals("Gateway") ? "Gateway" : "MicroService";
+    }
+
+    /*
+     * Port of the service created for a module, gateways default to 8080
+     */
+    public static String servicePortOf(JHipsterModuleDefinition module) {
+        if (kindOf(module).equals("Gateway") && (module.getPort() == null || module.getPort().isEmpty())) {
+            return "8080";
+        }
+        return module.getPort();
+    }
 }
@@ -0,0 +1,96 @@
+package tech.jhipster.operator.routes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Concurrency limit for one route that follows the latency of the service (gradient algorithm)
+ *  - The limit grows while the latency of each request stays close to the long term average
+ *  - When the latency grows over tolerance * average, the limit goes down in proportion
+ *  - Failed requests (errors, timeouts) make the limit go down right away
+ *  - Samples taken with little load are only used for the average, they don't say anything about the capacity
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_FACTOR = 2.0 / (100 + 1);
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejections = new AtomicLong();
+    private volatile double limit;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /*
+     * Take a slot for a request, returns the number of requests in flight before this one or -1 if the limit was reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejections.incrementAndGet();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart, dropped);
+    }
+
+    /*
+     * The client went away before the response, the latency of the request says nothing about the service
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * DROP_FACTOR);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        longRtt = (longRtt == 0) ? rttNanos : longRtt * (1 - LONG_RTT_FACTOR) + rttNanos * LONG_RTT_FACTOR;
+        // After a long slow period the average needs to come back down faster
+        if (longRtt / rttNanos > 2) {
+            longRtt *= 0.95;
+        }
+        if (inFlightAtStart * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+}
@@ -0,0 +1,77 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Response from a service that was fully read by the operator gateway, so it can be written again
+ *  - The body is a read only buffer, it can live in the java heap or outside of it (direct buffer)
+ *  - Writing it again doesn't copy the body, every write uses its own view of the buffer
+ */
+public final class CachedResponse {
+
+    private final HttpStatus status;
+    private final HttpHeaders headers;
+    private final ByteBuffer body;
+    private final long storedAt;
+    private final int weight;
+
+    public CachedResponse(HttpStatus status, HttpHeaders headers, ByteBuffer body, long storedAt) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body.asReadOnlyBuffer();
+        this.storedAt = storedAt;
+        int headersWeight = 0;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                headersWeight += header.getKey().length() + value.length();
+            }
+        }
+        this.weight = this.body.remaining() + headersWeight;
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        long age = Math.max(0, (System.currentTimeMillis() - storedAt) / 1000);
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(age));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.duplicate())));
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public int getSize() {
+        return body.remaining();
+    }
+
+    public boolean isOffHeap() {
+        return body.isDirect();
+    }
+
+    public long getStoredAt() {
+        return storedAt;
+    }
+
+    /*
+     * Approximated memory used by the response: body plus headers
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
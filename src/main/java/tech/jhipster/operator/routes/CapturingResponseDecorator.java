@@ -0,0 +1,121 @@
+package tech.jhipster.operator.routes;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+ * Keeps a copy of the response written by the service while it is sent to the client
+ *  - The body is always streamed to the client as it arrives, the chunks of the responses accepted by the predicate are
+ *    copied on the way until they go over maxBytes (i.e. chunked responses without Content-Length), then the copy is dropped
+ *  - If the body fails or the client cancels, the copy is dropped
+ *  - The listener is called once: with the copy, or with null if the response was not captured
+ *  - It needs to be in the exchange before the NettyWriteResponseFilter runs, so filters using it must be
+ *    ordered before NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private static final String[] NOT_STORED_HEADERS = {HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.SET_COOKIE, HttpHeaders.CONTENT_LENGTH};
+
+    private final Predicate<ServerHttpResponse> capture;
+    private final int maxBytes;
+    private final Integer offHeapThresholdBytes;
+    private final Consumer<CachedResponse> listener;
+    private final AtomicBoolean notified = new AtomicBoolean();
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate, Predicate<ServerHttpResponse> capture, int maxBytes,
+                                      Integer offHeapThresholdBytes, Consumer<CachedResponse> listener) {
+        super(delegate);
+        this.capture = capture;
+        this.maxBytes = maxBytes;
+        this.offHeapThresholdBytes = offHeapThresholdBytes;
+        this.listener = listener;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        long contentLength = getHeaders().getContentLength();
+        if (!capture.test(getDelegate()) || contentLength > maxBytes) {
+            notifyListener(null);
+            return super.writeWith(body);
+        }
+        Copy copy = new Copy();
+        return super.writeWith(Flux.<DataBuffer>from(body)
+                .doOnNext(copy::add)
+                .doOnComplete(() -> notifyListener(copy.toResponse())))
+                .doFinally(signal -> {
+                    copy.drop();
+                    notifyListener(null);
+                });
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        notifyListener(null);
+        return super.setComplete();
+    }
+
+    private void notifyListener(CachedResponse captured) {
+        if (notified.compareAndSet(false, true)) {
+            listener.accept(captured);
+        }
+    }
+
+    /*
+     * Bytes of the chunks seen so far, the chunks themselves go on to the client and are released by the writer
+     */
+    private final class Copy {
+        private List<byte[]> chunks = new ArrayList<>();
+        private long size = 0;
+
+        private synchronized void add(DataBuffer buffer) {
+            if (chunks == null) {
+                return;
+            }
+            size += buffer.readableByteCount();
+            if (size > maxBytes) {
+                chunks = null;
+                return;
+            }
+            byte[] chunk = new byte[buffer.readableByteCount()];
+            // asByteBuffer doesn't move the read position of the chunk that is written
+            buffer.asByteBuffer().get(chunk);
+            chunks.add(chunk);
+        }
+
+        private synchronized CachedResponse toResponse() {
+            if (chunks == null) {
+                return null;
+            }
+            // size <= maxBytes here
+            ByteBuffer body = (offHeapThresholdBytes != null && size >= offHeapThresholdBytes) ?
+                    ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+            chunks.forEach(body::put);
+            body.flip();
+            chunks = null;
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(getHeaders());
+            for (String header : NOT_STORED_HEADERS) {
+                headers.remove(header);
+            }
+            headers.setContentLength(body.remaining());
+            return new CachedResponse(getStatusCode(), headers, body, System.currentTimeMillis());
+        }
+
+        private synchronized void drop() {
+            chunks = null;
+        }
+    }
+}
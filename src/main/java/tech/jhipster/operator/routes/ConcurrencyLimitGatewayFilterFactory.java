@@ -0,0 +1,73 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.SignalType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Gateway filter (ConcurrencyLimit) that rejects the requests over the adaptive concurrency limit of the route with a 503
+ *  - The time until the response is written is the latency sample for the limit
+ *  - Errors and 5xx responses (other than the ones created here) count as dropped requests
+ *  - Requests cancelled by the client only give their slot back, so disconnecting clients can't push the limit down
+ */
+public class ConcurrencyLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    public static final String ROUTE_ID_KEY = "routeId";
+
+    private ConcurrencyLimits concurrencyLimits;
+
+    public ConcurrencyLimitGatewayFilterFactory(ConcurrencyLimits concurrencyLimits) {
+        super(Config.class);
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList(ROUTE_ID_KEY);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Same order as the cache and coalescing filters, it is added after them so their hits don't use the limit
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            AdaptiveConcurrencyLimit limit = concurrencyLimits.get(config.getRouteId());
+            if (limit == null) {
+                return chain.filter(exchange);
+            }
+            int inFlightAtStart = limit.tryAcquire();
+            if (inFlightAtStart < 0) {
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                return exchange.getResponse().setComplete();
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limit.cancel();
+                    return;
+                }
+                HttpStatus status = exchange.getResponse().getStatusCode();
+                boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limit.release(System.nanoTime() - start, inFlightAtStart, dropped);
+            });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
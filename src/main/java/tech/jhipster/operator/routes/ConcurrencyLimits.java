@@ -0,0 +1,134 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.crds.app.ConcurrencyLimitSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/*
+ * Adaptive concurrency limits for the routes, by route id
+ *  - Every route gets a limit with the default settings, unless the service has its own concurrencyLimit spec
+ *  - Limits are kept while the settings don't change, so what they learned is not lost when the routes are built again
+ *  - Metrics are tagged with the route id: jhipster.operator.concurrency.limit, .inflight and .rejections, they are
+ *    removed with the limit of the route
+ */
+@Service
+public class ConcurrencyLimits {
+
+    private Logger logger = LoggerFactory.getLogger(ConcurrencyLimits.class);
+
+    @Value("${jhipster.operator.concurrency-limit.enabled:true}")
+    private boolean enabled;
+    @Value("${jhipster.operator.concurrency-limit.initial:20}")
+    private int defaultInitialLimit;
+    @Value("${jhipster.operator.concurrency-limit.min:4}")
+    private int defaultMinLimit;
+    @Value("${jhipster.operator.concurrency-limit.max:500}")
+    private int defaultMaxLimit;
+    @Value("${jhipster.operator.concurrency-limit.tolerance:1.5}")
+    private double defaultTolerance;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, RouteLimit> limits = new ConcurrentHashMap<>();
+    // Route Id -> Meters of its limit
+    private Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    /*
+     * Returns true if the route needs a concurrency limit filter
+     */
+    public boolean materialize(String routeId, ConcurrencyLimitSpec spec) {
+        if (!enabled && spec == null) {
+            remove(routeId);
+            return false;
+        }
+        ConcurrencyLimitSpec settings = withDefaults(spec);
+        RouteLimit current = limits.get(routeId);
+        if (current != null && current.settings.equals(settings)) {
+            return true;
+        }
+        limits.put(routeId, new RouteLimit(settings, new AdaptiveConcurrencyLimit(settings.getInitialLimit(),
+                settings.getMinLimit(), settings.getMaxLimit(), settings.getTolerance())));
+        // Meters are registered once per route and always read the current limit of the route
+        meters.computeIfAbsent(routeId, id -> Arrays.asList(
+                Gauge.builder("jhipster.operator.concurrency.limit", this, l -> l.read(routeId, AdaptiveConcurrencyLimit::getLimit))
+                        .tag("route", routeId)
+                        .register(meterRegistry),
+                Gauge.builder("jhipster.operator.concurrency.inflight", this, l -> l.read(routeId, AdaptiveConcurrencyLimit::getInFlight))
+                        .tag("route", routeId)
+                        .register(meterRegistry),
+                FunctionCounter.builder("jhipster.operator.concurrency.rejections", this, l -> l.read(routeId, AdaptiveConcurrencyLimit::getRejections))
+                        .tag("route", routeId)
+                        .register(meterRegistry)));
+        logger.info("> Concurrency limit for route " + routeId + ": " + settings);
+        return true;
+    }
+
+    public AdaptiveConcurrencyLimit get(String routeId) {
+        RouteLimit limit = limits.get(routeId);
+        return (limit == null) ? null : limit.limit;
+    }
+
+    /*
+     * Remove the limits of the routes that don't exist anymore
+     */
+    public void retain(Set<String> routeIds) {
+        limits.keySet().stream()
+                .filter(routeId -> !routeIds.contains(routeId))
+                .forEach(this::remove);
+    }
+
+    private void remove(String routeId) {
+        limits.remove(routeId);
+        List<Meter> routeMeters = meters.remove(routeId);
+        if (routeMeters != null) {
+            routeMeters.forEach(meterRegistry::remove);
+        }
+    }
+
+    public Map<String, AdaptiveConcurrencyLimit> getLimits() {
+        Map<String, AdaptiveConcurrencyLimit> result = new ConcurrentHashMap<>();
+        limits.forEach((routeId, limit) -> result.put(routeId, limit.limit));
+        return result;
+    }
+
+    private ConcurrencyLimitSpec withDefaults(ConcurrencyLimitSpec spec) {
+        if (spec == null) {
+            spec = new ConcurrencyLimitSpec();
+        }
+        return new ConcurrencyLimitSpec(
+                (spec.getInitialLimit() == null) ? defaultInitialLimit : spec.getInitialLimit(),
+                (spec.getMinLimit() == null) ? defaultMinLimit : spec.getMinLimit(),
+                (spec.getMaxLimit() == null) ? defaultMaxLimit : spec.getMaxLimit(),
+                (spec.getTolerance() == null) ? defaultTolerance : spec.getTolerance());
+    }
+
+    private double read(String routeId, ToDoubleFunction<AdaptiveConcurrencyLimit> value) {
+        AdaptiveConcurrencyLimit limit = get(routeId);
+        return (limit == null) ? 0 : value.applyAsDouble(limit);
+    }
+
+    private static class RouteLimit {
+        private final ConcurrencyLimitSpec settings;
+        private final AdaptiveConcurrencyLimit limit;
+
+        private RouteLimit(ConcurrencyLimitSpec settings, AdaptiveConcurrencyLimit limit) {
+            this.settings = settings;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package tech.jhipster.operator.routes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.LoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/*
+ * Sends the requests for our routes straight to the ready pods behind the K8s Service instead of going through kube-proxy
+ *  - Routes keep pointing to http://<serviceName>:<port>, this filter replaces the host and port with a pod address
+ *  - If we don't know the endpoints for the service (e.g. the watch is not ready yet) the request goes to the Service
+ */
+public class EndpointLoadBalancerFilter implements GlobalFilter, Ordered {
+
+    // After the route URL is resolved and before the request is sent
+    public static final int ENDPOINT_LOAD_BALANCER_FILTER_ORDER = LoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private Logger logger = LoggerFactory.getLogger(EndpointLoadBalancerFilter.class);
+
+    private ServiceEndpointsRegistry serviceEndpointsRegistry;
+
+    public EndpointLoadBalancerFilter(ServiceEndpointsRegistry serviceEndpointsRegistry) {
+        this.serviceEndpointsRegistry = serviceEndpointsRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !("http".equals(url.getScheme()) || "https".equals(url.getScheme()))) {
+            return chain.filter(exchange);
+        }
+        int port = url.getPort();
+        if (port == -1) {
+            port = "https".equals(url.getScheme()) ? 443 : 80;
+        }
+        EndpointSet endpoints = serviceEndpointsRegistry.getEndpoints(url.getHost(), port);
+        if (endpoints == null) {
+            return chain.filter(exchange);
+        }
+        UpstreamEndpoint endpoint = endpoints.choose();
+        if (endpoint == null) {
+            logger.debug("> No ready endpoints for " + url.getHost() + ":" + port);
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+        URI requestUrl = UriComponentsBuilder.fromUri(url)
+                .host(endpoint.getHost())
+                .port(endpoint.getPort())
+                .build(true)
+                .toUri();
+        addOriginalRequestUrl(exchange, url);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        endpoint.requestStarted();
+        return chain.filter(exchange).doFinally(signal -> endpoint.requestFinished());
+    }
+
+    @Override
+    public int getOrder() {
+        return ENDPOINT_LOAD_BALANCER_FILTER_ORDER;
+    }
+}
@@ -0,0 +1,55 @@
+package tech.jhipster.operator.routes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Immutable set of ready endpoints for a Service port
+ *  - Endpoints are chosen with power of two choices: two random endpoints are picked and the one with less
+ *    requests in flight wins, this avoids herding on the least loaded pod without keeping global state
+ */
+public class EndpointSet {
+
+    public static final EndpointSet EMPTY = new EndpointSet(Collections.emptyList());
+
+    private final List<UpstreamEndpoint> endpoints;
+
+    public EndpointSet(List<UpstreamEndpoint> endpoints) {
+        this.endpoints = Collections.unmodifiableList(endpoints);
+    }
+
+    public UpstreamEndpoint choose() {
+        int size = endpoints.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamEndpoint a = endpoints.get(first);
+        UpstreamEndpoint b = endpoints.get(second);
+        return (b.getInFlight() < a.getInFlight()) ? b : a;
+    }
+
+    public List<UpstreamEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointSet{" +
+                "endpoints=" + endpoints +
+                '}';
+    }
+}
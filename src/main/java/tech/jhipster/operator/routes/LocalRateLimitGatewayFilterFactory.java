@@ -0,0 +1,72 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Gateway filter (LocalRateLimit) that applies the app and route rate limits to each client, without Redis
+ *  - Every route has it, limits are looked up on each request so they can change without building the routes again
+ *  - Limited requests get a 429 with a Retry-After header
+ */
+public class LocalRateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    public static final String APP_NAME_KEY = "appName";
+    public static final String ROUTE_ID_KEY = "routeId";
+
+    private LocalRateLimits localRateLimits;
+
+    public LocalRateLimitGatewayFilterFactory(LocalRateLimits localRateLimits) {
+        super(Config.class);
+        this.localRateLimits = localRateLimits;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList(APP_NAME_KEY, ROUTE_ID_KEY);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Same order as the cache, coalescing and concurrency limit filters, it is added before them
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            long wait = localRateLimits.acquire(config.getAppName(), config.getRouteId(), exchange.getRequest());
+            if (wait > 0) {
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, (long) Math.ceil(wait / (double) TimeUnit.SECONDS.toNanos(1)))));
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    public static class Config {
+
+        private String appName;
+        private String routeId;
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public void setAppName(String appName) {
+            this.appName = appName;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
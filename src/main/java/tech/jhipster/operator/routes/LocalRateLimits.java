@@ -0,0 +1,223 @@
+package tech.jhipster.operator.routes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.crds.app.RateLimitSpec;
+
+import javax.annotation.PostConstruct;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * In memory rate limits for the apps and the routes, with one bucket per client
+ *  - Limits come from the Application and ServiceSpec CRDs and they are updated by the watches, the routes don't
+ *    need to be built again when they change
+ *  - Buckets that are full again (idle clients) are removed periodically, and when there are too many clients the
+ *    new ones share a few buckets per limit, picked by IP, so memory stays bounded and one busy IP doesn't throttle
+ *    everybody else
+ *  - The jwt-sub and header keys are sent by the client and not verified, one IP can only add new-clients-per-ip
+ *    of them per minute, past that its requests are limited by IP so made up keys can't fill max-clients
+ */
+@Service
+public class LocalRateLimits {
+
+    private static final String OVERFLOW_CLIENT = "*";
+    private static final int OVERFLOW_BUCKETS = 64;
+
+    private Logger logger = LoggerFactory.getLogger(LocalRateLimits.class);
+
+    @Value("${jhipster.operator.rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    @Value("${jhipster.operator.rate-limit.new-clients-per-ip:60}")
+    private int newClientsPerIp;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, RateLimitSpec> appLimits = new ConcurrentHashMap<>();
+    private Map<String, RateLimitSpec> routeLimits = new ConcurrentHashMap<>();
+    private Map<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("jhipster.operator.ratelimit.clients", buckets, Map::size)
+                .register(meterRegistry);
+    }
+
+    public void setAppLimit(String appName, RateLimitSpec spec) {
+        update(appLimits, appName, spec);
+    }
+
+    public void setRouteLimit(String routeId, RateLimitSpec spec) {
+        update(routeLimits, routeId, spec);
+    }
+
+    /*
+     * Drop the limits of the routes that are gone, e.g. services deleted while the watches were down
+     */
+    public void retainRouteLimits(Set<String> routeIds) {
+        routeLimits.keySet().stream()
+                .filter(routeId -> !routeIds.contains(routeId))
+                .forEach(routeId -> update(routeLimits, routeId, null));
+    }
+
+    /*
+     * Take one permit from the app and the route buckets of the client of the request
+     *  - Returns 0 if the request can go, or the nanos until it could be done
+     *  - A request throttled by its route gives the permit of the app back, so it doesn't use the app budget
+     */
+    public long acquire(String appName, String routeId, ServerHttpRequest request) {
+        long now = System.nanoTime();
+        RateLimitSpec appLimit = appLimits.get(appName);
+        if (!isLimited(appLimit)) {
+            return acquire("route", routeId, routeLimits.get(routeId), request, now);
+        }
+        RateLimitBucket appBucket = bucket("app", appName, appLimit, request, now);
+        long wait = acquire("app", appName, appLimit, appBucket, now);
+        if (wait > 0) {
+            return wait;
+        }
+        wait = acquire("route", routeId, routeLimits.get(routeId), request, now);
+        if (wait > 0) {
+            appBucket.release(interval(appLimit));
+        }
+        return wait;
+    }
+
+    /*
+     * Remove the buckets of the clients that didn't do any request for a while
+     */
+    @Scheduled(fixedDelayString = "${jhipster.operator.rate-limit.eviction-interval:30000}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        logger.debug("> Rate limit buckets evicted: " + (before - buckets.size()));
+    }
+
+    public Map<String, RateLimitSpec> getRouteLimits() {
+        return Collections.unmodifiableMap(routeLimits);
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    private long acquire(String scope, String name, RateLimitSpec spec, ServerHttpRequest request, long now) {
+        if (!isLimited(spec)) {
+            return 0;
+        }
+        return acquire(scope, name, spec, bucket(scope, name, spec, request, now), now);
+    }
+
+    private long acquire(String scope, String name, RateLimitSpec spec, RateLimitBucket bucket, long now) {
+        long interval = interval(spec);
+        int burst = (spec.getBurstCapacity() == null) ? 1 : Math.max(1, spec.getBurstCapacity());
+        long wait = bucket.tryAcquire(now, interval, interval * burst);
+        if (wait > 0) {
+            meterRegistry.counter("jhipster.operator.ratelimit.rejected", "scope", scope, "name", name).increment();
+        }
+        return wait;
+    }
+
+    private RateLimitBucket bucket(String scope, String name, RateLimitSpec spec, ServerHttpRequest request, long now) {
+        String prefix = scope + "|" + name + "|";
+        String address = remoteAddress(request);
+        String clientKey = clientKey(spec, request);
+        String key = prefix + ((clientKey == null) ? address : clientKey);
+        RateLimitBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                key = prefix + OVERFLOW_CLIENT + Math.floorMod(address.hashCode(), OVERFLOW_BUCKETS);
+            } else if (clientKey != null && !canAddClient(address, now)) {
+                key = prefix + address;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new RateLimitBucket(now));
+        }
+        return bucket;
+    }
+
+    /*
+     * Take one of the new clients that the IP can add this minute
+     */
+    private boolean canAddClient(String address, long now) {
+        if (newClientsPerIp <= 0) {
+            return false;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / newClientsPerIp;
+        RateLimitBucket newClients = buckets.computeIfAbsent("new-clients|" + address, k -> new RateLimitBucket(now));
+        return newClients.tryAcquire(now, interval, interval * newClientsPerIp) == 0;
+    }
+
+    private static boolean isLimited(RateLimitSpec spec) {
+        return spec != null && spec.getReplenishRate() != null && spec.getReplenishRate() > 0;
+    }
+
+    private static long interval(RateLimitSpec spec) {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / spec.getReplenishRate());
+    }
+
+    /*
+     * Key sent by the client, null when the limit is by IP or the request doesn't have it
+     */
+    private String clientKey(RateLimitSpec spec, ServerHttpRequest request) {
+        String resolver = (spec.getKeyResolver() == null) ? RateLimitSpec.IP_KEY : spec.getKeyResolver();
+        if (RateLimitSpec.JWT_SUBJECT_KEY.equals(resolver)) {
+            return jwtSubject(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        } else if (resolver.startsWith(RateLimitSpec.HEADER_KEY_PREFIX)) {
+            return request.getHeaders().getFirst(resolver.substring(RateLimitSpec.HEADER_KEY_PREFIX.length()));
+        }
+        return null;
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        return (address == null || address.getAddress() == null) ? "unknown" : address.getAddress().getHostAddress();
+    }
+
+    /*
+     * The subject is only used to tell clients apart, the token is not verified here (see canAddClient)
+     */
+    private String jwtSubject(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String[] parts = authorization.substring("Bearer ".length()).trim().split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            JsonNode claims = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            JsonNode subject = claims.get("sub");
+            return (subject == null) ? null : "sub:" + subject.asText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void update(Map<String, RateLimitSpec> limits, String name, RateLimitSpec spec) {
+        RateLimitSpec previous = (spec == null) ? limits.remove(name) : limits.put(name, spec);
+        if (previous == null ? spec != null : !previous.equals(spec)) {
+            logger.info("> Rate limit for " + name + ": " + spec);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tech.jhipster.operator.routes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Lock free token bucket for one client, using the generic cell rate algorithm (GCRA)
+ *  - The whole state is one long: the time at which the bucket will be full again (theoretical arrival time)
+ *  - Rate and burst are passed on each call, so limit changes apply right away to the existing buckets
+ *  - A bucket that is full again holds no information and can be dropped
+ */
+public class RateLimitBucket {
+
+    private final AtomicLong fullAt;
+
+    public RateLimitBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /*
+     * Take one permit, returns 0 if it was available or the nanos until it will be available
+     */
+    public long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long updated = Math.max(current, now) + intervalNanos;
+            long excess = updated - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, updated)) {
+                return 0;
+            }
+        }
+    }
+
+    /*
+     * Give back a permit taken by tryAcquire
+     */
+    public void release(long intervalNanos) {
+        fullAt.addAndGet(-intervalNanos);
+    }
+
+    public boolean isIdle(long now) {
+        return fullAt.get() <= now;
+    }
+}
@@ -0,0 +1,141 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Gateway filter (RequestCoalescing) that sends identical concurrent GETs upstream only once
+ *  - The first request (leader) goes upstream, the ones that arrive while it is in flight (followers) wait for it
+ *  - Followers get a copy of the response of the leader only if it was successful (2xx), without cookies and not
+ *    too big: otherwise each follower goes upstream on its own
+ *  - Requests are identical if route, path, query, credentials (Authorization) and the values of the vary headers
+ *    are the same, requests of different users are never coalesced
+ */
+public class RequestCoalescingGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    public static final String ROUTE_ID_KEY = "routeId";
+    public static final String VARY_HEADERS_KEY = "varyHeaders";
+    public static final String MAX_BODY_BYTES_KEY = "maxBodyBytes";
+
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList(ROUTE_ID_KEY, VARY_HEADERS_KEY, MAX_BODY_BYTES_KEY);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> varyHeaders = config.getVaryHeadersList();
+        // The response needs to be decorated before the NettyWriteResponseFilter writes it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = coalescingKey(config.getRouteId(), request, varyHeaders);
+            Flight flight = new Flight();
+            Flight leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                meterRegistry.counter("jhipster.operator.coalescing.requests", "route", config.getRouteId(), "role", "follower").increment();
+                return leader.result.flatMap(response -> response.isPresent() ?
+                        response.get().writeTo(exchange.getResponse()) : chain.filter(exchange));
+            }
+            meterRegistry.counter("jhipster.operator.coalescing.requests", "route", config.getRouteId(), "role", "leader").increment();
+            CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(),
+                    RequestCoalescingGatewayFilterFactory::isShareable, config.getMaxBodyBytes(), null,
+                    captured -> complete(key, flight, captured));
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doFinally(signal -> complete(key, flight, null));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    static String coalescingKey(String routeId, ServerHttpRequest request, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(routeId).append('|')
+                .append(request.getURI().getRawPath()).append('?').append(request.getURI().getRawQuery())
+                .append('|').append(request.getHeaders().get(HttpHeaders.AUTHORIZATION));
+        for (String header : varyHeaders) {
+            key.append('|').append(request.getHeaders().get(header));
+        }
+        return key.toString();
+    }
+
+    static boolean isShareable(ServerHttpResponse response) {
+        return response.getStatusCode() != null && response.getStatusCode().is2xxSuccessful()
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private void complete(String key, Flight flight, CachedResponse response) {
+        // Remove it first, requests arriving from now on need a new flight
+        inFlight.remove(key, flight);
+        if (flight.completed.compareAndSet(false, true)) {
+            flight.result.onNext(Optional.ofNullable(response));
+        }
+    }
+
+    private static class Flight {
+        private final MonoProcessor<Optional<CachedResponse>> result = MonoProcessor.create();
+        private final AtomicBoolean completed = new AtomicBoolean();
+    }
+
+    public static class Config {
+
+        private String routeId;
+        private String varyHeaders = "";
+        private int maxBodyBytes = 1024 * 1024;
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public String getVaryHeaders() {
+            return varyHeaders;
+        }
+
+        public void setVaryHeaders(String varyHeaders) {
+            this.varyHeaders = varyHeaders;
+        }
+
+        public List<String> getVaryHeadersList() {
+            return Arrays.asList(varyHeaders.trim().isEmpty() ? new String[0] : varyHeaders.trim().split("\\s*,\\s*"));
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.Counter;
+import tech.jhipster.operator.crds.app.CacheSpec;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Response cache for one route, bounded by the weight of the responses instead of the number of entries
+ *  - Least recently used responses are evicted first, expired responses are removed when they are found
+ *  - Responses bigger than a single entry limit are never stored
+ */
+public class ResponseCache {
+
+    private final CacheSpec spec;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long offHeapBytes;
+
+    public ResponseCache(CacheSpec spec, Counter hits, Counter misses, Counter evictions) {
+        this.spec = spec;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response;
+    }
+
+    public synchronized void put(String key, CachedResponse response, long ttlMillis) {
+        if (ttlMillis <= 0 || response.getSize() > getMaxEntryBytes() || response.getWeight() > getMaxWeightBytes()) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+        add(response, 1);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > getMaxWeightBytes() && eldest.hasNext()) {
+            CachedResponse evicted = eldest.next().getValue().response;
+            eldest.remove();
+            add(evicted, -1);
+            evictions.increment();
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            add(removed.response, -1);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        offHeapBytes = 0;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public CacheSpec getSpec() {
+        return spec;
+    }
+
+    public int getMaxEntryBytes() {
+        return (spec.getMaxEntryBytes() == null) ? Integer.MAX_VALUE : spec.getMaxEntryBytes();
+    }
+
+    public long getMaxWeightBytes() {
+        return (spec.getMaxWeightBytes() == null) ? Long.MAX_VALUE : spec.getMaxWeightBytes();
+    }
+
+    public long getDefaultTtlMillis() {
+        return (spec.getTtlSeconds() == null) ? 0 : spec.getTtlSeconds() * 1000;
+    }
+
+    private void add(CachedResponse response, int sign) {
+        weight += sign * response.getWeight();
+        if (response.isOffHeap()) {
+            offHeapBytes += sign * response.getSize();
+        }
+    }
+
+    private static class Entry {
+        private final CachedResponse response;
+        private final long expiresAt;
+
+        private Entry(CachedResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
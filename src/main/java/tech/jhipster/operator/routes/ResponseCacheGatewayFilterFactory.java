@@ -0,0 +1,163 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Gateway filter (ResponseCache) that serves GET requests from the response cache of the route
+ *  - Only 200 responses without Set-Cookie, no-store, private or no-cache are stored
+ *  - TTL comes from s-maxage or max-age, and from the cache spec when the service doesn't say anything
+ *  - If-None-Match requests that match the ETag of the cached response get a 304 without going upstream
+ *  - Requests with Cache-Control: no-cache or no-store skip the cached response
+ *  - Requests with Authorization have their own entries, and the responses to them are only stored when they are
+ *    explicitly shared (public, s-maxage or must-revalidate, RFC 7234 3.2), so one user never gets another's
+ */
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String ROUTE_ID_KEY = "routeId";
+
+    private ResponseCaches responseCaches;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCaches responseCaches) {
+        super(Config.class);
+        this.responseCaches = responseCaches;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList(ROUTE_ID_KEY);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // The response needs to be decorated before the NettyWriteResponseFilter writes it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ResponseCache cache = responseCaches.get(config.getRouteId());
+            ServerHttpRequest request = exchange.getRequest();
+            if (cache == null || request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String requestCacheControl = request.getHeaders().getCacheControl();
+            if (hasDirective(requestCacheControl, "no-store")) {
+                return chain.filter(exchange);
+            }
+            String key = cacheKey(request);
+            if (!hasDirective(requestCacheControl, "no-cache")) {
+                CachedResponse cached = cache.get(key);
+                if (cached != null) {
+                    if (cached.getETag() != null && request.getHeaders().getIfNoneMatch().contains(cached.getETag())) {
+                        exchange.getResponse().setStatusCode(HttpStatus.NOT_MODIFIED);
+                        exchange.getResponse().getHeaders().setETag(cached.getETag());
+                        return exchange.getResponse().setComplete();
+                    }
+                    return cached.writeTo(exchange.getResponse());
+                }
+            }
+            boolean authorized = isAuthorized(request);
+            CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(),
+                    r -> isCacheable(r, authorized), cache.getMaxEntryBytes(), cache.getSpec().getOffHeapThresholdBytes(),
+                    captured -> {
+                        if (captured != null) {
+                            cache.put(key, captured, ttlMillis(captured.getHeaders(), cache.getDefaultTtlMillis()));
+                        }
+                    });
+            return chain.filter(exchange.mutate().response(response).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    static String cacheKey(ServerHttpRequest request) {
+        // Accept-Encoding is the only Vary header that we accept, so it is part of the key
+        String encoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        String key = request.getURI().getRawPath() + "?" + request.getURI().getRawQuery() + "|" + encoding;
+        // Entries for requests with credentials are never served to anonymous requests, nor the other way round
+        return isAuthorized(request) ? key + "|authorized" : key;
+    }
+
+    static boolean isAuthorized(ServerHttpRequest request) {
+        return request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION);
+    }
+
+    static boolean isCacheable(ServerHttpResponse response, boolean authorized) {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatusCode() != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "private") || hasDirective(cacheControl, "no-cache")) {
+            return false;
+        }
+        if (authorized && !hasDirective(cacheControl, "public") && !hasDirective(cacheControl, "s-maxage")
+                && !hasDirective(cacheControl, "must-revalidate")) {
+            return false;
+        }
+        for (String vary : headers.getVary()) {
+            if (!HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(vary.trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long ttlMillis(HttpHeaders headers, long defaultTtlMillis) {
+        String cacheControl = headers.getCacheControl();
+        Long seconds = directiveValue(cacheControl, "s-maxage");
+        if (seconds == null) {
+            seconds = directiveValue(cacheControl, "max-age");
+        }
+        return (seconds == null) ? defaultTtlMillis : seconds * 1000;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String part : cacheControl.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.equals(directive) || name.startsWith(directive + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long directiveValue(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return null;
+        }
+        for (String part : cacheControl.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.startsWith(directive + "=")) {
+                try {
+                    return Long.parseLong(name.substring(directive.length() + 1).replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
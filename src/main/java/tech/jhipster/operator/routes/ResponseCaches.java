@@ -0,0 +1,98 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.crds.app.CacheSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Response caches for the services that declare a cache in their spec, by route id
+ *  - Caches are created when the routes are built and kept (with their content) while the settings don't change
+ *  - Metrics are tagged with the route id: jhipster.operator.cache.requests (result=hit|miss), .evictions, .weight and .offheap
+ *    and they are removed with the cache of the route
+ */
+@Service
+public class ResponseCaches {
+
+    private Logger logger = LoggerFactory.getLogger(ResponseCaches.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, ResponseCache> caches = new ConcurrentHashMap<>();
+    // Route Id -> Meters of its cache
+    private Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public void materialize(String routeId, CacheSpec spec) {
+        if (spec == null) {
+            remove(routeId);
+            return;
+        }
+        ResponseCache current = caches.get(routeId);
+        if (current != null && current.getSpec().equals(spec)) {
+            return;
+        }
+        Counter hits = meterRegistry.counter("jhipster.operator.cache.requests", "route", routeId, "result", "hit");
+        Counter misses = meterRegistry.counter("jhipster.operator.cache.requests", "route", routeId, "result", "miss");
+        Counter evictions = meterRegistry.counter("jhipster.operator.cache.evictions", "route", routeId);
+        caches.put(routeId, new ResponseCache(spec, hits, misses, evictions));
+        // Gauges are registered once per route and always read the current cache of the route
+        meters.computeIfAbsent(routeId, id -> Arrays.asList(hits, misses, evictions,
+                Gauge.builder("jhipster.operator.cache.weight", this, caches -> caches.weightOf(routeId))
+                        .tag("route", routeId)
+                        .register(meterRegistry),
+                Gauge.builder("jhipster.operator.cache.offheap", this, caches -> caches.offHeapBytesOf(routeId))
+                        .tag("route", routeId)
+                        .register(meterRegistry)));
+        logger.info("> Response cache for route " + routeId + " created: " + spec);
+    }
+
+    public ResponseCache get(String routeId) {
+        return caches.get(routeId);
+    }
+
+    public void remove(String routeId) {
+        ResponseCache removed = caches.remove(routeId);
+        if (removed != null) {
+            removed.clear();
+        }
+        List<Meter> routeMeters = meters.remove(routeId);
+        if (routeMeters != null) {
+            routeMeters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /*
+     * Remove the caches of the routes that don't exist anymore
+     */
+    public void retain(Set<String> routeIds) {
+        caches.keySet().stream()
+                .filter(routeId -> !routeIds.contains(routeId))
+                .forEach(this::remove);
+    }
+
+    public Map<String, ResponseCache> getCaches() {
+        return caches;
+    }
+
+    private double weightOf(String routeId) {
+        ResponseCache cache = caches.get(routeId);
+        return (cache == null) ? 0 : cache.getWeight();
+    }
+
+    private double offHeapBytesOf(String routeId) {
+        ResponseCache cache = caches.get(routeId);
+        return (cache == null) ? 0 : cache.getOffHeapBytes();
+    }
+}
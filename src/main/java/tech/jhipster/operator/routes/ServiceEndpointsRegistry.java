@@ -0,0 +1,140 @@
+package tech.jhipster.operator.routes;
+
+import io.fabric8.kubernetes.api.model.EndpointAddress;
+import io.fabric8.kubernetes.api.model.EndpointPort;
+import io.fabric8.kubernetes.api.model.EndpointSubset;
+import io.fabric8.kubernetes.api.model.Endpoints;
+import io.fabric8.kubernetes.api.model.EndpointsList;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Ready pod addresses for each K8s Service port, kept up to date with a watch on the Endpoints of the namespace
+ *  - Pods that are not ready (starting or shutting down) are listed by K8s as not ready addresses and are not used
+ *  - The endpoints for a service are replaced as a whole, but the in flight counters survive the updates
+ */
+@Service
+public class ServiceEndpointsRegistry {
+
+    // Used when we don't know the Service ports yet and the Endpoints only have one port
+    private static final int ANY_PORT = -1;
+
+    private Logger logger = LoggerFactory.getLogger(ServiceEndpointsRegistry.class);
+
+    @Autowired
+    private K8SCoreRuntime k8SCoreRuntime;
+
+    // Service Name -> (Service Port -> Ready Endpoints)
+    private Map<String, Map<Integer, EndpointSet>> endpoints = new ConcurrentHashMap<>();
+
+    private volatile boolean watching = false;
+
+    public void watch() {
+        if (watching) {
+            return;
+        }
+        EndpointsList list = k8SCoreRuntime.listEndpoints();
+        Set<String> found = new HashSet<>();
+        list.getItems().forEach(e -> {
+            found.add(e.getMetadata().getName());
+            endpointsUpdated(e);
+        });
+        endpoints.keySet().retainAll(found);
+        k8SCoreRuntime.watchEndpoints(list.getMetadata().getResourceVersion(), new Watcher<Endpoints>() {
+            @Override
+            public void eventReceived(Action action, Endpoints e) {
+                if (action.equals(Action.DELETED)) {
+                    endpoints.remove(e.getMetadata().getName());
+                } else if (action.equals(Action.ADDED) || action.equals(Action.MODIFIED)) {
+                    endpointsUpdated(e);
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                logger.error(">> K8s Endpoints watch closed: " + ((cause == null) ? "" : cause.getMessage()));
+                watching = false;
+            }
+        });
+        watching = true;
+        logger.info("> Watching Endpoints for " + endpoints.size() + " K8s Services");
+    }
+
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /*
+     * Ready endpoints for a service port, null if we don't know about the service
+     */
+    public EndpointSet getEndpoints(String serviceName, int servicePort) {
+        Map<Integer, EndpointSet> ports = endpoints.get(serviceName);
+        if (ports == null) {
+            return null;
+        }
+        EndpointSet set = ports.get(servicePort);
+        if (set == null) {
+            set = ports.getOrDefault(ANY_PORT, EndpointSet.EMPTY);
+        }
+        return set;
+    }
+
+    private void endpointsUpdated(Endpoints e) {
+        String serviceName = e.getMetadata().getName();
+        List<ServicePort> servicePorts = k8SCoreRuntime.getServicePorts(serviceName);
+        Map<String, UpstreamEndpoint> previous = new HashMap<>();
+        endpoints.getOrDefault(serviceName, Collections.emptyMap()).values()
+                .forEach(set -> set.getEndpoints().forEach(u -> previous.put(u.getAddress(), u)));
+
+        Map<Integer, List<UpstreamEndpoint>> ready = new HashMap<>();
+        if (e.getSubsets() != null) {
+            for (EndpointSubset subset : e.getSubsets()) {
+                if (subset.getPorts() == null || subset.getAddresses() == null) {
+                    continue;
+                }
+                for (EndpointPort endpointPort : subset.getPorts()) {
+                    Integer servicePort = resolveServicePort(servicePorts, endpointPort, subset.getPorts().size());
+                    if (servicePort == null) {
+                        continue;
+                    }
+                    List<UpstreamEndpoint> upstreams = ready.computeIfAbsent(servicePort, p -> new ArrayList<>());
+                    for (EndpointAddress address : subset.getAddresses()) {
+                        UpstreamEndpoint upstream = new UpstreamEndpoint(address.getIp(), endpointPort.getPort());
+                        upstreams.add(previous.getOrDefault(upstream.getAddress(), upstream));
+                    }
+                }
+            }
+        }
+        Map<Integer, EndpointSet> sets = new HashMap<>();
+        ready.forEach((port, upstreams) -> sets.put(port, new EndpointSet(upstreams)));
+        endpoints.put(serviceName, Collections.unmodifiableMap(sets));
+        logger.debug(">> Endpoints for " + serviceName + " updated: " + sets);
+    }
+
+    /*
+     * Endpoints ports are named after the Service port that they target
+     */
+    private Integer resolveServicePort(List<ServicePort> servicePorts, EndpointPort endpointPort, int endpointPortsCount) {
+        if (servicePorts == null) {
+            return (endpointPortsCount == 1) ? ANY_PORT : null;
+        }
+        for (ServicePort servicePort : servicePorts) {
+            if (servicePorts.size() == 1 && endpointPortsCount == 1) {
+                return servicePort.getPort();
+            }
+            if (servicePort.getName() != null && servicePort.getName().equals(endpointPort.getName())) {
+                return servicePort.getPort();
+            }
+        }
+        return null;
+    }
+}
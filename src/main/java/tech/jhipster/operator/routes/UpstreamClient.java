@@ -0,0 +1,59 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import reactor.netty.resources.ConnectionProvider;
+import tech.jhipster.operator.crds.app.UpstreamSpec;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Isolated, pooled, http client for the routes of one service
+ *  - The requests waiting for a connection are bounded, the ones over the limit are rejected right away
+ */
+public class UpstreamClient {
+
+    private final UpstreamSpec spec;
+    private final ConnectionProvider connectionProvider;
+    private final NettyRoutingFilter routingFilter;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public UpstreamClient(UpstreamSpec spec, ConnectionProvider connectionProvider, NettyRoutingFilter routingFilter, int maxInFlight) {
+        this.spec = spec;
+        this.connectionProvider = connectionProvider;
+        this.routingFilter = routingFilter;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public UpstreamSpec getSpec() {
+        return spec;
+    }
+
+    public ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+
+    public NettyRoutingFilter getRoutingFilter() {
+        return routingFilter;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,158 @@
+package tech.jhipster.operator.routes;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import tech.jhipster.operator.crds.app.UpstreamSpec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Pooled http clients for the services that declare their own upstream settings, by route id
+ *  - Clients are created when the routes are built and kept while the settings don't change
+ *  - Replaced clients are disposed after a grace period, so the requests using them can finish
+ */
+@Service
+public class UpstreamClients {
+
+    private static final Duration DISPOSE_GRACE_PERIOD = Duration.ofSeconds(60);
+    private static final String IDLE_HANDLER = "upstreamIdleState";
+    private static final String IDLE_CLOSER = "upstreamIdleCloser";
+
+    private Logger logger = LoggerFactory.getLogger(UpstreamClients.class);
+
+    @Autowired
+    private ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+
+    private Map<String, UpstreamClient> clients = new ConcurrentHashMap<>();
+
+    /*
+     * Make sure that the route uses a client with the given settings, or the shared one if there are no settings
+     */
+    public void materialize(String routeId, UpstreamSpec spec) {
+        if (spec == null) {
+            remove(routeId);
+            return;
+        }
+        UpstreamClient current = clients.get(routeId);
+        if (current != null && current.getSpec().equals(spec)) {
+            return;
+        }
+        clients.put(routeId, create(routeId, spec));
+        logger.info("> Upstream client for route " + routeId + " created: " + spec);
+        if (current != null) {
+            dispose(current);
+        }
+    }
+
+    public UpstreamClient get(String routeId) {
+        return clients.get(routeId);
+    }
+
+    public void remove(String routeId) {
+        UpstreamClient removed = clients.remove(routeId);
+        if (removed != null) {
+            dispose(removed);
+        }
+    }
+
+    /*
+     * Remove the clients of the routes that don't exist anymore
+     */
+    public void retain(Set<String> routeIds) {
+        clients.keySet().stream()
+                .filter(routeId -> !routeIds.contains(routeId))
+                .forEach(this::remove);
+    }
+
+    public Map<String, UpstreamClient> getClients() {
+        return clients;
+    }
+
+    private UpstreamClient create(String routeId, UpstreamSpec spec) {
+        int maxConnections = (spec.getMaxConnections() == null) ? ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS : spec.getMaxConnections();
+        long acquireTimeout = (spec.getPendingAcquireTimeoutMillis() == null) ? ConnectionProvider.DEFAULT_POOL_ACQUIRE_TIMEOUT : spec.getPendingAcquireTimeoutMillis();
+        ConnectionProvider connectionProvider = ConnectionProvider.fixed("upstream-" + routeId, maxConnections, acquireTimeout);
+        HttpClient httpClient = httpClient(connectionProvider, spec);
+
+        HttpClientProperties properties = new HttpClientProperties();
+        if (spec.getResponseTimeoutMillis() != null) {
+            properties.setResponseTimeout(Duration.ofMillis(spec.getResponseTimeoutMillis()));
+        }
+        int maxPending = (spec.getPendingAcquireMaxCount() == null) ? maxConnections : spec.getPendingAcquireMaxCount();
+        return new UpstreamClient(spec, connectionProvider, new NettyRoutingFilter(httpClient, headersFilters, properties), maxConnections + maxPending);
+    }
+
+    /*
+     * Http client on the pool with the connection settings of the spec
+     *  - Idle eviction only watches the connections that are back in the pool: the idle handler is added when a
+     *    connection is released and removed when it is acquired, so a slow response is never cut by it
+     */
+    HttpClient httpClient(ConnectionProvider connectionProvider, UpstreamSpec spec) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .tcpConfiguration(tcpClient -> {
+                    if (spec.getConnectTimeoutMillis() != null) {
+                        tcpClient = tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, spec.getConnectTimeoutMillis());
+                    }
+                    if (spec.getMaxIdleTimeMillis() != null) {
+                        long maxIdleTime = spec.getMaxIdleTimeMillis();
+                        tcpClient = tcpClient.observe((connection, state) -> {
+                            ChannelPipeline pipeline = connection.channel().pipeline();
+                            if (state == ConnectionObserver.State.RELEASED && pipeline.get(IDLE_HANDLER) == null) {
+                                pipeline.addFirst(IDLE_CLOSER, new IdleConnectionCloser());
+                                pipeline.addFirst(IDLE_HANDLER, new IdleStateHandler(0, 0, maxIdleTime, TimeUnit.MILLISECONDS));
+                            } else if (state == ConnectionObserver.State.ACQUIRED && pipeline.get(IDLE_HANDLER) != null) {
+                                pipeline.remove(IDLE_HANDLER);
+                                pipeline.remove(IDLE_CLOSER);
+                            }
+                        });
+                    }
+                    return tcpClient;
+                });
+        if (UpstreamSpec.H2C.equalsIgnoreCase(spec.getProtocol())) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    private void dispose(UpstreamClient client) {
+        Mono.delay(DISPOSE_GRACE_PERIOD)
+                .then(client.getConnectionProvider().disposeLater())
+                .subscribe();
+    }
+
+    /*
+     * Close the connections that were not used for a while, so the pool doesn't keep them forever
+     */
+    private static class IdleConnectionCloser extends ChannelDuplexHandler {
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent) {
+                ctx.close();
+            } else {
+                super.userEventTriggered(ctx, evt);
+            }
+        }
+    }
+}
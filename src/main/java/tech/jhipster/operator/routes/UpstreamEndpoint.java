@@ -0,0 +1,50 @@
+package tech.jhipster.operator.routes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Ready pod address behind a K8s Service and the number of requests that the gateway has in flight against it
+ */
+public class UpstreamEndpoint {
+
+    private final String host;
+    private final int port;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public UpstreamEndpoint(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    public String getAddress() {
+        return host + ":" + port;
+    }
+
+    @Override
+    public String toString() {
+        return "UpstreamEndpoint{" +
+                "address='" + getAddress() + '\'' +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package tech.jhipster.operator.routes;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+/*
+ * Sends the request with the client of the route upstream, if it has one
+ *  - It runs right before the shared NettyRoutingFilter, which skips the requests that we already routed
+ */
+public class UpstreamRoutingFilter implements GlobalFilter, Ordered {
+
+    public static final int UPSTREAM_ROUTING_FILTER_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private UpstreamClients upstreamClients;
+
+    public UpstreamRoutingFilter(UpstreamClients upstreamClients) {
+        this.upstreamClients = upstreamClients;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        UpstreamClient client = upstreamClients.get(route.getId());
+        if (client == null) {
+            return chain.filter(exchange);
+        }
+        if (!client.tryAcquire()) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+        return client.getRoutingFilter().filter(exchange, chain).doFinally(signal -> client.release());
+    }
+
+    @Override
+    public int getOrder() {
+        return UPSTREAM_ROUTING_FILTER_ORDER;
+    }
+}
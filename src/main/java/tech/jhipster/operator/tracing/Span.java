@@ -0,0 +1,128 @@
+package tech.jhipster.operator.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One timed operation of a trace, W3C trace context ids (32 hex trace id, 16 hex span id)
+ *  - Spans started with Tracer.start() are the current span of the thread until they are closed,
+ *    use them with try-with-resources
+ *  - Spans for reactive code (Tracer.startDetached()) are not bound to a thread, call end() when the work is done
+ *  - Ended spans go to the in memory exporter
+ */
+public class Span implements AutoCloseable {
+
+    private final Tracer tracer;
+    private final Span previous;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private volatile long durationNanos = -1;
+    private volatile String error;
+
+    Span(Tracer tracer, Span previous, String traceId, String spanId, String parentSpanId, String name) {
+        this.tracer = tracer;
+        this.previous = previous;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+    }
+
+    public Span setAttribute(String key, Object value) {
+        synchronized (attributes) {
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    public Span error(Throwable e) {
+        this.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return this;
+    }
+
+    /*
+     * End the span and export it, only the first call counts
+     */
+    public void end() {
+        synchronized (this) {
+            if (durationNanos >= 0) {
+                return;
+            }
+            durationNanos = System.nanoTime() - startNanos;
+        }
+        tracer.finished(this);
+    }
+
+    @Override
+    public void close() {
+        end();
+        tracer.restore(this);
+    }
+
+    /*
+     * Value of the traceparent header for the calls done on behalf of this span
+     */
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    Span getPrevious() {
+        return previous;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long getDurationMicros() {
+        return (durationNanos < 0) ? -1 : TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    }
+
+    public Map<String, String> getAttributes() {
+        synchronized (attributes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        }
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "Span{" +
+                "traceId='" + traceId + '\'' +
+                ", spanId='" + spanId + '\'' +
+                ", parentSpanId='" + parentSpanId + '\'' +
+                ", name='" + name + '\'' +
+                ", durationMicros=" + getDurationMicros() +
+                ", attributes=" + getAttributes() +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package tech.jhipster.operator.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * In memory exporter: the last ended spans in a fixed size ring, the oldest ones are overwritten
+ *  - Adding a span is lock free, so it can be done from the request threads
+ */
+public class SpanRing {
+
+    private final AtomicReferenceArray<Span> spans;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.spans = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(Span span) {
+        long index = next.getAndIncrement();
+        spans.set((int) (index % spans.length()), span);
+    }
+
+    /*
+     * The spans in the ring, oldest first
+     */
+    public List<Span> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - spans.length());
+        List<Span> result = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Span span = spans.get((int) (i % spans.length()));
+            if (span != null) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    public int getCapacity() {
+        return spans.length();
+    }
+}
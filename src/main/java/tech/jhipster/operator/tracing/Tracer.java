@@ -0,0 +1,114 @@
+package tech.jhipster.operator.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+ * Minimal tracer for the operator: bootstrap, watches, reconcile, K8s API calls, route building and proxied requests
+ *  - Ended spans are kept in memory (SpanRing) and served by the traces actuator endpoint, no collector needed
+ *  - Trace context comes in and goes out as W3C traceparent headers
+ */
+@Service
+public class Tracer {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final Pattern TRACEPARENT_FORMAT = Pattern.compile("^[0-9a-f]{2}-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}$");
+
+    @Value("${jhipster.operator.tracing.capacity:4096}")
+    private int capacity;
+
+    private SpanRing ring;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    @PostConstruct
+    public void init() {
+        ring = new SpanRing(capacity);
+    }
+
+    /*
+     * Start a span as a child of the current span of the thread (or a new trace) and make it the current one
+     */
+    public Span start(String name) {
+        Span parent = current.get();
+        Span span = (parent == null)
+                ? new Span(this, null, newTraceId(), newSpanId(), null, name)
+                : new Span(this, parent, parent.getTraceId(), newSpanId(), parent.getSpanId(), name);
+        current.set(span);
+        return span;
+    }
+
+    /*
+     * Start a span that is not bound to the thread, child of a traceparent header if it is valid
+     */
+    public Span startDetached(String name, String traceparent) {
+        if (traceparent != null) {
+            Matcher matcher = TRACEPARENT_FORMAT.matcher(traceparent.trim());
+            if (matcher.matches() && !matcher.group(1).matches("0+") && !matcher.group(2).matches("0+")) {
+                return new Span(this, null, matcher.group(1), newSpanId(), matcher.group(2), name);
+            }
+        }
+        return new Span(this, null, newTraceId(), newSpanId(), null, name);
+    }
+
+    /*
+     * Current span of the thread, null if there is none
+     */
+    public Span current() {
+        return current.get();
+    }
+
+    public List<Span> getSpans() {
+        return ring.snapshot();
+    }
+
+    public List<Span> getTrace(String traceId) {
+        return ring.snapshot().stream()
+                .filter(span -> span.getTraceId().equals(traceId))
+                .collect(Collectors.toList());
+    }
+
+    void finished(Span span) {
+        ring.add(span);
+    }
+
+    void restore(Span span) {
+        if (current.get() == span) {
+            if (span.getPrevious() == null) {
+                current.remove();
+            } else {
+                current.set(span.getPrevious());
+            }
+        }
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return hex(random.nextLong() | 1) + hex(random.nextLong());
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong() | 1);
+    }
+
+    private static String hex(long value) {
+        String hex = Long.toHexString(value);
+        StringBuilder padded = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            padded.append('0');
+        }
+        return padded.append(hex).toString();
+    }
+}
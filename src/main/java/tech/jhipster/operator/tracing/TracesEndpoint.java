@@ -0,0 +1,40 @@
+package tech.jhipster.operator.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ * Actuator endpoint for the spans kept in memory
+ *  - /actuator/traces: the last spans, newest first, optionally only the ones with a given name
+ *  - /actuator/traces/{traceId}: all the spans of a trace, oldest first
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    @Autowired
+    private Tracer tracer;
+
+    @ReadOperation
+    public List<Span> spans(@Nullable String name, @Nullable Integer limit) {
+        List<Span> spans = tracer.getSpans();
+        Collections.reverse(spans);
+        return spans.stream()
+                .filter(span -> name == null || span.getName().equals(name))
+                .limit((limit == null) ? 100 : limit)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOperation
+    public List<Span> trace(@Selector String traceId) {
+        return tracer.getTrace(traceId);
+    }
+}
@@ -0,0 +1,59 @@
+package tech.jhipster.operator.tracing;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/*
+ * One span for each proxied request, covering the whole gateway filter chain and the call to the upstream service
+ *  - The span continues the trace of the incoming traceparent header, if any
+ *  - The upstream service gets a traceparent header with this span as the parent
+ */
+public class TracingGlobalFilter implements GlobalFilter, Ordered {
+
+    // First, so the span covers all the other filters
+    public static final int TRACING_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    public static final String SPAN_ATTR = TracingGlobalFilter.class.getName() + ".span";
+
+    private Tracer tracer;
+
+    public TracingGlobalFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Span span = tracer.startDetached("gateway.request", request.getHeaders().getFirst(Tracer.TRACEPARENT));
+        span.setAttribute("http.method", request.getMethodValue());
+        span.setAttribute("http.path", request.getPath().value());
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            span.setAttribute("route", route.getId());
+        }
+        exchange.getAttributes().put(SPAN_ATTR, span);
+        ServerHttpRequest traced = request.mutate()
+                .headers(headers -> headers.set(Tracer.TRACEPARENT, span.traceparent()))
+                .build();
+        return chain.filter(exchange.mutate().request(traced).build())
+                .doOnError(span::error)
+                .doFinally(signal -> {
+                    if (exchange.getResponse().getStatusCode() != null) {
+                        span.setAttribute("http.status", exchange.getResponse().getStatusCode().value());
+                    }
+                    span.end();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return TRACING_FILTER_ORDER;
+    }
+}
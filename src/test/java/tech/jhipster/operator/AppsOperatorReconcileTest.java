@@ -0,0 +1,238 @@
+package tech.jhipster.operator;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.DeploymentReadiness;
+import tech.jhipster.operator.app.HealthProbeScheduler;
+import tech.jhipster.operator.app.ReconcileDecision;
+import tech.jhipster.operator.app.ReconcileJournal;
+import tech.jhipster.operator.app.ReconcileRetries;
+import tech.jhipster.operator.app.StatusFlusher;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+import tech.jhipster.operator.routes.ServiceEndpointsRegistry;
+import tech.jhipster.operator.tracing.Tracer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+/*
+ * Reconcile passes against an API Server that records the status writes, to check which apps are processed again
+ */
+public class AppsOperatorReconcileTest {
+
+    // Status and observedGeneration of each write that got to the API Server
+    private List<String> writes = new CopyOnWriteArrayList<>();
+    private volatile int resourceVersion = 1;
+    // K8s Service Name -> resourceVersion, as seen by the services watch
+    private Map<String, String> serviceVersions = new HashMap<>();
+    // K8s Service Name -> readiness, as seen by the Deployments watch
+    private Map<String, Boolean> readiness = new HashMap<>();
+    private AppService appService = new AppService();
+    private ReconcileJournal journal = new ReconcileJournal();
+    private ReconcileRetries retries = new ReconcileRetries();
+    private StatusFlusher flusher = new StatusFlusher();
+    private AppsOperator appsOperator = new AppsOperator();
+
+    @Before
+    public void setUp() {
+        K8SCoreRuntime k8SCoreRuntime = new K8SCoreRuntime() {
+            @Override
+            public boolean isWatchingServices() {
+                return true;
+            }
+
+            @Override
+            public String getServiceVersion(String serviceName) {
+                return serviceVersions.get(serviceName);
+            }
+
+            @Override
+            public boolean isServiceAvailable(String serviceName, ApiPriority priority) {
+                return serviceVersions.containsKey(serviceName);
+            }
+
+            @Override
+            public String findExternalIP() {
+                return "1.2.3.4";
+            }
+
+            @Override
+            public <T extends HasMetadata> T updateStatus(CustomResourceDefinition crd, T resource, Class<T> type, ApiPriority priority) {
+                Application stored = Serialization.unmarshal(Serialization.asJson(resource), Application.class);
+                stored.getMetadata().setResourceVersion(String.valueOf(++resourceVersion));
+                writes.add(stored.getStatus().getStatus() + "@" + stored.getStatus().getObservedGeneration());
+                return type.cast(stored);
+            }
+
+            @Override
+            public <T> T call(ApiPriority priority, Supplier<T> apiCall) {
+                throw new AssertionError("No other call to the API Server is expected");
+            }
+        };
+        DeploymentReadiness deploymentReadiness = new DeploymentReadiness() {
+            @Override
+            public boolean isWatching() {
+                return true;
+            }
+
+            @Override
+            public Boolean isServiceReady(String serviceName) {
+                return readiness.get(serviceName);
+            }
+        };
+        ServiceEndpointsRegistry serviceEndpointsRegistry = new ServiceEndpointsRegistry() {
+            @Override
+            public boolean isWatching() {
+                return true;
+            }
+        };
+        HealthProbeScheduler healthProbes = new HealthProbeScheduler();
+        Tracer tracer = new Tracer();
+        inject(tracer, "capacity", 64);
+        tracer.init();
+        inject(journal, "size", 64);
+        journal.init();
+        inject(retries, "initialDelay", 50L);
+        inject(retries, "maxDelay", 60000L);
+        inject(retries, "jitter", 0.0);
+        inject(retries, "meterRegistry", new SimpleMeterRegistry());
+        retries.init();
+        OwnWrites ownWrites = new OwnWrites();
+        inject(ownWrites, "capacity", 1024);
+        inject(ownWrites, "meterRegistry", new SimpleMeterRegistry());
+        ownWrites.init();
+        // Written by drain(), so each pass can be checked right away
+        inject(flusher, "flushWindow", 60000L);
+        inject(flusher, "concurrency", 1);
+        inject(flusher, "conflictRetries", 3);
+        inject(flusher, "drainTimeout", 5000L);
+        inject(flusher, "initialDelay", 50L);
+        inject(flusher, "maxDelay", 1000L);
+        inject(flusher, "jitter", 0.0);
+        inject(flusher, "appService", appService);
+        inject(flusher, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(flusher, "ownWrites", ownWrites);
+        inject(flusher, "meterRegistry", new SimpleMeterRegistry());
+        inject(flusher, "applicationCRD", new CustomResourceDefinition());
+        flusher.init();
+        inject(appService, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(appService, "healthProbes", healthProbes);
+        inject(appService, "deploymentReadiness", deploymentReadiness);
+        inject(appsOperator, "appService", appService);
+        inject(appsOperator, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(appsOperator, "serviceEndpointsRegistry", serviceEndpointsRegistry);
+        inject(appsOperator, "deploymentReadiness", deploymentReadiness);
+        inject(appsOperator, "healthProbes", healthProbes);
+        inject(appsOperator, "tracer", tracer);
+        inject(appsOperator, "reconcileJournal", journal);
+        inject(appsOperator, "reconcileRetries", retries);
+        inject(appsOperator, "statusFlusher", flusher);
+        inject(appsOperator, "deletionRetention", 600000L);
+        serviceVersions.put("gateway", "10");
+        serviceVersions.put("invoice", "11");
+        serviceVersions.put("registry", "12");
+        appService.addApp("store", application(1L));
+    }
+
+    @After
+    public void tearDown() {
+        flusher.shutdown();
+        retries.shutdown();
+    }
+
+    @Test
+    public void unchangedAppsAreSkipped() {
+        reconcile();
+        assertEquals(Collections.singletonList("HEALTHY@1"), writes);
+        assertEquals(Long.valueOf(1), appService.getApp("store").getObservedGeneration());
+
+        reconcile();
+        reconcile();
+        assertEquals(1, writes.size());
+        assertEquals(1, journal.getDecisions("store", 10).size());
+        assertEquals(1, appsOperator.getReconciledAppsCount());
+    }
+
+    @Test
+    public void aNewGenerationIsReconciledAndItsObservedGenerationWritten() {
+        reconcile();
+        appService.updateAppSpec(application(2L));
+        reconcile();
+
+        assertEquals(Arrays.asList("HEALTHY@1", "HEALTHY@2"), writes);
+        assertEquals(Long.valueOf(2), appService.getApp("store").getObservedGeneration());
+        ReconcileDecision last = journal.getDecisions("store", 10).get(0);
+        assertEquals(Long.valueOf(2), last.getGeneration());
+        assertEquals(ReconcileDecision.Action.STATUS_WRITTEN, last.getAction());
+    }
+
+    @Test
+    public void aChangedDependencyIsReconciledAgain() {
+        reconcile();
+        // The K8s Service changed but the app is still healthy, nothing to write
+        serviceVersions.put("invoice", "13");
+        reconcile();
+        assertEquals(2, journal.getDecisions("store", 10).size());
+        assertEquals(ReconcileDecision.Action.NO_CHANGE, journal.getDecisions("store", 10).get(0).getAction());
+        assertEquals(1, writes.size());
+
+        // The Deployment behind it isn't ready anymore
+        readiness.put("invoice", false);
+        reconcile();
+        assertEquals(Arrays.asList("HEALTHY@1", "UNHEALTHY@1"), writes);
+        assertEquals("UNHEALTHY", appService.getApp("store").getStatus());
+
+        readiness.put("invoice", true);
+        reconcile();
+        assertEquals(Arrays.asList("HEALTHY@1", "UNHEALTHY@1", "HEALTHY@1"), writes);
+    }
+
+    private void reconcile() {
+        appsOperator.reconcile();
+        assertTrue(flusher.drain());
+    }
+
+    private static Application application(Long generation) {
+        Application application = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName("store");
+        metadata.setNamespace("default");
+        metadata.setResourceVersion("1");
+        metadata.setGeneration(generation);
+        application.setMetadata(metadata);
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setVersion("1.0");
+        JHipsterApplicationDefinition appDefinition = new JHipsterApplicationDefinition("store", "1.0");
+        appDefinition.addModule(new JHipsterModuleDefinition("gateway", "gateway"));
+        appDefinition.addModule(new JHipsterModuleDefinition("invoice", "microservice"));
+        spec.setAppDefinition(appDefinition);
+        spec.setMicroservices(new HashSet<>(Collections.singletonList(new MicroServiceDescr("invoice", "MicroService", "invoice"))));
+        spec.setGateway("gateway");
+        spec.setRegistry("registry");
+        application.setSpec(spec);
+        return application;
+    }
+}
@@ -0,0 +1,255 @@
+package tech.jhipster.operator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/*
+ * Throughput and latency added by the gateway layer of the operator (routes, filters and proxying)
+ *  - The operator runs in this JVM against MockApiServer, with one app routed to an in-process Netty stub upstream;
+ *    the same load is sent to the stub directly first, the difference is what the gateway adds
+ *  - Open-loop load: requests are sent at a fixed rate whatever the responses do, and their latency is measured from
+ *    the time they were due, so stalls of the gateway are not hidden by a load that slows down with it
+ *  - Repeated for each route table size (microservices of the app), the requests are spread over all their routes
+ *  - Allocation per request counts the bytes allocated by the live threads of this JVM, load generator included,
+ *    that's why it is also reported as the difference with the direct run
+ *  - It is not part of the regular tests, run it with: mvn -Pbenchmark test -Dtest=GatewayBenchmark
+ *  - Errors are the requests that didn't get a 200, with the default settings the adaptive concurrency limit of each
+ *    route sheds the load (503) when the gateway can't keep up with the rate
+ *  - -Dbenchmark.rate (requests/s, 1000), -Dbenchmark.duration (s, 10), -Dbenchmark.warmup (s, 5),
+ *    -Dbenchmark.microservices (route table sizes, 1,100,1000), -Dbenchmark.connections (client connections, 256),
+ *    -Dbenchmark.operator-properties="..." (space separated key=value, e.g. jhipster.operator.concurrency-limit.enabled=false)
+ */
+public class GatewayBenchmark {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Test
+    public void addedLatency() throws Exception {
+        int rate = Integer.getInteger("benchmark.rate", 1000);
+        long duration = Long.getLong("benchmark.duration", 10);
+        long warmup = Long.getLong("benchmark.warmup", 5);
+        int connections = Integer.getInteger("benchmark.connections", 256);
+        List<Integer> sizes = Arrays.stream(System.getProperty("benchmark.microservices", "1,100,1000").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+
+        // The upstream and the load generator have their own event loops: they don't compete with the gateway for the
+        // global ones, and they survive the global ones being disposed when each operator context is closed
+        LoopResources upstreamLoops = LoopResources.create("benchmark-upstream", 2, true);
+        DisposableServer upstream = HttpServer.create()
+                .tcpConfiguration(tcp -> tcp.runOn(upstreamLoops))
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> response.sendString(Mono.just("ok")))
+                .bindNow();
+        LoopResources clientLoops = LoopResources.create("benchmark-client", 2, true);
+        ConnectionProvider directConnections = ConnectionProvider.fixed("benchmark-direct", connections);
+        try {
+            HttpClient directClient = client(directConnections, clientLoops).baseUrl("http://127.0.0.1:" + upstream.port());
+            List<String> directPaths = Collections.singletonList("/");
+            load(directClient, directPaths, rate, warmup);
+            Result direct = load(directClient, directPaths, rate, duration);
+            System.out.println("> Direct to the upstream: " + direct);
+            assertEquals(0, direct.errors);
+
+            for (int microServices : sizes) {
+                Result gateway = loadThroughGateway(clientLoops, connections, upstream.port(), microServices, rate, duration, warmup);
+                System.out.println("> " + microServices + " microservices (" + gateway.routes + " routes): " + gateway);
+                System.out.println("  added latency (us) p50: " + (gateway.percentileMicros(50) - direct.percentileMicros(50))
+                        + ", p99: " + (gateway.percentileMicros(99) - direct.percentileMicros(99))
+                        + ", p999: " + (gateway.percentileMicros(99.9) - direct.percentileMicros(99.9))
+                        + ", added allocation: " + (gateway.bytesPerRequest() - direct.bytesPerRequest()) + " bytes/request");
+                assertTrue("No request was served through the gateway", gateway.errors < gateway.requests);
+            }
+        } finally {
+            directConnections.dispose();
+            clientLoops.dispose();
+            upstream.disposeNow();
+            upstreamLoops.dispose();
+        }
+    }
+
+    private HttpClient client(ConnectionProvider connectionProvider, LoopResources loops) {
+        return HttpClient.create(connectionProvider).tcpConfiguration(tcp -> tcp.runOn(loops));
+    }
+
+    private Result loadThroughGateway(LoopResources clientLoops, int connections, int upstreamPort, int microServices,
+                                      int rate, long duration, long warmup) throws Exception {
+        MockApiServer apiServer = MockCluster.store(upstreamPort, microServices);
+        apiServer.start();
+        ConfigurableApplicationContext operator = startOperator(apiServer);
+        // Closed before the operator, its web server doesn't stop while there are connections to it
+        ConnectionProvider gatewayConnections = ConnectionProvider.fixed("benchmark-gateway", connections);
+        try {
+            int port = ((ReactiveWebServerApplicationContext) operator).getWebServer().getPort();
+            HttpClient gatewayClient = client(gatewayConnections, clientLoops).baseUrl("http://127.0.0.1:" + port);
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < microServices; i++) {
+                paths.add("/apps/store/1.0/" + OperatorRoutesLocator.MICROSERVICES_PATH + "/" + MockCluster.microServiceName(i) + "/");
+            }
+            waitForRoute(gatewayClient, paths.get(paths.size() - 1));
+            load(gatewayClient, paths, rate, warmup);
+            Result result = load(gatewayClient, paths, rate, duration);
+            result.routes = operator.getBeansOfType(OperatorRoutesLocator.class).values().stream()
+                    .mapToInt(OperatorRoutesLocator::getRoutesCount)
+                    .sum();
+            return result;
+        } finally {
+            gatewayConnections.dispose();
+            operator.close();
+            apiServer.stop();
+        }
+    }
+
+    private ConfigurableApplicationContext startOperator(MockApiServer apiServer) {
+        System.setProperty("kubernetes.master", apiServer.getUrl());
+        System.setProperty("kubernetes.namespace", MockCluster.NAMESPACE);
+        System.setProperty("kubernetes.auth.tryKubeConfig", "false");
+        System.setProperty("kubernetes.auth.tryServiceAccount", "false");
+        // Command line arguments, they override application.properties
+        List<String> args = new ArrayList<>(Arrays.asList("--server.port=0",
+                // The K8s Service names of the mock app don't resolve here, the probes would take its routes down
+                "--jhipster.operator.health.enabled=false",
+                "--logging.level.tech.jhipster.operator=WARN"));
+        String operatorProperties = System.getProperty("benchmark.operator-properties", "").trim();
+        if (!operatorProperties.isEmpty()) {
+            Arrays.stream(operatorProperties.split("\\s+")).forEach(property -> args.add("--" + property));
+        }
+        return new SpringApplicationBuilder(MyApplication.class).run(args.toArray(new String[0]));
+    }
+
+    /*
+     * The first request after a refresh builds the routes, with big route tables it can take a while: each attempt
+     * waits until the deadline, an earlier timeout would cancel the build and the next attempt would start it again
+     */
+    private void waitForRoute(HttpClient client, String path) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Integer status = client.get().uri(path)
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .map(bytes -> response.status().code())
+                            .defaultIfEmpty(response.status().code()))
+                    .timeout(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())))
+                    .onErrorReturn(-1)
+                    .block();
+            if (status != null && status == 200) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("The route " + path + " was not served after 5 minutes");
+    }
+
+    /*
+     * Send rate requests per second for the given seconds, round robin over the paths
+     */
+    private Result load(HttpClient client, List<String> paths, int rate, long seconds) throws InterruptedException {
+        int requests = (int) (rate * seconds);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                wait = due - System.nanoTime();
+            }
+            client.get().uri(paths.get(i % paths.size()))
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .map(bytes -> response.status().code())
+                            .defaultIfEmpty(response.status().code()))
+                    .subscribe(status -> {
+                        latencies.recordValue(Math.min(System.nanoTime() - due, MAX_LATENCY_NANOS));
+                        if (status != 200) {
+                            errors.incrementAndGet();
+                        }
+                    }, error -> {
+                        errors.incrementAndGet();
+                        done.countDown();
+                    }, done::countDown);
+        }
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            errors.addAndGet((int) done.getCount());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return new Result(requests, errors.get(), elapsedNanos, latencies.getIntervalHistogram(),
+                allocatedBytes() - allocatedBefore);
+    }
+
+    private long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static final class Result {
+        private final int requests;
+        private final int errors;
+        private final long elapsedNanos;
+        private final Histogram latencies;
+        private final long allocatedBytes;
+        private int routes;
+
+        private Result(int requests, int errors, long elapsedNanos, Histogram latencies, long allocatedBytes) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        private long throughput() {
+            return (requests - errors) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        private long percentileMicros(double percentile) {
+            return TimeUnit.NANOSECONDS.toMicros(latencies.getValueAtPercentile(percentile));
+        }
+
+        private long bytesPerRequest() {
+            return allocatedBytes / requests;
+        }
+
+        @Override
+        public String toString() {
+            return throughput() + " requests/s, " + errors + " errors, latency (us) p50: " + percentileMicros(50)
+                    + ", p99: " + percentileMicros(99) + ", p999: " + percentileMicros(99.9)
+                    + ", max: " + TimeUnit.NANOSECONDS.toMicros(latencies.getMaxValue())
+                    + ", allocation: " + bytesPerRequest() + " bytes/request";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package tech.jhipster.operator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Very small stand-in for the K8s API Server, good enough to start the operator outside of a cluster
+ *  - GET requests get the resource registered for their path and query, or else the one registered for their path,
+ *    everything else gets a 404
+ *  - Watch requests get a 200 and a stream that stays open without events (fabric8 falls back to HTTP watches)
+ */
+public class MockApiServer {
+
+    private static final String NOT_FOUND = "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\",\"reason\":\"NotFound\",\"code\":404}";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, String> resources = new ConcurrentHashMap<>();
+    private final List<HttpExchange> watches = new CopyOnWriteArrayList<>();
+    // Path and query of the GET requests, as they were sent
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    public MockApiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /*
+     * The path can have a query, as it is sent (encoded), to serve something else for it, e.g. the pages of a list
+     */
+    public MockApiServer respond(String path, Object resource) {
+        resources.put(path, Serialization.asJson(resource));
+        return this;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        watches.forEach(HttpExchange::close);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if ("GET".equals(exchange.getRequestMethod()) && query != null && query.contains("watch=true")) {
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().flush();
+            watches.add(exchange);
+            return;
+        }
+        String body = null;
+        if ("GET".equals(exchange.getRequestMethod())) {
+            String path = exchange.getRequestURI().getRawPath();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            requests.add((rawQuery == null) ? path : path + "?" + rawQuery);
+            body = (rawQuery == null) ? null : resources.get(path + "?" + rawQuery);
+            if (body == null) {
+                body = resources.get(exchange.getRequestURI().getPath());
+            }
+        }
+        byte[] bytes = ((body == null) ? NOT_FOUND : body).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders((body == null) ? 404 : 200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package tech.jhipster.operator;
+
+import io.fabric8.kubernetes.api.model.EndpointsList;
+import io.fabric8.kubernetes.api.model.EndpointsListBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceList;
+import io.fabric8.kubernetes.api.model.ServiceListBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionList;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionListBuilder;
+import tech.jhipster.operator.app.AppCRDs;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationList;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.ServiceSpec;
+import tech.jhipster.operator.crds.gateway.Gateway;
+import tech.jhipster.operator.crds.gateway.GatewayList;
+import tech.jhipster.operator.crds.microservice.MicroService;
+import tech.jhipster.operator.crds.microservice.MicroServiceList;
+import tech.jhipster.operator.crds.registry.Registry;
+import tech.jhipster.operator.crds.registry.RegistryList;
+import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * A cluster for the benchmarks: one app called store (version 1.0) with a gateway, a registry and some microservices
+ *  - All of them point to the same upstream through a K8s Service called localhost
+ *  - The gateway is served at /apps/store/1.0/ and each microservice at /apps/store/1.0/services/<name>/
+ */
+public class MockCluster {
+
+    public static final String NAMESPACE = "default";
+    private static final String CRDS_PATH = "/apis/" + AppCRDs.APP_CRD_GROUP + "/v1/namespaces/" + NAMESPACE + "/";
+    private static final String ALL_CRDS_PATH = "/apis/" + AppCRDs.APP_CRD_GROUP + "/v1/";
+
+    public static String microServiceName(int index) {
+        return "invoice-" + index;
+    }
+
+    public static MockApiServer store(int upstreamPort, int microServicesCount) throws IOException {
+        CustomResourceDefinitionList crds = new CustomResourceDefinitionListBuilder()
+                .withItems(crd("applications", "Application"), crd("microservices", "MicroService"),
+                        crd("gateways", "Gateway"), crd("registries", "Registry"))
+                .build();
+
+        Application app = new Application();
+        app.setApiVersion(AppCRDs.APP_CRD_GROUP + "/v1");
+        app.setKind("Application");
+        app.setMetadata(metadata("store"));
+        ApplicationSpec appSpec = new ApplicationSpec();
+        appSpec.setVersion("1.0");
+        JHipsterApplicationDefinition appDefinition = new JHipsterApplicationDefinition("store", "1.0");
+        appDefinition.addModule(new JHipsterModuleDefinition("gateway", "gateway"));
+        for (int i = 0; i < microServicesCount; i++) {
+            appDefinition.addModule(new JHipsterModuleDefinition(microServiceName(i), "microservice"));
+        }
+        appSpec.setAppDefinition(appDefinition);
+        app.setSpec(appSpec);
+        ApplicationList apps = new ApplicationList();
+        apps.setItems(Collections.singletonList(app));
+
+        Gateway gateway = new Gateway();
+        gateway.setApiVersion(AppCRDs.APP_CRD_GROUP + "/v1");
+        gateway.setMetadata(metadata("gateway"));
+        gateway.setSpec(serviceSpec(upstreamPort));
+        GatewayList gateways = new GatewayList();
+        gateways.setItems(Collections.singletonList(gateway));
+
+        List<MicroService> microServiceItems = new ArrayList<>();
+        for (int i = 0; i < microServicesCount; i++) {
+            MicroService microService = new MicroService();
+            microService.setApiVersion(AppCRDs.APP_CRD_GROUP + "/v1");
+            microService.setMetadata(metadata(microServiceName(i)));
+            microService.setSpec(serviceSpec(upstreamPort));
+            microServiceItems.add(microService);
+        }
+        MicroServiceList microServices = new MicroServiceList();
+        microServices.setItems(microServiceItems);
+
+        Registry registry = new Registry();
+        registry.setApiVersion(AppCRDs.APP_CRD_GROUP + "/v1");
+        registry.setMetadata(metadata("jhipster-registry"));
+        registry.setSpec(serviceSpec(upstreamPort));
+        RegistryList registries = new RegistryList();
+        registries.setItems(Collections.singletonList(registry));
+
+        Service service = new ServiceBuilder()
+                .withNewMetadata().withName("localhost").withNamespace(NAMESPACE).withResourceVersion("1").endMetadata()
+                .withNewSpec().addNewPort().withPort(upstreamPort).endPort().endSpec()
+                .build();
+        ServiceList services = new ServiceListBuilder().withItems(service).withNewMetadata().withResourceVersion("1").endMetadata().build();
+        EndpointsList endpoints = new EndpointsListBuilder().withNewMetadata().withResourceVersion("1").endMetadata().build();
+
+        return new MockApiServer()
+                .respond("/apis/apiextensions.k8s.io/v1beta1/customresourcedefinitions", crds)
+                .respond(CRDS_PATH + "applications", apps)
+                .respond(CRDS_PATH + "microservices", microServices)
+                .respond(CRDS_PATH + "gateways", gateways)
+                .respond(CRDS_PATH + "registries", registries)
+                // The routes are built from the resources in all namespaces
+                .respond(ALL_CRDS_PATH + "microservices", microServices)
+                .respond(ALL_CRDS_PATH + "gateways", gateways)
+                .respond(ALL_CRDS_PATH + "registries", registries)
+                .respond("/api/v1/namespaces/" + NAMESPACE + "/services", services)
+                .respond("/api/v1/namespaces/" + NAMESPACE + "/services/localhost", service)
+                .respond("/api/v1/namespaces/" + NAMESPACE + "/endpoints", endpoints);
+    }
+
+    private static CustomResourceDefinition crd(String plural, String kind) {
+        return new CustomResourceDefinitionBuilder()
+                .withNewMetadata().withName(plural + "." + AppCRDs.APP_CRD_GROUP).endMetadata()
+                .withNewSpec()
+                .withGroup(AppCRDs.APP_CRD_GROUP)
+                .withVersion("v1")
+                .withScope("Namespaced")
+                .withNewNames().withPlural(plural).withKind(kind).endNames()
+                .endSpec()
+                .build();
+    }
+
+    private static ObjectMeta metadata(String name) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(NAMESPACE);
+        metadata.setResourceVersion("1");
+        metadata.setGeneration(1L);
+        metadata.setLabels(Collections.singletonMap("app", "store"));
+        return metadata;
+    }
+
+    private static ServiceSpec serviceSpec(int upstreamPort) {
+        ServiceSpec spec = new ServiceSpec();
+        spec.setServiceName("localhost");
+        spec.setServicePort(String.valueOf(upstreamPort));
+        return spec;
+    }
+}
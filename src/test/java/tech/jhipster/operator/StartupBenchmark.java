@@ -0,0 +1,144 @@
+package tech.jhipster.operator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/*
+ * Time from starting the operator process to the first request served through one of its routes
+ *  - The operator runs in its own JVM against MockApiServer, with one app (gateway + registry) routed to a local upstream
+ *  - It is not part of the regular tests, run it with: mvn -Pbenchmark test -Dtest=StartupBenchmark
+ *  - -Dbenchmark.java-opts="..." adds JVM options (e.g. -XX:SharedArchiveFile=app.jsa -Dspring.profiles.active=fast-start),
+ *    -Dbenchmark.jar=... runs a jar built with the fast-start profile instead of the test classpath
+ */
+public class StartupBenchmark {
+
+    @Test
+    public void timeToFirstRoute() throws Exception {
+        int runs = Integer.getInteger("benchmark.runs", 3);
+        long timeoutMillis = Long.getLong("benchmark.timeout", 120000);
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+        MockApiServer apiServer = MockCluster.store(upstream.getAddress().getPort(), 1);
+        apiServer.start();
+        List<Long> times = new ArrayList<>();
+        try {
+            for (int run = 0; run < runs; run++) {
+                times.add(startAndWaitForFirstRoute(apiServer, run, timeoutMillis));
+            }
+        } finally {
+            apiServer.stop();
+            upstream.stop(0);
+        }
+        Collections.sort(times);
+        System.out.println("> Time to first route (ms) min: " + times.get(0) + ", median: " + times.get(times.size() / 2)
+                + ", max: " + times.get(times.size() - 1) + ", runs: " + times);
+        assertEquals(runs, times.size());
+    }
+
+    private long startAndWaitForFirstRoute(MockApiServer apiServer, int run, long timeoutMillis) throws Exception {
+        int port = freePort();
+        File log = new File("target/startup-benchmark-" + run + ".log");
+        log.getParentFile().mkdirs();
+        ProcessBuilder builder = new ProcessBuilder(command(apiServer, port))
+                .redirectErrorStream(true)
+                .redirectOutput(log);
+        long start = System.nanoTime();
+        Process operator = builder.start();
+        try {
+            URL route = new URL("http://127.0.0.1:" + port + "/apps/store/1.0/");
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (System.nanoTime() < deadline) {
+                assertTrue("The operator exited, see " + log, operator.isAlive());
+                if (status(route) == 200) {
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    System.out.println("> Run " + run + ": first route served after " + millis + "ms");
+                    return millis;
+                }
+                Thread.sleep(20);
+            }
+            fail("No route served after " + timeoutMillis + "ms, see " + log);
+            return -1;
+        } finally {
+            operator.destroy();
+            if (!operator.waitFor(10, TimeUnit.SECONDS)) {
+                operator.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(MockApiServer apiServer, int port) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String javaOpts = System.getProperty("benchmark.java-opts", "").trim();
+        if (!javaOpts.isEmpty()) {
+            command.addAll(Arrays.asList(javaOpts.split("\\s+")));
+        }
+        command.add("-Dkubernetes.master=" + apiServer.getUrl());
+        command.add("-Dkubernetes.namespace=" + MockCluster.NAMESPACE);
+        command.add("-Dkubernetes.auth.tryKubeConfig=false");
+        command.add("-Dkubernetes.auth.tryServiceAccount=false");
+        command.add("-Dserver.port=" + port);
+        command.add("-Djhipster.operator.snapshot.path=");
+        // The K8s Service names of the mock apps don't resolve here, the probes would take their routes down
+        command.add("-Djhipster.operator.health.enabled=false");
+        String jar = System.getProperty("benchmark.jar");
+        if (jar != null) {
+            command.add("-jar");
+            command.add(jar);
+        } else {
+            // Surefire runs the tests with a manifest only jar, the real classpath is in its own property
+            String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+            command.add("-cp");
+            command.add(Arrays.stream(classpath.split(File.pathSeparator))
+                    .filter(entry -> !entry.endsWith("test-classes"))
+                    .collect(Collectors.joining(File.pathSeparator)));
+            command.add(MyApplication.class.getName());
+        }
+        return command;
+    }
+
+    private int status(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(500);
+            connection.setReadTimeout(2000);
+            try {
+                return connection.getResponseCode();
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package tech.jhipster.operator;
+
+import java.lang.reflect.Field;
+
+/*
+ * Wiring of the beans under test without a Spring context: sets their (private) autowired fields and @Value properties
+ */
+public class TestBeans {
+
+    public static <T> T inject(T bean, String fieldName, Object value) {
+        for (Class<?> type = bean.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(bean, value);
+                return bean;
+            } catch (NoSuchFieldException e) {
+                // Declared by a superclass
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " in " + bean.getClass());
+    }
+}
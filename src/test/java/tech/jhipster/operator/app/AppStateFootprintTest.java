@@ -0,0 +1,84 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class AppStateFootprintTest {
+
+    private static final int APPS = 1000;
+    private static final int SERVICES_PER_APP = 5;
+    // Budget for an app with a gateway, a registry and 5 microservices, shared strings amortized across apps
+    private static final long MAX_BYTES_PER_APP = 1024;
+
+    @Test
+    public void appsStayUnderTheMemoryBudget() {
+        AppState[] apps = new AppState[APPS];
+        for (int i = 0; i < APPS; i++) {
+            AppState app = AppState.from(application("app-" + i));
+            app = app.withGateway("gateway").withRegistry("jhipster-registry");
+            for (int s = 0; s < SERVICES_PER_APP; s++) {
+                app = app.withMicroService(new MicroServiceDescr(new String("service-" + s), new String("MicroService"), new String("service-" + s)));
+            }
+            apps[i] = app.withStatus("HEALTHY", "http://1.2.3.4/apps/app-" + i + "/1.0/", 1L);
+        }
+        long bytesPerApp = GraphLayout.parseInstance((Object[]) apps).totalSize() / APPS;
+        assertTrue("Bytes per app: " + bytesPerApp, bytesPerApp <= MAX_BYTES_PER_APP);
+    }
+
+    @Test
+    public void jdlIsNotRetained() {
+        Application application = application("app");
+        long withJdl = GraphLayout.parseInstance(application).totalSize();
+        long compact = GraphLayout.parseInstance(AppState.from(application)).totalSize();
+        assertTrue("Application: " + withJdl + " AppState: " + compact, compact * 4 < withJdl);
+    }
+
+    @Test
+    public void repeatedStringsAreShared() {
+        AppState first = AppState.from(application("first"));
+        AppState second = AppState.from(application("second"));
+        assertSame(first.getVersion(), second.getVersion());
+        assertSame(first.getModuleType(0), second.getModuleType(0));
+    }
+
+    private Application application(String name) {
+        StringBuilder jdl = new StringBuilder();
+        JHipsterApplicationDefinition appDefinition = new JHipsterApplicationDefinition(name, new String("1.0"));
+        appDefinition.addModule(new JHipsterModuleDefinition(new String("gateway"), new String("gateway"), "8080"));
+        for (int s = 0; s < SERVICES_PER_APP; s++) {
+            appDefinition.addModule(new JHipsterModuleDefinition(new String("service-" + s), new String("microservice"), "8081"));
+            jdl.append("application { config { baseName service").append(s).append(" applicationType microservice serverPort 8081 } entities * }\n");
+        }
+        for (int e = 0; e < 20; e++) {
+            jdl.append("entity Entity").append(e).append(" { name String required, description TextBlob, created Instant }\n");
+        }
+        appDefinition.setJDLContent(jdl.toString());
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(new String("jhipster"));
+        metadata.setResourceVersion("12345");
+        metadata.setGeneration(1L);
+        metadata.setUid("2f5a1c0e-6b7d-11e9-a923-1681be663d3e");
+        metadata.setAdditionalProperty("jdl", jdl.toString());
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setAppDefinition(appDefinition);
+        spec.setVersion(new String("1.0"));
+        Set<MicroServiceDescr> microservices = new HashSet<>();
+        spec.setMicroservices(microservices);
+        Application application = new Application();
+        application.setMetadata(metadata);
+        application.setSpec(spec);
+        return application;
+    }
+}
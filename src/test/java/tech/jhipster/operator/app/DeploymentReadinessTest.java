@@ -0,0 +1,120 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
+import io.fabric8.kubernetes.api.model.apps.DeploymentListBuilder;
+import io.fabric8.kubernetes.client.Watcher;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+public class DeploymentReadinessTest {
+
+    // K8s Service Name -> Selector
+    private Map<String, Map<String, String>> selectors = new HashMap<>();
+    private DeploymentList existing;
+    private Watcher<Deployment> watcher;
+    private AtomicInteger changes = new AtomicInteger();
+    private DeploymentReadiness readiness = new DeploymentReadiness();
+
+    @Before
+    public void setUp() {
+        inject(readiness, "k8SCoreRuntime", new K8SCoreRuntime() {
+            @Override
+            public DeploymentList listDeployments() {
+                return existing;
+            }
+
+            @Override
+            public void watchDeployments(String resourceVersion, Watcher<Deployment> deploymentsWatcher) {
+                watcher = deploymentsWatcher;
+            }
+
+            @Override
+            public Map<String, String> getServiceSelector(String serviceName) {
+                return selectors.get(serviceName);
+            }
+        });
+        selectors.put("store", labels("app", "store"));
+        selectors.put("registry", labels("app", "jhipster-registry", "tier", "registry"));
+    }
+
+    @Test
+    public void servicesAreBackedByTheDeploymentsWhosePodLabelsMatchTheirSelector() {
+        watch(deployment("store-v1", 0, labels("app", "store", "version", "v1")),
+                deployment("store-v2", 1, labels("app", "store", "version", "v2")),
+                deployment("registry", 1, labels("app", "jhipster-registry")));
+        // Any ready Deployment is enough
+        assertEquals(Boolean.TRUE, readiness.isServiceReady("store"));
+        // All the labels of the selector have to match
+        assertNull(readiness.isServiceReady("registry"));
+        // Unknown Service or no selector
+        assertNull(readiness.isServiceReady("invoice"));
+        selectors.put("invoice", new HashMap<>());
+        assertNull(readiness.isServiceReady("invoice"));
+    }
+
+    @Test
+    public void readinessFollowsTheDeploymentsWatch() {
+        watch(deployment("store", 0, labels("app", "store")));
+        assertEquals(Boolean.FALSE, readiness.isServiceReady("store"));
+
+        watcher.eventReceived(Watcher.Action.MODIFIED, deployment("store", 1, labels("app", "store")));
+        assertEquals(1, changes.get());
+        assertEquals(Boolean.TRUE, readiness.isServiceReady("store"));
+
+        // Same readiness, nothing to reconcile
+        watcher.eventReceived(Watcher.Action.MODIFIED, deployment("store", 2, labels("app", "store")));
+        assertEquals(1, changes.get());
+        assertEquals(Boolean.TRUE, readiness.isServiceReady("store"));
+
+        watcher.eventReceived(Watcher.Action.MODIFIED, deployment("store", 1, labels("app", "shop")));
+        assertEquals(2, changes.get());
+        assertNull(readiness.isServiceReady("store"));
+
+        watcher.eventReceived(Watcher.Action.ADDED, deployment("store-canary", 0, labels("app", "store")));
+        assertEquals(Boolean.FALSE, readiness.isServiceReady("store"));
+
+        watcher.eventReceived(Watcher.Action.DELETED, deployment("store-canary", 0, labels("app", "store")));
+        assertEquals(4, changes.get());
+        assertNull(readiness.isServiceReady("store"));
+    }
+
+    @Test
+    public void aChangedSelectorIsMatchedAgain() {
+        watch(deployment("store", 1, labels("app", "store")), deployment("shop", 0, labels("app", "shop")));
+        assertEquals(Boolean.TRUE, readiness.isServiceReady("store"));
+        selectors.put("store", labels("app", "shop"));
+        assertEquals(Boolean.FALSE, readiness.isServiceReady("store"));
+    }
+
+    private void watch(Deployment... deployments) {
+        existing = new DeploymentListBuilder().withItems(deployments).withNewMetadata().withResourceVersion("1").endMetadata().build();
+        readiness.watch(changes::incrementAndGet);
+        assertTrue(readiness.isWatching());
+    }
+
+    private static Deployment deployment(String name, int readyReplicas, Map<String, String> podLabels) {
+        return new DeploymentBuilder()
+                .withNewMetadata().withName(name).endMetadata()
+                .withNewSpec().withNewTemplate().withNewMetadata().withLabels(podLabels).endMetadata().endTemplate().endSpec()
+                .withNewStatus().withReadyReplicas(readyReplicas).withAvailableReplicas(readyReplicas).endStatus()
+                .build();
+    }
+
+    private static Map<String, String> labels(String... keyValues) {
+        Map<String, String> labels = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            labels.put(keyValues[i], keyValues[i + 1]);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,43 @@
+package tech.jhipster.operator.app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HealthProbeTest {
+
+    private HealthProbe probe = new HealthProbe("invoice");
+
+    @Test
+    public void firstResultDecidesRightAway() {
+        assertEquals(HealthProbe.Health.UNKNOWN, probe.getHealth());
+        assertTrue(probe.record(false, 2, 3));
+        assertEquals(HealthProbe.Health.DOWN, probe.getHealth());
+    }
+
+    @Test
+    public void healthOnlyChangesAfterResultsInARow() {
+        probe.record(true, 2, 3);
+        assertFalse(probe.record(false, 2, 3));
+        assertFalse(probe.record(false, 2, 3));
+        assertFalse(probe.record(true, 2, 3));
+        assertFalse(probe.record(false, 2, 3));
+        assertFalse(probe.record(false, 2, 3));
+        assertTrue(probe.record(false, 2, 3));
+        assertEquals(HealthProbe.Health.DOWN, probe.getHealth());
+
+        assertFalse(probe.record(true, 2, 3));
+        assertTrue(probe.record(true, 2, 3));
+        assertEquals(HealthProbe.Health.UP, probe.getHealth());
+    }
+
+    @Test
+    public void onlyOneProbeInFlight() {
+        long now = System.nanoTime();
+        assertTrue(probe.tryStart(now));
+        assertFalse(probe.tryStart(now));
+        probe.finish(now + 1000);
+        assertFalse(probe.tryStart(now));
+        assertTrue(probe.tryStart(now + 1000));
+    }
+}
@@ -0,0 +1,47 @@
+package tech.jhipster.operator.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReconcileJournalTest {
+
+    private ReconcileJournal journal = new ReconcileJournal();
+
+    @Before
+    public void setUp() {
+        journal.setSize(3);
+        journal.init();
+    }
+
+    @Test
+    public void decisionsAreReturnedNewestFirstPerApp() {
+        journal.record("store", 1L, "UNKNOWN", "UNHEALTHY", Arrays.asList("Gateway"), ReconcileDecision.Action.STATUS_WRITTEN, 1000);
+        journal.record("blog", 1L, "UNKNOWN", "HEALTHY", Collections.emptyList(), ReconcileDecision.Action.STATUS_WRITTEN, 1000);
+        journal.record("store", 2L, "UNHEALTHY", "HEALTHY", null, ReconcileDecision.Action.STATUS_WRITTEN, 2000);
+
+        List<ReconcileDecision> store = journal.getDecisions("store", 10);
+        assertEquals(2, store.size());
+        assertEquals("HEALTHY", store.get(0).getStatus());
+        assertTrue(store.get(0).getMissing().isEmpty());
+        assertEquals(Arrays.asList("Gateway"), store.get(1).getMissing());
+        assertEquals(2, store.get(0).getDurationMicros());
+        assertEquals(1, journal.getDecisions(null, 1).size());
+    }
+
+    @Test
+    public void oldestDecisionsAreOverwritten() {
+        for (long generation = 1; generation <= 5; generation++) {
+            journal.record("store", generation, "HEALTHY", "HEALTHY", null, ReconcileDecision.Action.NO_CHANGE, 0);
+        }
+        List<ReconcileDecision> decisions = journal.getDecisions(null, 10);
+        assertEquals(3, decisions.size());
+        assertEquals(Long.valueOf(5), decisions.get(0).getGeneration());
+        assertEquals(Long.valueOf(3), decisions.get(2).getGeneration());
+    }
+}
@@ -0,0 +1,137 @@
+package tech.jhipster.operator.app;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+public class ReconcileRetriesTest {
+
+    private ReconcileRetries retries = new ReconcileRetries();
+
+    @Before
+    public void setUp() {
+        inject(retries, "initialDelay", 50L);
+        inject(retries, "maxDelay", 60000L);
+        inject(retries, "jitter", 0.0);
+        inject(retries, "meterRegistry", new SimpleMeterRegistry());
+        retries.init();
+    }
+
+    @After
+    public void tearDown() {
+        retries.shutdown();
+    }
+
+    @Test
+    public void theRetryRunsAfterTheBackoff() throws InterruptedException {
+        CountDownLatch retried = new CountDownLatch(1);
+        long started = System.nanoTime();
+        retries.failed("store", "boom", false, retried::countDown);
+        assertFalse(retries.isDue("store"));
+
+        assertTrue(retried.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(retries.isDue("store"));
+        assertEquals(1, retries.getRetryCount());
+        // Still failing until it succeeds
+        assertEquals(1, retries.size());
+    }
+
+    @Test
+    public void theNextFailureReplacesTheScheduledRetry() throws InterruptedException {
+        AtomicInteger first = new AtomicInteger();
+        CountDownLatch second = new CountDownLatch(1);
+        retries.failed("store", "boom", false, first::incrementAndGet);
+        retries.failed("store", "boom again", false, second::countDown);
+
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals(0, first.get());
+        assertEquals(2, retries.getRetries().get(0).getFailures());
+        assertEquals("boom again", retries.getRetries().get(0).getLastError());
+    }
+
+    @Test
+    public void succeededAppsAreBackToTheRegularPasses() throws InterruptedException {
+        AtomicInteger retried = new AtomicInteger();
+        retries.failed("store", "boom", true, retried::incrementAndGet);
+        assertTrue(retries.needsReload("store"));
+        retries.succeeded("store");
+
+        assertTrue(retries.isDue("store"));
+        assertFalse(retries.needsReload("store"));
+        assertEquals(0, retries.size());
+        Thread.sleep(150);
+        assertEquals(0, retried.get());
+    }
+
+    @Test
+    public void appsToBeLoadedAgainAreNeverDueForReconcile() throws InterruptedException {
+        CountDownLatch reloaded = new CountDownLatch(1);
+        retries.failed("store", "MicroService invoice event failed", true, reloaded::countDown);
+
+        assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+        // Past its retry time, only loading it again clears it
+        assertTrue(retries.needsReload("store"));
+        assertFalse(retries.isDue("store"));
+        // Other apps are not affected
+        assertTrue(retries.isDue("shop"));
+        assertFalse(retries.needsReload("shop"));
+    }
+
+    @Test
+    public void theRetriesOfTheAppsThatAreGoneAreDropped() throws InterruptedException {
+        AtomicInteger retried = new AtomicInteger();
+        retries.failed("store", "boom", false, retried::incrementAndGet);
+        retries.failed("shop", "boom", true, retried::incrementAndGet);
+        retries.failed("blog", "boom", false, retried::incrementAndGet);
+        retries.retainAll(new HashSet<>(Arrays.asList("shop", "invoice")));
+
+        assertEquals(1, retries.size());
+        assertTrue(retries.needsReload("shop"));
+        assertTrue(retries.isDue("store"));
+        assertTrue(retries.isDue("blog"));
+        Thread.sleep(150);
+        // Only the retry of shop is still scheduled
+        assertEquals(1, retried.get());
+    }
+
+    @Test
+    public void theAppsFailingForTheLongestTimeComeFirst() throws InterruptedException {
+        retries.failed("store", "boom", false, () -> {
+        });
+        Thread.sleep(2);
+        retries.failed("shop", "boom", false, () -> {
+        });
+        Thread.sleep(2);
+        retries.failed("blog", "boom", false, () -> {
+        });
+        // Failing again doesn't change when the app started failing
+        retries.failed("store", "boom", false, () -> {
+        });
+
+        assertEquals(Arrays.asList("store", "shop", "blog"),
+                retries.getRetries().stream().map(ReconcileRetry::getApp).collect(Collectors.toList()));
+        assertTrue(retries.getOldestFailureSeconds() > 0);
+    }
+
+    @Test
+    public void nothingIsScheduledOnceShutDown() {
+        retries.shutdown();
+        retries.failed("store", "boom", false, () -> fail("Retried after shutdown"));
+        assertEquals(1, retries.size());
+        retries.retainAll(Collections.emptySet());
+        assertEquals(0, retries.size());
+    }
+}
@@ -0,0 +1,41 @@
+package tech.jhipster.operator.app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReconcileRetryTest {
+
+    @Test
+    public void backoffDoublesUpToTheMaxDelay() {
+        assertEquals(0, ReconcileRetry.backoff(0, 1000, 300000));
+        assertEquals(1000, ReconcileRetry.backoff(1, 1000, 300000));
+        assertEquals(2000, ReconcileRetry.backoff(2, 1000, 300000));
+        assertEquals(256000, ReconcileRetry.backoff(9, 1000, 300000));
+        assertEquals(300000, ReconcileRetry.backoff(10, 1000, 300000));
+        // No overflow after many failures
+        assertEquals(300000, ReconcileRetry.backoff(1000, 1000, 300000));
+    }
+
+    @Test
+    public void dueOnceTheNextAttemptIsReached() {
+        long now = System.nanoTime();
+        ReconcileRetry retry = new ReconcileRetry("store", now);
+        retry.failed("boom", false, now + 1000);
+        assertEquals(1, retry.getFailures());
+        assertFalse(retry.isDue(now));
+        assertTrue(retry.isDue(now + 1000));
+    }
+
+    @Test
+    public void reloadIsKeptUntilTheAppRecovers() {
+        long now = System.nanoTime();
+        ReconcileRetry retry = new ReconcileRetry("store", now);
+        retry.failed("MicroService invoice event failed", true, now);
+        retry.failed("Status HEALTHY couldn't be written", false, now);
+        assertTrue(retry.isReload());
+        assertEquals(2, retry.getFailures());
+        assertEquals("Status HEALTHY couldn't be written", retry.getLastError());
+        assertEquals(now, retry.getFirstFailure());
+    }
+}
@@ -0,0 +1,77 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import org.junit.Test;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.ApplicationStatus;
+import tech.jhipster.operator.crds.app.ServiceSpec;
+import tech.jhipster.operator.crds.microservice.MicroService;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SpecFingerprintsTest {
+
+    private SpecFingerprints fingerprints = new SpecFingerprints();
+
+    @Test
+    public void statusAndMetadataChangesAreNotSpecChanges() {
+        Application app = app("1");
+        fingerprints.record(app);
+
+        Application statusWrite = app("2");
+        statusWrite.setStatus(new ApplicationStatus("HEALTHY", "http://store", 1L));
+        assertFalse(fingerprints.changed(statusWrite));
+
+        Application newVersion = app("3");
+        newVersion.getSpec().setVersion("2.0");
+        assertTrue(fingerprints.changed(newVersion));
+    }
+
+    @Test
+    public void servicesRememberTheirPreviousApp() {
+        MicroService invoice = microService("store", "invoice-v1");
+        assertTrue(fingerprints.changed(invoice));
+        assertNull(fingerprints.record(invoice));
+        assertFalse(fingerprints.changed(microService("store", "invoice-v1")));
+
+        MicroService moved = microService("shop", "invoice-v1");
+        assertTrue(fingerprints.changed(moved));
+        assertEquals("store", fingerprints.record(moved));
+
+        MicroService newServiceName = microService("shop", "invoice-v2");
+        assertTrue(fingerprints.changed(newServiceName));
+
+        fingerprints.forget(moved);
+        assertEquals(0, fingerprints.size());
+    }
+
+    private Application app(String resourceVersion) {
+        Application app = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName("store");
+        metadata.setNamespace("default");
+        metadata.setResourceVersion(resourceVersion);
+        app.setMetadata(metadata);
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setVersion("1.0");
+        app.setSpec(spec);
+        return app;
+    }
+
+    private MicroService microService(String appName, String serviceName) {
+        MicroService microService = new MicroService();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName("invoice");
+        metadata.setNamespace("default");
+        metadata.setLabels(Collections.singletonMap("app", appName));
+        microService.setMetadata(metadata);
+        ServiceSpec spec = new ServiceSpec();
+        spec.setServiceName(serviceName);
+        spec.setServicePort("8081");
+        microService.setSpec(spec);
+        return microService;
+    }
+}
@@ -0,0 +1,147 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.ApplicationStatus;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.crds.app.RateLimitSpec;
+import tech.jhipster.operator.jdl.JHipsterApplicationDefinition;
+import tech.jhipster.operator.jdl.JHipsterModuleDefinition;
+import tech.jhipster.operator.routes.LocalRateLimits;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+public class StateSnapshotsTest {
+
+    @Test
+    public void snapshotSurvivesARoundTrip() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("state.snapshot");
+        StateSnapshots.write(file, snapshot());
+
+        StateSnapshot restored = StateSnapshots.read(file);
+        assertEquals("1042", restored.getResourceVersions().get(StateSnapshot.APPLICATIONS));
+        assertEquals(1, restored.getApps().size());
+        AppState app = restored.getApps().get(0);
+        assertEquals("store", app.getName());
+        assertEquals("2", app.getResourceVersion());
+        assertEquals(Long.valueOf(3), app.getGeneration());
+        assertEquals("gateway", app.getModuleName(0));
+        assertEquals(2, app.getMicroservices().size());
+        assertEquals("HEALTHY", app.getStatus());
+        assertEquals(Long.valueOf(3), app.getObservedGeneration());
+        assertEquals(Double.valueOf(10), app.getRateLimit().getReplenishRate());
+        assertNull(app.getRateLimit().getBurstCapacity());
+
+        RouteDefinition route = restored.getRoutes().get(0);
+        assertEquals("store:invoice", route.getId());
+        assertEquals(URI.create("http://invoice:8081"), route.getUri());
+        assertEquals("/apps/store/1.0/services/invoice/**", route.getPredicates().get(0).getArgs().get("pattern"));
+        assertEquals("RewritePath", route.getFilters().get(0).getName());
+        assertEquals("/${remaining}", route.getFilters().get(0).getArgs().get("replacement"));
+        assertEquals(Integer.valueOf(5), restored.getRouteRateLimits().get("store:invoice").getBurstCapacity());
+        assertFalse(Files.exists(file.resolveSibling("state.snapshot.tmp")));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptedSnapshotIsRejected() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("state.snapshot");
+        StateSnapshots.write(file, snapshot());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x7F;
+        Files.write(file, bytes);
+
+        StateSnapshots.read(file);
+    }
+
+    @Test
+    public void appsWithUnwrittenStatusAreSavedWithoutObservedGeneration() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("state.snapshot");
+        AppService appService = new AppService();
+        AppState store = snapshot().getApps().get(0);
+        Application shop = store.toApplication();
+        shop.getMetadata().setName("shop");
+        appService.putApp("store", store);
+        appService.putApp("shop", AppState.from(shop).withStatus("UNHEALTHY", "N/A", 3L));
+        StateSnapshots stateSnapshots = new StateSnapshots();
+        inject(stateSnapshots, "path", file.toString());
+        inject(stateSnapshots, "appService", appService);
+        inject(stateSnapshots, "localRateLimits", new LocalRateLimits());
+        inject(stateSnapshots, "statusFlusher", new StatusFlusher() {
+            @Override
+            public Set<String> getPendingApps() {
+                return Collections.singleton("shop");
+            }
+        });
+        stateSnapshots.save(Collections.singletonMap(StateSnapshot.APPLICATIONS, "1042"));
+
+        Map<String, AppState> restored = new HashMap<>();
+        StateSnapshots.read(file).getApps().forEach(app -> restored.put(app.getName(), app));
+        assertEquals(Long.valueOf(3), restored.get("store").getObservedGeneration());
+        // Its status is written again by the first reconcile
+        assertNull(restored.get("shop").getObservedGeneration());
+        assertEquals("UNHEALTHY", restored.get("shop").getStatus());
+        assertEquals(Long.valueOf(3), restored.get("shop").getGeneration());
+    }
+
+    private StateSnapshot snapshot() {
+        Application application = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName("store");
+        metadata.setNamespace("default");
+        metadata.setResourceVersion("2");
+        metadata.setGeneration(3L);
+        application.setMetadata(metadata);
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setVersion("1.0");
+        JHipsterApplicationDefinition appDefinition = new JHipsterApplicationDefinition("store", "1.0");
+        appDefinition.addModule(new JHipsterModuleDefinition("gateway", "gateway"));
+        appDefinition.addModule(new JHipsterModuleDefinition("invoice", "microservice"));
+        spec.setAppDefinition(appDefinition);
+        spec.setMicroservices(new HashSet<>(Arrays.asList(new MicroServiceDescr("invoice", "MicroService", "invoice"),
+                new MicroServiceDescr("gateway", "Gateway", "gateway"))));
+        RateLimitSpec appLimit = new RateLimitSpec();
+        appLimit.setReplenishRate(10.0);
+        spec.setRateLimit(appLimit);
+        application.setSpec(spec);
+        application.setStatus(new ApplicationStatus("HEALTHY", "http://1.2.3.4/apps/store/1.0/", 3L));
+
+        RouteDefinition route = new RouteDefinition();
+        route.setId("store:invoice");
+        route.setUri(URI.create("http://invoice:8081"));
+        PredicateDefinition predicate = new PredicateDefinition();
+        predicate.setName("Path");
+        predicate.addArg("pattern", "/apps/store/1.0/services/invoice/**");
+        route.getPredicates().add(predicate);
+        FilterDefinition filter = new FilterDefinition("RewritePath");
+        filter.addArg("regexp", "/apps/store/1.0/services/invoice/(?<remaining>.*)");
+        filter.addArg("replacement", "/${remaining}");
+        route.getFilters().add(filter);
+
+        RateLimitSpec routeLimit = new RateLimitSpec();
+        routeLimit.setReplenishRate(2.0);
+        routeLimit.setBurstCapacity(5);
+        Map<String, String> versions = new LinkedHashMap<>();
+        versions.put(StateSnapshot.APPLICATIONS, "1042");
+        versions.put(StateSnapshot.MICROSERVICES, "1040");
+        return new StateSnapshot(System.currentTimeMillis(), versions, Collections.singletonList(AppState.from(application)),
+                Collections.singletonList(route), Collections.singletonMap("store:invoice", routeLimit));
+    }
+}
@@ -0,0 +1,198 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.crds.app.Application;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+/*
+ * Status writes against an API Server that keeps the resourceVersion of the app and records what it is sent
+ */
+public class StatusFlusherTest {
+
+    // Status and resourceVersion of each write that got to the API Server
+    private List<String> writes = new CopyOnWriteArrayList<>();
+    private volatile int resourceVersion = 7;
+    private AtomicInteger failures = new AtomicInteger();
+    // Writes wait for this once started, so changes can arrive while they are in flight
+    private volatile CountDownLatch inFlight = new CountDownLatch(0);
+    private CountDownLatch writing = new CountDownLatch(1);
+    private AppService appService = new AppService();
+    private OwnWrites ownWrites = new OwnWrites();
+    private StatusFlusher flusher = new StatusFlusher();
+
+    @Before
+    public void setUp() {
+        K8SCoreRuntime k8SCoreRuntime = new K8SCoreRuntime() {
+            @Override
+            public <T extends HasMetadata> T updateStatus(CustomResourceDefinition crd, T resource, Class<T> type, ApiPriority priority) {
+                writing.countDown();
+                try {
+                    inFlight.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failures.getAndDecrement() > 0) {
+                    throw new KubernetesClientException("PUT status failed: 500", 500, null);
+                }
+                if (!resource.getMetadata().getResourceVersion().equals(String.valueOf(resourceVersion))) {
+                    throw new KubernetesClientException("PUT status failed: 409", 409, null);
+                }
+                Application stored = Serialization.unmarshal(Serialization.asJson(resource), Application.class);
+                stored.getMetadata().setResourceVersion(String.valueOf(++resourceVersion));
+                writes.add(stored.getStatus().getStatus() + "@" + resource.getMetadata().getResourceVersion());
+                return type.cast(stored);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T call(ApiPriority priority, Supplier<T> apiCall) {
+                // The only call of the flusher: GET the latest app after a conflict
+                return (T) application(String.valueOf(resourceVersion));
+            }
+        };
+        inject(ownWrites, "capacity", 1024);
+        inject(ownWrites, "meterRegistry", new SimpleMeterRegistry());
+        ownWrites.init();
+        inject(flusher, "flushWindow", 50L);
+        inject(flusher, "concurrency", 4);
+        inject(flusher, "conflictRetries", 3);
+        inject(flusher, "drainTimeout", 5000L);
+        inject(flusher, "initialDelay", 50L);
+        inject(flusher, "maxDelay", 1000L);
+        inject(flusher, "jitter", 0.0);
+        inject(flusher, "appService", appService);
+        inject(flusher, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(flusher, "ownWrites", ownWrites);
+        inject(flusher, "meterRegistry", new SimpleMeterRegistry());
+        inject(flusher, "applicationCRD", new CustomResourceDefinition());
+        flusher.init();
+        appService.addApp("store", application("7"));
+    }
+
+    @After
+    public void tearDown() {
+        inFlight.countDown();
+        flusher.shutdown();
+    }
+
+    @Test
+    public void theChangesWithinTheWindowEndUpInOneWrite() throws InterruptedException {
+        changeStatus("UNHEALTHY");
+        changeStatus("HEALTHY");
+        changeStatus("UNHEALTHY");
+        awaitWritten();
+
+        assertEquals(1, writes.size());
+        assertEquals("UNHEALTHY@7", writes.get(0));
+        assertEquals(2, flusher.getCoalescedCount());
+        // The next write goes with the resourceVersion of ours
+        assertEquals("8", appService.getApp("store").getResourceVersion());
+        assertTrue(ownWrites.isEcho(application("8")));
+    }
+
+    @Test
+    public void aChangeWhileTheWriteIsInFlightIsWrittenAgain() throws InterruptedException {
+        inFlight = new CountDownLatch(1);
+        changeStatus("UNHEALTHY");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        changeStatus("HEALTHY");
+        inFlight.countDown();
+        awaitWritten();
+
+        assertEquals(2, writes.size());
+        assertEquals("UNHEALTHY@7", writes.get(0));
+        assertEquals("HEALTHY@8", writes.get(1));
+    }
+
+    @Test
+    public void conflictsAreRetriedWithTheLatestResourceVersion() throws InterruptedException {
+        // Somebody else updated the app twice since we read it
+        resourceVersion = 9;
+        changeStatus("HEALTHY");
+        awaitWritten();
+
+        assertEquals(1, writes.size());
+        assertEquals("HEALTHY@9", writes.get(0));
+        assertEquals("10", appService.getApp("store").getResourceVersion());
+        assertEquals(1, flusher.getWrittenCount());
+    }
+
+    @Test
+    public void failedWritesBackOffUntilTheySucceed() throws InterruptedException {
+        failures.set(2);
+        long started = System.nanoTime();
+        changeStatus("HEALTHY");
+        awaitWritten();
+
+        // 50ms of window, then 50ms and 100ms of backoff
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(2, flusher.getFailedCount());
+        assertEquals(1, writes.size());
+        assertEquals(0, flusher.getPendingCount());
+    }
+
+    @Test
+    public void drainWritesWhatIsPendingRightAway() {
+        inject(flusher, "flushWindow", 60000L);
+        changeStatus("HEALTHY");
+        assertEquals(1, flusher.getPendingApps().size());
+
+        assertTrue(flusher.drain());
+        assertEquals(1, writes.size());
+        assertTrue(flusher.getPendingApps().isEmpty());
+    }
+
+    @Test
+    public void drainReportsTheWritesThatFailed() {
+        inject(flusher, "flushWindow", 60000L);
+        failures.set(1);
+        changeStatus("HEALTHY");
+
+        assertFalse(flusher.drain());
+        assertTrue(flusher.getPendingApps().contains("store"));
+    }
+
+    private void changeStatus(String status) {
+        appService.updateApp("store", app -> app.withStatus(status, "N/A", 1L));
+        flusher.submit("store");
+    }
+
+    private void awaitWritten() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flusher.getPendingCount() > 0) {
+            assertTrue("The status writes didn't finish", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static Application application(String resourceVersion) {
+        Application application = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName("store");
+        metadata.setNamespace("default");
+        metadata.setResourceVersion(resourceVersion);
+        metadata.setGeneration(1L);
+        application.setMetadata(metadata);
+        return application;
+    }
+}
@@ -0,0 +1,188 @@
+package tech.jhipster.operator.controllers;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tech.jhipster.operator.AppsOperator;
+import tech.jhipster.operator.app.AppDeletion;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.core.ApiPriority;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.routes.LocalRateLimits;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+/*
+ * DELETE /apps/{name} and GET /apps/{name}/deletion against an operator whose K8s API Server calls are recorded
+ */
+public class AppDeletionTest {
+
+    // Calls to the API Server, as "<plural> <selector or name> <propagation>"
+    private List<String> calls = new CopyOnWriteArrayList<>();
+    // The first deletecollection waits for this, so the deletion can be seen in progress
+    private CountDownLatch apiServer = new CountDownLatch(1);
+    private String failingKind;
+    private AtomicInteger routeRefreshes = new AtomicInteger();
+    private AppService appService = new AppService();
+    private AppsOperator appsOperator = new AppsOperator();
+    private JHipsterOperatorController controller = new JHipsterOperatorController();
+
+    @Before
+    public void setUp() {
+        K8SCoreRuntime k8SCoreRuntime = new K8SCoreRuntime() {
+            @Override
+            public int deleteCollection(CustomResourceDefinition crd, String labelSelector, String propagationPolicy, ApiPriority priority) {
+                awaitApiServer();
+                String plural = crd.getSpec().getNames().getPlural();
+                calls.add(plural + " " + labelSelector + " " + propagationPolicy);
+                if (plural.equals(failingKind)) {
+                    throw new KubernetesClientException("deletecollection " + plural + " failed: 500", 500, null);
+                }
+                return plural.equals("microservices") ? 2 : 1;
+            }
+
+            @Override
+            public boolean delete(CustomResourceDefinition crd, String name, String propagationPolicy, ApiPriority priority) {
+                calls.add(crd.getSpec().getNames().getPlural() + " " + name + " " + propagationPolicy);
+                return true;
+            }
+
+            @Override
+            public <T> T call(ApiPriority priority, Supplier<T> apiCall) {
+                // Nothing is left of the app when it is loaded again
+                return null;
+            }
+        };
+        inject(appService, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(appsOperator, "appService", appService);
+        inject(appsOperator, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(appsOperator, "localRateLimits", new LocalRateLimits());
+        inject(appsOperator, "eventPublisher", (ApplicationEventPublisher) event -> routeRefreshes.incrementAndGet());
+        inject(appsOperator, "deletionRetention", 600000L);
+        inject(appsOperator, "applicationCRD", crd("applications"));
+        inject(appsOperator, "microServiceCRD", crd("microservices"));
+        inject(appsOperator, "gatewayCRD", crd("gateways"));
+        inject(appsOperator, "registryCRD", crd("registries"));
+        inject(controller, "appsOperator", appsOperator);
+        inject(controller, "applicationsService", appService);
+        appService.addApp("store", application("store"));
+    }
+
+    @After
+    public void tearDown() {
+        apiServer.countDown();
+    }
+
+    @Test
+    public void deletionIsAcceptedAndCascadesToTheServicesOfTheApp() throws InterruptedException {
+        ResponseEntity<AppDeletion> accepted = controller.deleteJHipsterApp("store");
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        assertEquals(AppDeletion.Status.IN_PROGRESS, accepted.getBody().getStatus());
+        // The app and its routes are gone before the API Server is called
+        assertNull(appService.getApp("store"));
+        assertEquals(1, routeRefreshes.get());
+        assertEquals(Arrays.asList("store"), appsOperator.getDeletionsInProgress());
+
+        apiServer.countDown();
+        AppDeletion deletion = awaitFinished("store");
+        assertEquals(AppDeletion.Status.DONE, deletion.getStatus());
+        assertEquals(Arrays.asList("microservices app=store Background", "gateways app=store Background",
+                "registries app=store Background", "applications store Background"), calls);
+        assertEquals("{MicroService=2, Gateway=1, Registry=1, Application=1}", deletion.getDeleted().toString());
+        assertTrue(appsOperator.getDeletionsInProgress().isEmpty());
+    }
+
+    @Test
+    public void deletingAnAppTwiceReturnsTheDeletionInProgress() {
+        AppDeletion first = controller.deleteJHipsterApp("store").getBody();
+        ResponseEntity<AppDeletion> second = controller.deleteJHipsterApp("store");
+        assertEquals(HttpStatus.ACCEPTED, second.getStatusCode());
+        assertSame(first, second.getBody());
+    }
+
+    @Test
+    public void unknownAppsAreNotFound() {
+        assertEquals(HttpStatus.NOT_FOUND, controller.deleteJHipsterApp("shop").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.appDeletion("shop").getStatusCode());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void failedDeletionsStopAtTheFailingKind() throws InterruptedException {
+        failingKind = "gateways";
+        controller.deleteJHipsterApp("store");
+        apiServer.countDown();
+        AppDeletion deletion = awaitFinished("store");
+        assertEquals(AppDeletion.Status.FAILED, deletion.getStatus());
+        assertEquals("deletecollection gateways failed: 500", deletion.getError());
+        assertEquals("{MicroService=2}", deletion.getDeleted().toString());
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void finishedDeletionsAreDroppedAfterTheRetention() throws InterruptedException {
+        inject(appsOperator, "deletionRetention", 0L);
+        appService.addApp("shop", application("shop"));
+        controller.deleteJHipsterApp("store");
+        apiServer.countDown();
+        awaitFinished("store");
+
+        controller.deleteJHipsterApp("shop");
+        assertEquals(HttpStatus.NOT_FOUND, controller.appDeletion("store").getStatusCode());
+        awaitFinished("shop");
+        appsOperator.deleteApp("store");
+        assertEquals(HttpStatus.NOT_FOUND, controller.appDeletion("shop").getStatusCode());
+    }
+
+    private AppDeletion awaitFinished(String appName) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            ResponseEntity<AppDeletion> deletion = controller.appDeletion(appName);
+            assertEquals(HttpStatus.OK, deletion.getStatusCode());
+            if (!deletion.getBody().isInProgress()) {
+                return deletion.getBody();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The deletion of " + appName + " didn't finish");
+    }
+
+    private void awaitApiServer() {
+        try {
+            apiServer.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CustomResourceDefinition crd(String plural) {
+        return new CustomResourceDefinitionBuilder()
+                .withNewSpec().withNewNames().withPlural(plural).endNames().endSpec()
+                .build();
+    }
+
+    private static Application application(String name) {
+        Application application = new Application();
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        application.setMetadata(metadata);
+        return application;
+    }
+}
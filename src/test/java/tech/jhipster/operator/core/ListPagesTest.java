@@ -0,0 +1,138 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionBuilder;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.MockApiServer;
+import tech.jhipster.operator.app.AppCRDs;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationList;
+import tech.jhipster.operator.tracing.Tracer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+/*
+ * K8SCoreRuntime.listPages against a MockApiServer that serves the pages of the applications list
+ */
+public class ListPagesTest {
+
+    private static final String PATH = "/apis/" + AppCRDs.APP_CRD_GROUP + "/v1/namespaces/default/applications";
+    // Looks like the continue tokens of the API Server, it has to be encoded in the query
+    private static final String SECOND_PAGE = "eyJ2IjoibWV0YS5rOHMuaW8vdjEiLCJydiI6MTAwfQ==";
+
+    private MockApiServer apiServer;
+    private KubernetesClient kubernetesClient;
+    private K8SCoreRuntime k8SCoreRuntime = new K8SCoreRuntime();
+    private CustomResourceDefinition crd = new CustomResourceDefinitionBuilder()
+            .withNewSpec()
+            .withGroup(AppCRDs.APP_CRD_GROUP)
+            .withVersion("v1")
+            .withNewNames().withPlural("applications").withKind("Application").endNames()
+            .endSpec()
+            .build();
+    private List<String> listed = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        apiServer = new MockApiServer();
+        apiServer.start();
+        kubernetesClient = new DefaultKubernetesClient(new ConfigBuilder()
+                .withMasterUrl(apiServer.getUrl())
+                .withNamespace("default")
+                .build());
+        Tracer tracer = new Tracer();
+        inject(tracer, "capacity", 64);
+        tracer.init();
+        ApiRequestBudget apiRequestBudget = new ApiRequestBudget();
+        for (String priority : Arrays.asList("high", "normal", "low")) {
+            inject(apiRequestBudget, priority + "Qps", 1000.0);
+            inject(apiRequestBudget, priority + "Burst", 1000);
+        }
+        inject(apiRequestBudget, "meterRegistry", new SimpleMeterRegistry());
+        inject(apiRequestBudget, "tracer", tracer);
+        apiRequestBudget.init();
+        inject(k8SCoreRuntime, "kubernetesClient", kubernetesClient);
+        inject(k8SCoreRuntime, "apiRequestBudget", apiRequestBudget);
+        inject(k8SCoreRuntime, "tracer", tracer);
+    }
+
+    @After
+    public void tearDown() {
+        kubernetesClient.close();
+        apiServer.stop();
+    }
+
+    @Test
+    public void everyPageIsListedAndTheFirstResourceVersionIsReturned() {
+        apiServer.respond(PATH + "?limit=2", page("100", SECOND_PAGE, "store", "shop"))
+                .respond(PATH + "?limit=2&continue=eyJ2IjoibWV0YS5rOHMuaW8vdjEiLCJydiI6MTAwfQ%3D%3D", page("101", "third", "blog", "invoice"))
+                // The last page has an empty continue
+                .respond(PATH + "?limit=2&continue=third", page("102", "", "billing"));
+
+        String resourceVersion = k8SCoreRuntime.listPages(crd, ApplicationList.class, 2, ApiPriority.NORMAL,
+                (Application app) -> listed.add(app.getMetadata().getName()));
+
+        assertEquals("100", resourceVersion);
+        assertEquals(Arrays.asList("store", "shop", "blog", "invoice", "billing"), listed);
+        assertEquals(Arrays.asList(PATH + "?limit=2",
+                PATH + "?limit=2&continue=eyJ2IjoibWV0YS5rOHMuaW8vdjEiLCJydiI6MTAwfQ%3D%3D",
+                PATH + "?limit=2&continue=third"), apiServer.getRequests());
+    }
+
+    @Test
+    public void aListWithoutContinueIsOnePage() {
+        apiServer.respond(PATH + "?limit=2", page("100", null, "store", "shop"));
+
+        String resourceVersion = k8SCoreRuntime.listPages(crd, ApplicationList.class, 2, ApiPriority.NORMAL,
+                (Application app) -> listed.add(app.getMetadata().getName()));
+
+        assertEquals("100", resourceVersion);
+        assertEquals(Arrays.asList("store", "shop"), listed);
+        assertEquals(Collections.singletonList(PATH + "?limit=2"), apiServer.getRequests());
+    }
+
+    @Test
+    public void anEmptyListHasNoItems() {
+        apiServer.respond(PATH + "?limit=2", page("100", null));
+
+        assertEquals("100", k8SCoreRuntime.listPages(crd, ApplicationList.class, 2, ApiPriority.NORMAL,
+                (Application app) -> listed.add(app.getMetadata().getName())));
+        assertTrue(listed.isEmpty());
+    }
+
+    private static ApplicationList page(String resourceVersion, String continueToken, String... names) {
+        List<Application> items = new ArrayList<>();
+        for (String name : names) {
+            Application application = new Application();
+            application.setApiVersion(AppCRDs.APP_CRD_GROUP + "/v1");
+            application.setKind("Application");
+            ObjectMeta metadata = new ObjectMeta();
+            metadata.setName(name);
+            metadata.setNamespace("default");
+            application.setMetadata(metadata);
+            items.add(application);
+        }
+        ApplicationList page = new ApplicationList();
+        ListMeta metadata = new ListMeta();
+        metadata.setResourceVersion(resourceVersion);
+        metadata.setContinue(continueToken);
+        page.setMetadata(metadata);
+        page.setItems(items);
+        return page;
+    }
+}
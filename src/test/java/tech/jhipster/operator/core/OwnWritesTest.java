@@ -0,0 +1,69 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.gateway.Gateway;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+
+public class OwnWritesTest {
+
+    private OwnWrites ownWrites = new OwnWrites();
+
+    @Before
+    public void setUp() {
+        inject(ownWrites, "capacity", 1024);
+        inject(ownWrites, "meterRegistry", new SimpleMeterRegistry());
+        ownWrites.init();
+    }
+
+    @Test
+    public void onlyTheEchoOfTheLastWriteIsSuppressed() {
+        ownWrites.record(resource(new Application(), "store", "default", "10"));
+        ownWrites.record(resource(new Application(), "store", "default", "11"));
+        assertFalse(ownWrites.isEcho(resource(new Application(), "store", "default", "10")));
+        assertFalse(ownWrites.isEcho(resource(new Application(), "store", "other", "11")));
+        // Same name and resourceVersion, another kind
+        assertFalse(ownWrites.isEcho(resource(new Gateway(), "store", "default", "11")));
+        assertTrue(ownWrites.isEcho(resource(new Application(), "store", "default", "11")));
+        assertEquals(1, ownWrites.getSuppressedCount());
+    }
+
+    @Test
+    public void eachWriteHasASingleEcho() {
+        ownWrites.record(resource(new Application(), "store", "default", "10"));
+        assertTrue(ownWrites.isEcho(resource(new Application(), "store", "default", "10")));
+        assertFalse(ownWrites.isEcho(resource(new Application(), "store", "default", "10")));
+        assertEquals(0, ownWrites.size());
+        assertEquals(1, ownWrites.getSuppressedCount());
+    }
+
+    @Test
+    public void theObjectsWrittenLeastRecentlyAreForgottenAtCapacity() {
+        for (int i = 0; i < 1024; i++) {
+            ownWrites.record(resource(new Application(), "app-" + i, "default", "1"));
+        }
+        // Written again, it is now the most recent one
+        ownWrites.record(resource(new Application(), "app-0", "default", "2"));
+        ownWrites.record(resource(new Application(), "app-1024", "default", "1"));
+        assertEquals(1024, ownWrites.size());
+        assertFalse(ownWrites.isEcho(resource(new Application(), "app-1", "default", "1")));
+        assertTrue(ownWrites.isEcho(resource(new Application(), "app-0", "default", "2")));
+        assertTrue(ownWrites.isEcho(resource(new Application(), "app-2", "default", "1")));
+        assertTrue(ownWrites.isEcho(resource(new Application(), "app-1024", "default", "1")));
+    }
+
+    private static <T extends HasMetadata> T resource(T resource, String name, String namespace, String resourceVersion) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(namespace);
+        metadata.setResourceVersion(resourceVersion);
+        resource.setMetadata(metadata);
+        return resource;
+    }
+}
@@ -0,0 +1,41 @@
+package tech.jhipster.operator.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest {
+
+    private long now = 0;
+
+    @Test
+    public void burstIsAvailableRightAway() {
+        TokenBucket bucket = new TokenBucket(1, 3, () -> now);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertTrue(bucket.reserve() > 0);
+    }
+
+    @Test
+    public void reservationsQueueUpAfterTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 1, () -> now);
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tokensAreRefilledUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, () -> now);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertEquals(2, bucket.getAvailableTokens(), 0.0001);
+        assertTrue(bucket.tryAcquire());
+    }
+}
@@ -0,0 +1,70 @@
+package tech.jhipster.operator.jdl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class JDLDiffTest {
+
+    private JHipsterApplicationDefinition app(JHipsterModuleDefinition... modules) {
+        JHipsterApplicationDefinition app = new JHipsterApplicationDefinition("myApp", "1.0");
+        Arrays.stream(modules).forEach(app::addModule);
+        return app;
+    }
+
+    @Test
+    public void onlyTheModulesThatChangedAreReported() {
+        JHipsterApplicationDefinition current = app(
+                new JHipsterModuleDefinition("gateway", "gateway"),
+                new JHipsterModuleDefinition("invoice", "microservice", "8081"),
+                new JHipsterModuleDefinition("review", "microservice", "8082"),
+                new JHipsterModuleDefinition("store", "microservice", "8083"));
+        JHipsterApplicationDefinition desired = app(
+                // Same port, gateways default to 8080
+                new JHipsterModuleDefinition("gateway", "gateway", "8080"),
+                new JHipsterModuleDefinition("invoice", "microservice", "8091"),
+                new JHipsterModuleDefinition("review", "microservice", "8082"),
+                new JHipsterModuleDefinition("notification", "microservice", "8084"));
+
+        JDLDiff diff = JDLDiff.between(current, desired);
+        assertFalse(diff.isEmpty());
+        assertEquals(1, diff.getAdded().size());
+        assertEquals("notification", diff.getAdded().get(0).getName());
+        assertEquals(1, diff.getRemoved().size());
+        assertEquals("store", diff.getRemoved().get(0).getName());
+        assertEquals(1, diff.getChanged().size());
+        assertEquals("8091", diff.getChanged().get(0).getPort());
+        assertEquals(2, diff.getUnchanged().size());
+        assertTrue(diff.getUnchanged().containsAll(Arrays.asList("gateway", "review")));
+    }
+
+    @Test
+    public void aModuleThatChangesItsKindIsRecreated() {
+        JDLDiff diff = JDLDiff.between(
+                app(new JHipsterModuleDefinition("edge", "microservice", "8081")),
+                app(new JHipsterModuleDefinition("edge", "gateway", "8081")));
+        assertEquals("microservice", diff.getRemoved().get(0).getType());
+        assertEquals("gateway", diff.getAdded().get(0).getType());
+        assertTrue(diff.getChanged().isEmpty());
+    }
+
+    @Test
+    public void sameJDLIsEmpty() {
+        JDLDiff diff = JDLDiff.between(
+                app(new JHipsterModuleDefinition("invoice", "microservice", "8081")),
+                app(new JHipsterModuleDefinition("invoice", "microservice", "8081")));
+        assertTrue(diff.isEmpty());
+        assertEquals(1, diff.getUnchanged().size());
+    }
+
+    @Test
+    public void appWithoutDefinitionGetsAllTheModulesAdded() {
+        JDLDiff diff = JDLDiff.between(null, app(
+                new JHipsterModuleDefinition("gateway", "gateway"),
+                new JHipsterModuleDefinition("invoice", "microservice", "8081")));
+        assertEquals(2, diff.getAdded().size());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+}
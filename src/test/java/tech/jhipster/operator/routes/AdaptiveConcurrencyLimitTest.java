@@ -0,0 +1,57 @@
+package tech.jhipster.operator.routes;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void requestsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5);
+        assertEquals(0, limit.tryAcquire());
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+        assertEquals(1, limit.getRejections());
+        limit.release(FAST, 1, false);
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.5);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    public void limitGoesDownWhenLatencyGrows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 100, 1.5);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+        int learned = limit.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < learned);
+    }
+
+    @Test
+    public void lowLoadSamplesDontChangeTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 1.5);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST, 1, false);
+        }
+        assertEquals(20, limit.getLimit());
+        limit.onSample(FAST, 1, true);
+        assertEquals(18, limit.getLimit());
+    }
+}
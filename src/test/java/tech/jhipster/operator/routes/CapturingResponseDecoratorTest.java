@@ -0,0 +1,90 @@
+package tech.jhipster.operator.routes;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.UnicastProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.routes.TestExchanges.*;
+
+public class CapturingResponseDecoratorTest {
+
+    private ServerWebExchange exchange = get("http://gateway/apps/store/1.0/products");
+    // What the listener was called with, a null means not captured
+    private List<CachedResponse> notified = new ArrayList<>();
+    private CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(), r -> true, 10,
+            null, notified::add);
+
+    @Test
+    public void chunkedResponsesAreCapturedWhileTheyAreStreamed() {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        UnicastProcessor<DataBuffer> body = UnicastProcessor.create();
+        response.writeWith(body).subscribe();
+
+        body.onNext(chunk("prod"));
+        assertEquals("prod", body(exchange));
+        assertTrue(notified.isEmpty());
+        body.onNext(chunk("ucts"));
+        body.onComplete();
+
+        assertEquals("products", body(exchange));
+        assertEquals(1, notified.size());
+        CachedResponse captured = notified.get(0);
+        assertEquals(8, captured.getSize());
+        assertEquals(8, captured.getHeaders().getContentLength());
+        ServerWebExchange replay = get("http://gateway/apps/store/1.0/products");
+        captured.writeTo(replay.getResponse()).block();
+        assertEquals("products", body(replay));
+    }
+
+    @Test
+    public void responsesOverTheMaxBytesAreStreamedWithoutACopy() {
+        UnicastProcessor<DataBuffer> body = UnicastProcessor.create();
+        response.writeWith(body).subscribe();
+
+        body.onNext(chunk("products"));
+        body.onNext(chunk(" of the store"));
+        body.onNext(chunk(" and more"));
+        assertEquals("products of the store and more", body(exchange));
+        body.onComplete();
+
+        assertEquals(1, notified.size());
+        assertNull(notified.get(0));
+    }
+
+    @Test
+    public void failedResponsesAreNotCaptured() {
+        Flux<DataBuffer> body = Flux.just(chunk("prod")).concatWith(Flux.error(new IllegalStateException("reset")));
+        try {
+            response.writeWith(body).block();
+            fail("The upstream failure was swallowed");
+        } catch (IllegalStateException e) {
+            assertEquals("reset", e.getMessage());
+        }
+
+        assertEquals("prod", body(exchange));
+        assertEquals(1, notified.size());
+        assertNull(notified.get(0));
+    }
+
+    @Test
+    public void cancelledResponsesAreNotCaptured() {
+        UnicastProcessor<DataBuffer> body = UnicastProcessor.create();
+        response.writeWith(body).subscribe().dispose();
+
+        assertEquals(1, notified.size());
+        assertNull(notified.get(0));
+    }
+
+    private static DataBuffer chunk(String content) {
+        return new DefaultDataBufferFactory().wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
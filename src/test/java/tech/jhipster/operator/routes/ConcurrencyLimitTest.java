@@ -0,0 +1,78 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import tech.jhipster.operator.crds.app.ConcurrencyLimitSpec;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+import static tech.jhipster.operator.routes.TestExchanges.*;
+
+public class ConcurrencyLimitTest {
+
+    private ConcurrencyLimits concurrencyLimits = new ConcurrencyLimits();
+    private GatewayFilter filter;
+    private AdaptiveConcurrencyLimit limit;
+
+    @Before
+    public void setUp() {
+        inject(concurrencyLimits, "enabled", true);
+        inject(concurrencyLimits, "meterRegistry", new SimpleMeterRegistry());
+        concurrencyLimits.materialize("store", new ConcurrencyLimitSpec(10, 1, 100, 1.5));
+        limit = concurrencyLimits.get("store");
+        ConcurrencyLimitGatewayFilterFactory.Config config = new ConcurrencyLimitGatewayFilterFactory.Config();
+        config.setRouteId("store");
+        filter = new ConcurrencyLimitGatewayFilterFactory(concurrencyLimits).apply(config);
+    }
+
+    @Test
+    public void routeMetersAreRemovedWithTheirLimit() {
+        concurrencyLimits.materialize("shop", null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        inject(concurrencyLimits, "meterRegistry", registry);
+        concurrencyLimits.materialize("blog", null);
+        assertEquals(3, registry.find("jhipster.operator.concurrency.limit").meters().size()
+                + registry.find("jhipster.operator.concurrency.inflight").meters().size()
+                + registry.find("jhipster.operator.concurrency.rejections").meters().size());
+
+        concurrencyLimits.retain(Collections.singleton("store"));
+        assertNull(concurrencyLimits.get("blog"));
+        assertNull(concurrencyLimits.get("shop"));
+        assertNotNull(concurrencyLimits.get("store"));
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void cancelledRequestsOnlyGiveTheirSlotBack() {
+        for (int i = 0; i < 20; i++) {
+            Upstream upstream = new Upstream(HttpStatus.OK, new HttpHeaders(), MonoProcessor.<String>create());
+            Disposable request = filter.filter(get("http://gateway/apps/store/1.0/products"), upstream).subscribe();
+            assertEquals(1, limit.getInFlight());
+            request.dispose();
+        }
+        assertEquals(0, limit.getInFlight());
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void failedRequestsLowerTheLimit() {
+        filter.filter(get("http://gateway/apps/store/1.0/products"), new Upstream(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), "down")).block();
+        assertEquals(9, limit.getLimit());
+        try {
+            filter.filter(get("http://gateway/apps/store/1.0/products"), exchange -> Mono.error(new IllegalStateException("reset"))).block();
+            fail("The upstream failure was swallowed");
+        } catch (IllegalStateException e) {
+            assertEquals(8, limit.getLimit());
+        }
+        assertEquals(0, limit.getInFlight());
+    }
+}
@@ -0,0 +1,56 @@
+package tech.jhipster.operator.routes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class EndpointSetTest {
+
+    @Test
+    public void emptySetHasNoEndpoint() {
+        assertNull(EndpointSet.EMPTY.choose());
+        assertNull(new EndpointSet(new ArrayList<>()).choose());
+    }
+
+    @Test
+    public void singleEndpointIsAlwaysChosen() {
+        UpstreamEndpoint endpoint = new UpstreamEndpoint("10.0.0.1", 8081);
+        EndpointSet set = new EndpointSet(Collections.singletonList(endpoint));
+        for (int i = 0; i < 10; i++) {
+            assertSame(endpoint, set.choose());
+        }
+    }
+
+    @Test
+    public void leastLoadedOfTwoIsChosen() {
+        UpstreamEndpoint busy = new UpstreamEndpoint("10.0.0.1", 8081);
+        UpstreamEndpoint idle = new UpstreamEndpoint("10.0.0.2", 8081);
+        for (int i = 0; i < 5; i++) {
+            busy.requestStarted();
+        }
+        EndpointSet set = new EndpointSet(Arrays.asList(busy, idle));
+        for (int i = 0; i < 20; i++) {
+            assertSame(idle, set.choose());
+        }
+        for (int i = 0; i < 5; i++) {
+            busy.requestFinished();
+        }
+        assertEquals(0, busy.getInFlight());
+    }
+
+    @Test
+    public void mostLoadedOfManyIsNeverChosen() {
+        UpstreamEndpoint busy = new UpstreamEndpoint("10.0.0.1", 8081);
+        busy.requestStarted();
+        EndpointSet set = new EndpointSet(Arrays.asList(busy,
+                new UpstreamEndpoint("10.0.0.2", 8081),
+                new UpstreamEndpoint("10.0.0.3", 8081)));
+        for (int i = 0; i < 50; i++) {
+            assertNotSame(busy, set.choose());
+        }
+    }
+}
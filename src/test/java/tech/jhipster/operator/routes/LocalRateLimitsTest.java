@@ -0,0 +1,104 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import tech.jhipster.operator.crds.app.RateLimitSpec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+import static tech.jhipster.operator.routes.TestExchanges.get;
+
+public class LocalRateLimitsTest {
+
+    private LocalRateLimits rateLimits = new LocalRateLimits();
+
+    @Before
+    public void setUp() {
+        inject(rateLimits, "maxClients", 100);
+        inject(rateLimits, "newClientsPerIp", 3);
+        inject(rateLimits, "meterRegistry", new SimpleMeterRegistry());
+        rateLimits.init();
+    }
+
+    @Test
+    public void theLimitsOfTheRoutesThatAreGoneAreDropped() {
+        rateLimits.setRouteLimit("store:products", limit(10, 1));
+        rateLimits.setRouteLimit("store:orders", limit(10, 1));
+
+        rateLimits.retainRouteLimits(Collections.singleton("store:orders"));
+        assertEquals(Collections.singleton("store:orders"), rateLimits.getRouteLimits().keySet());
+    }
+
+    @Test
+    public void requestsThrottledByTheirRouteDontUseTheAppBudget() {
+        rateLimits.setAppLimit("store", limit(0.001, 2));
+        rateLimits.setRouteLimit("store:products", limit(0.001, 1));
+        ServerHttpRequest request = get("http://gateway/apps/store/1.0/products").getRequest();
+
+        assertEquals(0, rateLimits.acquire("store", "store:products", request));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimits.acquire("store", "store:products", request) > 0);
+        }
+        // One permit of the app is still there for the other routes
+        assertEquals(0, rateLimits.acquire("store", "store:orders", request));
+        assertTrue(rateLimits.acquire("store", "store:orders", request) > 0);
+    }
+
+    @Test
+    public void oneIpCantAddClientsWithMadeUpSubjects() {
+        RateLimitSpec limit = limit(0.001, 1);
+        limit.setKeyResolver(RateLimitSpec.JWT_SUBJECT_KEY);
+        rateLimits.setRouteLimit("store:products", limit);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimits.acquire("store", "store:products", request("user" + i, "10.0.0.1")));
+        }
+        // Past its new clients, the requests of the IP share its bucket
+        assertEquals(0, rateLimits.acquire("store", "store:products", request("user3", "10.0.0.1")));
+        for (int i = 4; i < 20; i++) {
+            assertTrue(rateLimits.acquire("store", "store:products", request("user" + i, "10.0.0.1")) > 0);
+        }
+        // The clients of the IP, its new clients and its own bucket
+        assertEquals(5, rateLimits.getClientCount());
+        // Known subjects and other IPs are not affected
+        assertTrue(rateLimits.acquire("store", "store:products", request("user0", "10.0.0.1")) > 0);
+        assertEquals(0, rateLimits.acquire("store", "store:products", request("user4", "10.0.0.2")));
+    }
+
+    @Test
+    public void overflowedClientsDontAllShareOneBucket() {
+        inject(rateLimits, "maxClients", 2);
+        rateLimits.setRouteLimit("store:products", limit(0.001, 1));
+        assertEquals(0, rateLimits.acquire("store", "store:products", request(null, "10.0.0.1")));
+        assertEquals(0, rateLimits.acquire("store", "store:products", request(null, "10.0.0.2")));
+
+        assertEquals(0, rateLimits.acquire("store", "store:products", request(null, "10.0.0.3")));
+        assertTrue(rateLimits.acquire("store", "store:products", request(null, "10.0.0.3")) > 0);
+        assertEquals(0, rateLimits.acquire("store", "store:products", request(null, "10.0.0.4")));
+        assertEquals(4, rateLimits.getClientCount());
+    }
+
+    private static ServerHttpRequest request(String subject, String remoteAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        if (subject != null) {
+            String claims = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(("{\"sub\":\"" + subject + "\"}").getBytes(StandardCharsets.UTF_8));
+            headers.add(HttpHeaders.AUTHORIZATION, "Bearer e30." + claims + ".signature");
+        }
+        return get("http://gateway/apps/store/1.0/products", headers, remoteAddress).getRequest();
+    }
+
+    private static RateLimitSpec limit(double replenishRate, int burstCapacity) {
+        RateLimitSpec spec = new RateLimitSpec();
+        spec.setReplenishRate(replenishRate);
+        spec.setBurstCapacity(burstCapacity);
+        return spec;
+    }
+}
@@ -0,0 +1,47 @@
+package tech.jhipster.operator.routes;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RateLimitBucketTest {
+
+    private static final long INTERVAL = 100;
+
+    @Test
+    public void burstIsAvailableRightAway() {
+        RateLimitBucket bucket = new RateLimitBucket(0);
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3 * INTERVAL));
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3 * INTERVAL));
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3 * INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(0, INTERVAL, 3 * INTERVAL));
+    }
+
+    @Test
+    public void permitsComeBackWithTime() {
+        RateLimitBucket bucket = new RateLimitBucket(0);
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, INTERVAL));
+        assertEquals(60, bucket.tryAcquire(40, INTERVAL, INTERVAL));
+        assertEquals(0, bucket.tryAcquire(100, INTERVAL, INTERVAL));
+        assertFalse(bucket.isIdle(150));
+        assertTrue(bucket.isIdle(200));
+    }
+
+    @Test
+    public void rejectedRequestsDontTakePermits() {
+        RateLimitBucket bucket = new RateLimitBucket(0);
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, INTERVAL));
+        assertTrue(bucket.tryAcquire(10, INTERVAL, INTERVAL) > 0);
+        assertTrue(bucket.tryAcquire(20, INTERVAL, INTERVAL) > 0);
+        assertEquals(0, bucket.tryAcquire(100, INTERVAL, INTERVAL));
+    }
+
+    @Test
+    public void releasedPermitsCanBeTakenAgain() {
+        RateLimitBucket bucket = new RateLimitBucket(0);
+        assertEquals(0, bucket.tryAcquire(0, INTERVAL, INTERVAL));
+        bucket.release(INTERVAL);
+        assertTrue(bucket.isIdle(0));
+        assertEquals(0, bucket.tryAcquire(10, INTERVAL, INTERVAL));
+    }
+}
@@ -0,0 +1,89 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.MonoProcessor;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.routes.TestExchanges.*;
+
+public class RequestCoalescingTest {
+
+    private RequestCoalescingGatewayFilterFactory factory;
+    private GatewayFilter filter;
+    // The upstream answers when this is completed, so the followers arrive while the leader is in flight
+    private MonoProcessor<String> upstreamBody;
+
+    @Before
+    public void setUp() {
+        factory = new RequestCoalescingGatewayFilterFactory(new SimpleMeterRegistry());
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setRouteId("store");
+        filter = factory.apply(config);
+        upstreamBody = MonoProcessor.create();
+    }
+
+    @Test
+    public void followersShareTheResponseOfTheLeader() {
+        Upstream upstream = new Upstream(HttpStatus.OK, new HttpHeaders(), upstreamBody);
+        ServerWebExchange leader = start(upstream, new HttpHeaders());
+        ServerWebExchange follower = start(upstream, new HttpHeaders());
+        assertEquals(1, factory.getInFlightCount());
+
+        upstreamBody.onNext("products");
+        assertEquals("products#1", body(leader));
+        assertEquals("products#1", body(follower));
+        assertEquals(1, upstream.getCalls());
+        assertEquals(0, factory.getInFlightCount());
+    }
+
+    @Test
+    public void followersGoUpstreamWhenTheLeaderFails() {
+        Upstream upstream = new Upstream(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), upstreamBody);
+        ServerWebExchange leader = start(upstream, new HttpHeaders());
+        ServerWebExchange follower = start(upstream, new HttpHeaders());
+
+        upstreamBody.onNext("down");
+        assertEquals("down#1", body(leader));
+        assertEquals("down#2", body(follower));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, follower.getResponse().getStatusCode());
+        assertEquals(2, upstream.getCalls());
+    }
+
+    @Test
+    public void responsesWithCookiesAreNotShared() {
+        Upstream upstream = new Upstream(HttpStatus.OK, headers(HttpHeaders.SET_COOKIE, "SESSION=alice"), upstreamBody);
+        ServerWebExchange leader = start(upstream, new HttpHeaders());
+        ServerWebExchange follower = start(upstream, new HttpHeaders());
+
+        upstreamBody.onNext("cart");
+        assertEquals("cart#1", body(leader));
+        assertEquals("cart#2", body(follower));
+    }
+
+    @Test
+    public void requestsOfDifferentUsersAreNotCoalesced() {
+        Upstream upstream = new Upstream(HttpStatus.OK, new HttpHeaders(), upstreamBody);
+        ServerWebExchange alice = start(upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer alice"));
+        ServerWebExchange bob = start(upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer bob"));
+        ServerWebExchange aliceAgain = start(upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer alice"));
+        assertEquals(2, factory.getInFlightCount());
+
+        upstreamBody.onNext("profile");
+        assertEquals("profile#1", body(alice));
+        assertEquals("profile#2", body(bob));
+        assertEquals("profile#1", body(aliceAgain));
+        assertEquals(2, upstream.getCalls());
+    }
+
+    private ServerWebExchange start(Upstream upstream, HttpHeaders headers) {
+        ServerWebExchange exchange = get("http://gateway/apps/store/1.0/products", headers);
+        filter.filter(exchange, upstream).subscribe();
+        return exchange;
+    }
+}
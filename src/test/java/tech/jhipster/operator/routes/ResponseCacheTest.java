@@ -0,0 +1,134 @@
+package tech.jhipster.operator.routes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import tech.jhipster.operator.crds.app.CacheSpec;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static tech.jhipster.operator.TestBeans.inject;
+import static tech.jhipster.operator.routes.TestExchanges.*;
+
+public class ResponseCacheTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ResponseCache cache;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        CacheSpec spec = new CacheSpec();
+        spec.setMaxWeightBytes(250L);
+        spec.setMaxEntryBytes(200);
+        cache = new ResponseCache(spec, registry.counter("hits"), registry.counter("misses"), registry.counter("evictions"));
+    }
+
+    @Test
+    public void leastRecentlyUsedResponsesAreEvictedByWeight() {
+        cache.put("a", response(100), 60000);
+        cache.put("b", response(100), 60000);
+        assertNotNull(cache.get("a"));
+        cache.put("c", response(100), 60000);
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(200, cache.getWeight());
+        assertEquals(1, registry.counter("evictions").count(), 0);
+        assertEquals(3, registry.counter("hits").count(), 0);
+        assertEquals(1, registry.counter("misses").count(), 0);
+    }
+
+    @Test
+    public void bigOrExpiredResponsesAreNotServed() {
+        cache.put("big", response(201), 60000);
+        cache.put("expired", response(10), 0);
+        assertNull(cache.get("big"));
+        assertNull(cache.get("expired"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void ttlComesFromTheResponseWhenPresent() {
+        HttpHeaders headers = new HttpHeaders();
+        assertEquals(5000, ResponseCacheGatewayFilterFactory.ttlMillis(headers, 5000));
+        headers.setCacheControl("public, max-age=30");
+        assertEquals(30000, ResponseCacheGatewayFilterFactory.ttlMillis(headers, 5000));
+        headers.setCacheControl("max-age=30, s-maxage=10");
+        assertEquals(10000, ResponseCacheGatewayFilterFactory.ttlMillis(headers, 5000));
+    }
+
+    @Test
+    public void routeMetersAreRemovedWithTheirCache() {
+        ResponseCaches caches = new ResponseCaches();
+        inject(caches, "meterRegistry", registry);
+        CacheSpec spec = new CacheSpec();
+        spec.setMaxWeightBytes(1000L);
+        caches.materialize("store:invoice", spec);
+        caches.materialize("store:product", spec);
+        assertEquals(2, registry.find("jhipster.operator.cache.weight").gauges().size());
+
+        caches.retain(Collections.singleton("store:product"));
+        assertNull(caches.get("store:invoice"));
+        assertTrue(registry.find("jhipster.operator.cache.requests").tag("route", "store:invoice").meters().isEmpty());
+        assertTrue(registry.find("jhipster.operator.cache.offheap").tag("route", "store:invoice").meters().isEmpty());
+        assertEquals(2, registry.find("jhipster.operator.cache.requests").tag("route", "store:product").counters().size());
+
+        caches.materialize("store:product", null);
+        assertTrue(registry.find("jhipster.operator.cache.weight").gauges().isEmpty());
+        assertTrue(registry.find("jhipster.operator.cache.evictions").meters().isEmpty());
+    }
+
+    @Test
+    public void requestsWithCredentialsAreNeverServedFromAnotherUsersEntry() {
+        GatewayFilter filter = filter();
+        Upstream upstream = new Upstream(HttpStatus.OK, headers(HttpHeaders.CACHE_CONTROL, "max-age=60"), "profile");
+
+        assertEquals("profile#1", serve(filter, upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer alice")));
+        assertEquals("profile#2", serve(filter, upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer bob")));
+        assertEquals("profile#3", serve(filter, upstream, new HttpHeaders()));
+        // Only the anonymous response was stored, and it isn't served to requests with credentials either
+        assertEquals(1, cache.size());
+        assertEquals("profile#3", serve(filter, upstream, new HttpHeaders()));
+        assertEquals("profile#4", serve(filter, upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer alice")));
+    }
+
+    @Test
+    public void explicitlySharedResponsesToRequestsWithCredentialsAreStored() {
+        GatewayFilter filter = filter();
+        Upstream upstream = new Upstream(HttpStatus.OK, headers(HttpHeaders.CACHE_CONTROL, "public, max-age=60"), "catalog");
+
+        assertEquals("catalog#1", serve(filter, upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer alice")));
+        assertEquals("catalog#1", serve(filter, upstream, headers(HttpHeaders.AUTHORIZATION, "Bearer bob")));
+        assertEquals("catalog#2", serve(filter, upstream, new HttpHeaders()));
+        assertEquals(2, upstream.getCalls());
+    }
+
+    private GatewayFilter filter() {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setRouteId("store");
+        return new ResponseCacheGatewayFilterFactory(new ResponseCaches() {
+            @Override
+            public ResponseCache get(String routeId) {
+                return cache;
+            }
+        }).apply(config);
+    }
+
+    private String serve(GatewayFilter filter, Upstream upstream, HttpHeaders headers) {
+        ServerWebExchange exchange = get("http://gateway/apps/store/1.0/me", headers);
+        filter.filter(exchange, upstream).block();
+        return body(exchange);
+    }
+
+    private CachedResponse response(int size) {
+        return new CachedResponse(HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocate(size), System.currentTimeMillis());
+    }
+}
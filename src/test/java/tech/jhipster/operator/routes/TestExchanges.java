@@ -0,0 +1,182 @@
+package tech.jhipster.operator.routes;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.http.server.reactive.SslInfo;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * In memory exchanges and upstreams to run the gateway filters without a server
+ */
+class TestExchanges {
+
+    static ServerWebExchange get(String uri, HttpHeaders headers, String remoteAddress) {
+        return new DefaultServerWebExchange(new Request(URI.create(uri), headers, remoteAddress), new Response(),
+                new DefaultWebSessionManager(), ServerCodecConfigurer.create(), new AcceptHeaderLocaleContextResolver());
+    }
+
+    static ServerWebExchange get(String uri, HttpHeaders headers) {
+        return get(uri, headers, null);
+    }
+
+    static ServerWebExchange get(String uri) {
+        return get(uri, new HttpHeaders());
+    }
+
+    static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(name, value);
+        return headers;
+    }
+
+    /*
+     * What the client got, the exchange can be a mutated one: the response written is the original one
+     */
+    static String body(ServerWebExchange exchange) {
+        return ((Response) unwrap(exchange.getResponse())).body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Object unwrap(Object response) {
+        while (response instanceof ServerHttpResponseDecorator) {
+            response = ((ServerHttpResponseDecorator) response).getDelegate();
+        }
+        return response;
+    }
+
+    /*
+     * Upstream that counts its calls and answers with a status, headers and body
+     */
+    static class Upstream implements GatewayFilterChain {
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final Mono<String> body;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        Upstream(HttpStatus status, HttpHeaders headers, Mono<String> body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        Upstream(HttpStatus status, HttpHeaders headers, String body) {
+            this(status, headers, Mono.just(body));
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            int call = calls.incrementAndGet();
+            return body.flatMap(content -> {
+                exchange.getResponse().setStatusCode(status);
+                exchange.getResponse().getHeaders().putAll(headers);
+                byte[] bytes = (content + "#" + call).getBytes(StandardCharsets.UTF_8);
+                return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+            });
+        }
+
+        int getCalls() {
+            return calls.get();
+        }
+    }
+
+    private static class Request extends AbstractServerHttpRequest {
+        private final InetSocketAddress remoteAddress;
+
+        Request(URI uri, HttpHeaders headers, String remoteAddress) {
+            super(uri, "", headers);
+            this.remoteAddress = (remoteAddress == null) ? null : new InetSocketAddress(remoteAddress, 40000);
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return remoteAddress;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return "GET";
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.empty();
+        }
+
+        @Override
+        protected MultiValueMap<String, HttpCookie> initCookies() {
+            return new LinkedMultiValueMap<>();
+        }
+
+        @Override
+        protected SslInfo initSslInfo() {
+            return null;
+        }
+
+        @Override
+        public <T> T getNativeRequest() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Response extends AbstractServerHttpResponse {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Response() {
+            super(new DefaultDataBufferFactory());
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> content) {
+            return Flux.from(content).doOnNext(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                body.write(bytes, 0, bytes.length);
+                DataBufferUtils.release(buffer);
+            }).then();
+        }
+
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> content) {
+            return writeWithInternal(Flux.from(content).flatMap(Flux::from));
+        }
+
+        @Override
+        protected void applyStatusCode() {
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+
+        @Override
+        public <T> T getNativeResponse() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package tech.jhipster.operator.routes;
+
+import io.netty.channel.Channel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import tech.jhipster.operator.crds.app.UpstreamSpec;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class UpstreamClientsTest {
+
+    // Channels seen by the upstream, it is notified once per request on keep-alive connections
+    private Set<Channel> opened = ConcurrentHashMap.newKeySet();
+    private CountDownLatch closed = new CountDownLatch(1);
+    private DisposableServer upstream;
+    private ConnectionProvider connectionProvider = ConnectionProvider.fixed("upstream-test", 1);
+    private HttpClient client;
+
+    @Before
+    public void setUp() {
+        // /slow answers after 600ms, longer than the max idle time of the connections
+        upstream = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .tcpConfiguration(tcp -> tcp.doOnConnection(connection -> {
+                    opened.add(connection.channel());
+                    connection.onDispose(closed::countDown);
+                }))
+                .route(routes -> routes
+                        .get("/slow", (request, response) -> response.sendString(Mono.delay(Duration.ofMillis(600)).map(tick -> "slow")))
+                        .get("/fast", (request, response) -> response.sendString(Mono.just("fast"))))
+                .bindNow();
+        UpstreamSpec spec = new UpstreamSpec();
+        spec.setMaxIdleTimeMillis(200L);
+        client = new UpstreamClients().httpClient(connectionProvider, spec).baseUrl("http://127.0.0.1:" + upstream.port());
+    }
+
+    @After
+    public void tearDown() {
+        connectionProvider.dispose();
+        upstream.disposeNow();
+    }
+
+    private String get(String path) {
+        return client.get().uri(path).responseContent().aggregate().asString().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void slowResponsesAreNotCutByTheIdleEviction() {
+        assertEquals("fast", get("/fast"));
+        // The pooled connection is acquired again, it must not be evicted while it waits for the response
+        assertEquals("slow", get("/slow"));
+        assertEquals("slow", get("/slow"));
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    public void idleConnectionsInThePoolAreClosed() throws InterruptedException {
+        assertEquals("fast", get("/fast"));
+        assertTrue("The idle connection was not closed", closed.await(3, TimeUnit.SECONDS));
+        assertEquals("fast", get("/fast"));
+        assertEquals(2, opened.size());
+    }
+}
@@ -0,0 +1,61 @@
+package tech.jhipster.operator.tracing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TracerTest {
+
+    private Tracer tracer = new Tracer();
+
+    @Before
+    public void setUp() {
+        tracer.setCapacity(3);
+        tracer.init();
+    }
+
+    @Test
+    public void nestedSpansBelongToTheSameTrace() {
+        Span parent = tracer.start("reconcile");
+        try (Span child = tracer.start("k8s.api")) {
+            assertSame(child, tracer.current());
+            assertEquals(parent.getTraceId(), child.getTraceId());
+            assertEquals(parent.getSpanId(), child.getParentSpanId());
+        }
+        assertSame(parent, tracer.current());
+        parent.close();
+        assertNull(tracer.current());
+
+        List<Span> spans = tracer.getTrace(parent.getTraceId());
+        assertEquals(2, spans.size());
+        assertEquals("k8s.api", spans.get(0).getName());
+        assertTrue(spans.get(1).getDurationMicros() >= 0);
+    }
+
+    @Test
+    public void incomingTraceparentIsContinued() {
+        Span span = tracer.startDetached("gateway.request", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.getTraceId());
+        assertEquals("00f067aa0ba902b7", span.getParentSpanId());
+        assertTrue(span.traceparent().matches("00-4bf92f3577b34da6a3ce929d0e0e4736-[0-9a-f]{16}-01"));
+        assertNull(tracer.current());
+
+        Span invalid = tracer.startDetached("gateway.request", "00-00000000000000000000000000000000-00f067aa0ba902b7-01");
+        assertNull(invalid.getParentSpanId());
+        assertEquals(32, invalid.getTraceId().length());
+    }
+
+    @Test
+    public void oldestSpansAreOverwritten() {
+        for (int i = 0; i < 5; i++) {
+            tracer.start("span-" + i).close();
+        }
+        List<Span> spans = tracer.getSpans();
+        assertEquals(3, spans.size());
+        assertEquals("span-2", spans.get(0).getName());
+        assertEquals("span-4", spans.get(2).getName());
+    }
+}